@@ -0,0 +1,401 @@
+package org.cloudbus.cloudsim.examples;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.DatacenterBroker;
+import org.cloudbus.cloudsim.DatacenterCharacteristics;
+import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.UtilizationModel;
+import org.cloudbus.cloudsim.UtilizationModelFull;
+import org.cloudbus.cloudsim.Vm;
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.core.CloudSimTags;
+import org.cloudbus.cloudsim.core.SimEvent;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+/**
+ * Broker that hands every cloudlet to the datacenter at its own arrival time instead of
+ * submitting the whole list as soon as the VMs are up.
+ *
+ * Cloudlets are bound to VMs exactly like DatacenterBroker does (explicit binding first,
+ * round robin otherwise) and then grouped by arrival instant. Each distinct instant becomes
+ * a single CLOUDLET_ARRIVAL event carrying the whole batch, so the number of extra events
+ * follows the number of distinct arrival times rather than the number of cloudlets.
+ *
+ * A CloudletTable can be submitted instead of (or next to) the cloudlet list. Its rows are
+ * bound the same way, then released one arrival instant at a time: a CustomCloudlet is
+ * materialized when its row arrives, and when it returns its outcome is written back to the
+ * table and the object is dropped. Nothing of a table workload enters the submitted or
+ * received lists, so only the cloudlets in flight exist as objects.
+ *
+ * A WorkloadSource (a generator or a trace) is consumed lazily: the next record is only read
+ * once the previous arrival instant has been released, so memory follows the number of
+ * cloudlets in flight rather than the size of the workload. Streamed cloudlets are bound round
+ * robin and, once returned, handed to a sink instead of the received list when one is given.
+ *
+ * The cloudlets released at one instant are sent to each ProfiledDatacenter as a single
+ * CLOUDLET_SUBMIT_BATCH event, and come back as one CLOUDLET_RETURN_BATCH per completion check,
+ * so broker-datacenter traffic follows the number of instants rather than the number of
+ * cloudlets. -Dcloudsim.batchevents=false falls back to one event per cloudlet each way.
+ *
+ * Bind, submit and finish of every cloudlet are reported to SimulationEvents, and progress
+ * to SimulationMonitor.
+ */
+public class ArrivalAwareBroker extends DatacenterBroker {
+
+    private CloudletTable table;
+    private int[] tableRows; // submission order until bound, then arrival order
+    private int nextArrival = -1;
+    private WorkloadSource stream;
+    private Consumer<? super Cloudlet> streamSink;
+    private boolean streamStarted;
+    private int nextStreamId;
+    private int streamVmIndex;
+    private final UtilizationModel utilizationModel = new UtilizationModelFull();
+    private final SimulationEvents.EntityProfile profile;
+    private final SimulationMonitor monitor = SimulationMonitor.get();
+    private boolean monitored; // also: the VMs are up and submitCloudlets() has run
+    private int datacenterId = -1;
+    private final boolean batchEvents = !"false".equalsIgnoreCase(System.getProperty("cloudsim.batchevents", "").trim());
+    // Cloudlets released at the current instant, by datacenter, until flushSubmissions()
+    private final Map<Integer, List<Cloudlet>> pendingSubmissions = new LinkedHashMap<>();
+
+    // A cloudlet read from the workload source, so the broker can tell it from listed ones
+    private static final class StreamedCloudlet extends CustomCloudlet {
+        StreamedCloudlet(int id, WorkloadSource source, UtilizationModel utilizationModel) {
+            super(id, source.getLength(), 1, source.getFileSize(), source.getOutputSize(),
+                    utilizationModel, utilizationModel, utilizationModel);
+            setArrivalTime(source.getArrivalTime());
+            setPriority(source.getPriority());
+        }
+    }
+
+    public ArrivalAwareBroker(String name) throws Exception {
+        super(name);
+        profile = SimulationEvents.profile(name);
+    }
+
+    @Override
+    public void processEvent(SimEvent ev) {
+        monitor.eventHandled();
+        if (!SimulationEvents.isProfiling()) {
+            super.processEvent(ev);
+            return;
+        }
+        long start = System.nanoTime();
+        super.processEvent(ev);
+        profile.record(System.nanoTime() - start);
+    }
+
+    /**
+     * Creates the VMs in the given datacenter only, instead of in the first one registered, so
+     * several brokers of one simulation can each use their own datacenter.
+     */
+    public void setDatacenterId(int datacenterId) {
+        this.datacenterId = datacenterId;
+    }
+
+    @Override
+    protected void processResourceCharacteristicsRequest(SimEvent ev) {
+        if (datacenterId < 0) {
+            super.processResourceCharacteristicsRequest(ev);
+            return;
+        }
+        setDatacenterIdsList(new ArrayList<>(Collections.singletonList(datacenterId)));
+        setDatacenterCharacteristicsList(new HashMap<Integer, DatacenterCharacteristics>());
+        sendNow(datacenterId, CloudSimTags.RESOURCE_CHARACTERISTICS, getId());
+    }
+
+    /**
+     * Submits the given rows of a table, in submission order (which decides round robin
+     * binding, like the order of the cloudlet list). Rows bound to a VM that was not created
+     * are bound round robin instead.
+     */
+    public void submitCloudletTable(CloudletTable table, int[] rows) {
+        this.table = table;
+        this.tableRows = rows;
+    }
+
+    public CloudletTable getCloudletTable() {
+        return table;
+    }
+
+    /**
+     * Keeps the broker running until count more cloudlets have returned, on top of its own
+     * workload. They are handed to it later, already bound, as CLOUDLET_ARRIVAL events carrying
+     * a List<Cloudlet>; those handed over before the VMs are up wait for them.
+     */
+    public void expectCloudlets(int count) {
+        cloudletsSubmitted += count;
+    }
+
+    /**
+     * Streams cloudlets from the given source, which must deliver records in arrival order (late
+     * records are submitted right away). Returned cloudlets go to the sink, or to the received
+     * list when the sink is null. Streamed cloudlet ids follow the ids of the table and the list.
+     */
+    public void submitWorkload(WorkloadSource source, Consumer<? super Cloudlet> sink) {
+        this.stream = source;
+        this.streamSink = sink;
+    }
+
+    @Override
+    public void shutdownEntity() {
+        super.shutdownEntity();
+        monitor.end();
+    }
+
+    @Override
+    protected void submitCloudlets() {
+        if (!monitored) {
+            monitored = true;
+            long expected = getCloudletList().size() + (table == null ? 0 : tableRows.length);
+            if (stream != null) {
+                expected = stream instanceof WorkloadGenerator ? expected + ((WorkloadGenerator) stream).getCount() : -1;
+            }
+            monitor.begin(getVmsCreatedList(), expected);
+        }
+        submitTable();
+        submitStream();
+        submitCloudletList();
+    }
+
+    private void submitTable() {
+        List<Vm> vms = getVmsCreatedList();
+        if (table == null || nextArrival >= 0 || vms.isEmpty()) {
+            return;
+        }
+        Set<Integer> created = new HashSet<>();
+        for (Vm vm : vms) {
+            created.add(vm.getId());
+        }
+        int vmIndex = 0;
+        for (int row : tableRows) {
+            boolean roundRobin = !created.contains(table.getVmId(row));
+            if (roundRobin) {
+                table.setVmId(row, vms.get(vmIndex).getId());
+                vmIndex = (vmIndex + 1) % vms.size();
+            }
+            SimulationEvents.cloudletBound(row, table.getVmId(row), roundRobin);
+        }
+
+        // Stable, so rows arriving together keep their submission order
+        CloudletTable.sort(tableRows, (a, b) -> Long.compare(table.getArrivalTime(a), table.getArrivalTime(b)));
+        cloudletsSubmitted += tableRows.length;
+        nextArrival = 0;
+        scheduleNextTableArrival();
+    }
+
+    private void scheduleNextTableArrival() {
+        if (nextArrival < tableRows.length) {
+            double arrival = table.getArrivalTime(tableRows[nextArrival]);
+            schedule(getId(), Math.max(arrival - CloudSim.clock(), 0), SimulationTags.TABLE_ARRIVAL);
+        }
+    }
+
+    // Materializes and submits every row of the next arrival instant
+    protected void processTableArrival() {
+        long arrival = table.getArrivalTime(tableRows[nextArrival]);
+        while (nextArrival < tableRows.length && table.getArrivalTime(tableRows[nextArrival]) == arrival) {
+            CustomCloudlet cloudlet = table.materialize(tableRows[nextArrival++], getId(), utilizationModel);
+            submit(cloudlet);
+        }
+        flushSubmissions();
+        scheduleNextTableArrival();
+    }
+
+    private void submitStream() {
+        if (stream == null || streamStarted || getVmsCreatedList().isEmpty()) {
+            return;
+        }
+        streamStarted = true;
+        nextStreamId = table == null ? 0 : table.size();
+        for (Cloudlet cloudlet : getCloudletList()) {
+            nextStreamId = Math.max(nextStreamId, cloudlet.getCloudletId() + 1);
+        }
+        if (pullStream()) {
+            schedule(getId(), Math.max(stream.getArrivalTime() - CloudSim.clock(), 0), SimulationTags.STREAM_ARRIVAL);
+        }
+    }
+
+    // Reads the next record; a record that was read counts as submitted until its cloudlet returns
+    private boolean pullStream() {
+        try {
+            if (!stream.next()) {
+                return false;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read the next workload record", e);
+        }
+        cloudletsSubmitted++;
+        return true;
+    }
+
+    // Submits the pending record and every following one of the same arrival instant
+    protected void processStreamArrival() {
+        List<Vm> vms = getVmsCreatedList();
+        double now = CloudSim.clock();
+        boolean more;
+        do {
+            CustomCloudlet cloudlet = new StreamedCloudlet(nextStreamId++, stream, utilizationModel);
+            cloudlet.setUserId(getId());
+            cloudlet.setVmId(vms.get(streamVmIndex).getId());
+            streamVmIndex = (streamVmIndex + 1) % vms.size();
+            SimulationEvents.cloudletBound(cloudlet.getCloudletId(), cloudlet.getVmId(), true);
+            submit(cloudlet);
+            more = pullStream();
+        } while (more && stream.getArrivalTime() <= now);
+        flushSubmissions();
+        if (more) {
+            schedule(getId(), stream.getArrivalTime() - now, SimulationTags.STREAM_ARRIVAL);
+        }
+    }
+
+    // Hands a bound cloudlet to the datacenter of its VM, batched until flushSubmissions()
+    private void submit(Cloudlet cloudlet) {
+        SimulationEvents.cloudletSubmitted(cloudlet);
+        monitor.cloudletSubmitted(cloudlet.getVmId());
+        int datacenterId = getVmsToDatacentersMap().get(cloudlet.getVmId());
+        if (batchEvents && CloudSim.getEntity(datacenterId) instanceof ProfiledDatacenter) {
+            pendingSubmissions.computeIfAbsent(datacenterId, id -> new ArrayList<>()).add(cloudlet);
+        } else {
+            sendNow(datacenterId, CloudSimTags.CLOUDLET_SUBMIT, cloudlet);
+        }
+    }
+
+    // Sends one event per datacenter with the cloudlets submitted since the last flush
+    private void flushSubmissions() {
+        for (Map.Entry<Integer, List<Cloudlet>> batch : pendingSubmissions.entrySet()) {
+            sendNow(batch.getKey(), SimulationTags.CLOUDLET_SUBMIT_BATCH, batch.getValue());
+        }
+        pendingSubmissions.clear();
+    }
+
+    @Override
+    protected void processCloudletReturn(SimEvent ev) {
+        cloudletReturned((Cloudlet) ev.getData());
+    }
+
+    @SuppressWarnings("unchecked")
+    protected void processCloudletReturnBatch(SimEvent ev) {
+        for (Cloudlet cloudlet : (List<Cloudlet>) ev.getData()) {
+            cloudletReturned(cloudlet);
+        }
+    }
+
+    // What DatacenterBroker does with a returned cloudlet, plus the table and stream cases
+    private void cloudletReturned(Cloudlet cloudlet) {
+        SimulationEvents.cloudletFinished(cloudlet);
+        monitor.cloudletFinished(cloudlet.getVmId());
+        if (cloudlet instanceof CloudletTable.RowCloudlet && ((CloudletTable.RowCloudlet) cloudlet).getTable() == table) {
+            table.complete(cloudlet);
+        } else if (cloudlet instanceof StreamedCloudlet && streamSink != null) {
+            streamSink.accept(cloudlet);
+        } else {
+            getCloudletReceivedList().add(cloudlet);
+        }
+        Log.printLine(CloudSim.clock() + ": " + getName() + ": Cloudlet " + cloudlet.getCloudletId() + " received");
+        cloudletsSubmitted--;
+        // Same endgame as DatacenterBroker
+        if (getCloudletList().isEmpty() && cloudletsSubmitted == 0) {
+            Log.printLine(CloudSim.clock() + ": " + getName() + ": All Cloudlets executed. Finishing...");
+            clearDatacenters();
+            finishExecution();
+        } else if (!getCloudletList().isEmpty() && cloudletsSubmitted == 0) {
+            clearDatacenters();
+            createVmsInDatacenter(0);
+        }
+    }
+
+    private void submitCloudletList() {
+        List<Vm> vms = getVmsCreatedList();
+        if (vms.isEmpty()) {
+            return;
+        }
+        Map<Integer, Vm> vmsById = new HashMap<>();
+        for (Vm vm : vms) {
+            vmsById.put(vm.getId(), vm);
+        }
+
+        TreeMap<Double, List<Cloudlet>> arrivals = new TreeMap<>();
+        List<Cloudlet> postponed = new ArrayList<>();
+        int vmIndex = 0;
+        for (Cloudlet cloudlet : getCloudletList()) {
+            Vm vm;
+            boolean roundRobin = cloudlet.getVmId() == -1;
+            if (roundRobin) {
+                vm = vms.get(vmIndex);
+                vmIndex = (vmIndex + 1) % vms.size();
+            } else {
+                vm = vmsById.get(cloudlet.getVmId());
+                if (vm == null) {
+                    // Bound VM not created (yet), keep it for a later round like DatacenterBroker does
+                    Log.printLine(CloudSim.clock() + ": " + getName() + ": Postponing execution of cloudlet "
+                            + cloudlet.getCloudletId() + ": bound VM not available");
+                    postponed.add(cloudlet);
+                    continue;
+                }
+            }
+            cloudlet.setVmId(vm.getId());
+            SimulationEvents.cloudletBound(cloudlet.getCloudletId(), vm.getId(), roundRobin);
+            arrivals.computeIfAbsent(arrivalTimeOf(cloudlet), t -> new ArrayList<>()).add(cloudlet);
+
+            // Counted as submitted right away so the broker does not finish while arrivals are pending
+            cloudletsSubmitted++;
+            getCloudletSubmittedList().add(cloudlet);
+        }
+
+        // Rebuilding the list avoids the quadratic removeAll() of the parent implementation
+        getCloudletList().clear();
+        getCloudletList().addAll(postponed);
+
+        double now = CloudSim.clock();
+        for (Map.Entry<Double, List<Cloudlet>> arrival : arrivals.entrySet()) {
+            schedule(getId(), Math.max(arrival.getKey() - now, 0), SimulationTags.CLOUDLET_ARRIVAL, arrival.getValue());
+        }
+    }
+
+    @Override
+    protected void processOtherEvent(SimEvent ev) {
+        if (ev != null && ev.getTag() == SimulationTags.CLOUDLET_ARRIVAL) {
+            processCloudletArrival(ev);
+        } else if (ev != null && ev.getTag() == SimulationTags.TABLE_ARRIVAL) {
+            processTableArrival();
+        } else if (ev != null && ev.getTag() == SimulationTags.STREAM_ARRIVAL) {
+            processStreamArrival();
+        } else if (ev != null && ev.getTag() == SimulationTags.CLOUDLET_RETURN_BATCH) {
+            processCloudletReturnBatch(ev);
+        } else {
+            super.processOtherEvent(ev);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    protected void processCloudletArrival(SimEvent ev) {
+        if (!monitored) {
+            // Only expected cloudlets arrive this early, the listed ones are scheduled once the VMs are up
+            schedule(getId(), CloudSim.getMinTimeBetweenEvents(), SimulationTags.CLOUDLET_ARRIVAL, ev.getData());
+            return;
+        }
+        for (Cloudlet cloudlet : (List<Cloudlet>) ev.getData()) {
+            submit(cloudlet);
+        }
+        flushSubmissions();
+    }
+
+    // Arrival time of a cloudlet in simulation seconds; plain cloudlets arrive at t=0
+    public static double arrivalTimeOf(Cloudlet cloudlet) {
+        return cloudlet instanceof CustomCloudlet ? ((CustomCloudlet) cloudlet).getArrivalTime() : 0;
+    }
+}
@@ -0,0 +1,175 @@
+package org.cloudbus.cloudsim.examples;
+
+import org.cloudbus.cloudsim.Host;
+import org.cloudbus.cloudsim.Vm;
+import org.cloudbus.cloudsim.VmAllocationPolicy;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * VM allocation policy that keeps the hosts indexed by free MIPS instead of scanning the whole
+ * host list for every VM like VmAllocationPolicySimple.
+ *
+ *  - FIRST_FIT uses a max segment tree over the host list and finds the lowest-index host with
+ *    enough free MIPS in O(log H).
+ *  - BEST_FIT uses a tree ordered by free MIPS and takes the tightest host that still fits,
+ *    also O(log H).
+ *
+ * Free MIPS is only the index key; the candidate is still checked with Host.isSuitableForVm()
+ * (RAM, BW, PE capacity) and the search moves on to the next candidate if it does not fit.
+ */
+public class CapacityIndexedVmAllocationPolicy extends VmAllocationPolicy {
+
+    public enum Mode { FIRST_FIT, BEST_FIT }
+
+    private static final int PROBE = -1; // stands for the requested capacity in tree lookups
+
+    private final Mode mode;
+    private final List<Host> hosts;
+    private final Map<Host, Integer> hostIndex = new IdentityHashMap<>();
+    private final Map<String, Host> vmTable = new HashMap<>();
+
+    private final double[] freeMips;
+    private final double[] segmentTree; // max free MIPS per range of host indices
+    private final int leaves;
+    private final TreeSet<Integer> byFreeMips;
+    private double probeMips;
+
+    public CapacityIndexedVmAllocationPolicy(List<? extends Host> list) {
+        this(list, Mode.FIRST_FIT);
+    }
+
+    public CapacityIndexedVmAllocationPolicy(List<? extends Host> list, Mode mode) {
+        super(list);
+        this.mode = mode;
+        this.hosts = getHostList();
+        this.freeMips = new double[hosts.size()];
+
+        int size = 1;
+        while (size < hosts.size()) {
+            size <<= 1;
+        }
+        this.leaves = size;
+        this.segmentTree = new double[2 * size];
+        this.byFreeMips = new TreeSet<>((a, b) -> {
+            int byMips = Double.compare(mipsOf(a), mipsOf(b));
+            return byMips != 0 ? byMips : Integer.compare(a, b);
+        });
+
+        for (int i = 0; i < hosts.size(); i++) {
+            hostIndex.put(hosts.get(i), i);
+            freeMips[i] = hosts.get(i).getAvailableMips();
+            segmentTree[size + i] = freeMips[i];
+            byFreeMips.add(i);
+        }
+        for (int node = size - 1; node > 0; node--) {
+            segmentTree[node] = Math.max(segmentTree[2 * node], segmentTree[2 * node + 1]);
+        }
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    @Override
+    public boolean allocateHostForVm(Vm vm) {
+        if (vmTable.containsKey(vm.getUid())) {
+            return false; // already allocated
+        }
+        double required = vm.getMips() * vm.getNumberOfPes();
+        int index = mode == Mode.BEST_FIT ? bestFit(vm, required) : firstFit(vm, required);
+        return index >= 0 && allocateHostForVm(vm, hosts.get(index));
+    }
+
+    @Override
+    public boolean allocateHostForVm(Vm vm, Host host) {
+        Integer index = hostIndex.get(host);
+        if (index == null || !host.vmCreate(vm)) {
+            return false;
+        }
+        vmTable.put(vm.getUid(), host);
+        refresh(index);
+        return true;
+    }
+
+    @Override
+    public void deallocateHostForVm(Vm vm) {
+        Host host = vmTable.remove(vm.getUid());
+        if (host != null) {
+            host.vmDestroy(vm);
+            refresh(hostIndex.get(host));
+        }
+    }
+
+    @Override
+    public List<Map<String, Object>> optimizeAllocation(List<? extends Vm> vmList) {
+        return null;
+    }
+
+    @Override
+    public Host getHost(Vm vm) {
+        return vmTable.get(vm.getUid());
+    }
+
+    @Override
+    public Host getHost(int vmId, int userId) {
+        return vmTable.get(Vm.getUid(userId, vmId));
+    }
+
+    // Lowest-index suitable host
+    private int firstFit(Vm vm, double required) {
+        int from = 0;
+        while (true) {
+            int index = firstAtLeast(1, 0, leaves, from, required);
+            if (index < 0 || hosts.get(index).isSuitableForVm(vm)) {
+                return index;
+            }
+            from = index + 1;
+        }
+    }
+
+    // Leftmost host index >= from whose free MIPS is at least 'required', or -1
+    private int firstAtLeast(int node, int lo, int hi, int from, double required) {
+        if (hi <= from || segmentTree[node] < required) {
+            return -1;
+        }
+        if (hi - lo == 1) {
+            return lo < hosts.size() ? lo : -1;
+        }
+        int mid = (lo + hi) >>> 1;
+        int left = firstAtLeast(2 * node, lo, mid, from, required);
+        return left >= 0 ? left : firstAtLeast(2 * node + 1, mid, hi, from, required);
+    }
+
+    // Suitable host with the least free MIPS that still covers the request
+    private int bestFit(Vm vm, double required) {
+        probeMips = required;
+        for (int index : byFreeMips.tailSet(PROBE, false)) {
+            if (hosts.get(index).isSuitableForVm(vm)) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    private double mipsOf(int index) {
+        return index == PROBE ? probeMips : freeMips[index];
+    }
+
+    // Re-indexes a host after its free capacity changed
+    private void refresh(int index) {
+        byFreeMips.remove(index);
+        freeMips[index] = hosts.get(index).getAvailableMips();
+        byFreeMips.add(index);
+
+        int node = leaves + index;
+        segmentTree[node] = freeMips[index];
+        for (node >>= 1; node > 0; node >>= 1) {
+            segmentTree[node] = Math.max(segmentTree[2 * node], segmentTree[2 * node + 1]);
+        }
+    }
+}
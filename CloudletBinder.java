@@ -0,0 +1,32 @@
+package org.cloudbus.cloudsim.examples;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.UtilizationModelFull;
+import org.cloudbus.cloudsim.Vm;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Decides which VM runs each cloudlet before the list is handed to the broker.
+ * Implementations set the VM id on the cloudlets; DatacenterBroker and ArrivalAwareBroker
+ * keep explicit bindings instead of assigning VMs round robin.
+ */
+public interface CloudletBinder {
+
+    void bind(List<? extends Cloudlet> cloudlets, List<? extends Vm> vms);
+
+    // Binds the given rows of a table; by default through temporary cloudlets, which
+    // implementations working on primitive arrays should avoid
+    default void bind(CloudletTable table, int[] rows, List<? extends Vm> vms) {
+        List<CustomCloudlet> cloudlets = new ArrayList<>(rows.length);
+        UtilizationModelFull utilizationModel = new UtilizationModelFull();
+        for (int row : rows) {
+            cloudlets.add(table.materialize(row, -1, utilizationModel));
+        }
+        bind(cloudlets, vms);
+        for (CustomCloudlet cloudlet : cloudlets) {
+            table.setVmId(cloudlet.getCloudletId(), cloudlet.getVmId());
+        }
+    }
+}
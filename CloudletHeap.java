@@ -0,0 +1,126 @@
+package org.cloudbus.cloudsim.examples;
+
+import java.util.Arrays;
+
+/**
+ * Indexed binary min-heap of queued cloudlets. Every entry remembers its own slot, so besides
+ * O(log n) insert and poll it supports O(log n) removal and key changes of arbitrary entries.
+ * Entries with equal keys come out in insertion order.
+ */
+public class CloudletHeap {
+
+    private QueuedResCloudlet[] heap = new QueuedResCloudlet[64];
+    private int size;
+    private long sequence;
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean contains(QueuedResCloudlet rcl) {
+        int index = rcl.getHeapIndex();
+        return index >= 0 && index < size && heap[index] == rcl;
+    }
+
+    public void add(QueuedResCloudlet rcl, double key) {
+        if (size == heap.length) {
+            heap = Arrays.copyOf(heap, size * 2);
+        }
+        rcl.setHeapKey(key);
+        rcl.setHeapSequence(sequence++);
+        heap[size] = rcl;
+        rcl.setHeapIndex(size);
+        siftUp(size++);
+    }
+
+    public QueuedResCloudlet peek() {
+        return size == 0 ? null : heap[0];
+    }
+
+    public QueuedResCloudlet poll() {
+        if (size == 0) {
+            return null;
+        }
+        QueuedResCloudlet head = heap[0];
+        removeAt(0);
+        return head;
+    }
+
+    public boolean remove(QueuedResCloudlet rcl) {
+        if (!contains(rcl)) {
+            return false;
+        }
+        removeAt(rcl.getHeapIndex());
+        return true;
+    }
+
+    // Moves an entry to its place for a new key; it keeps its insertion order among equal keys
+    public void updateKey(QueuedResCloudlet rcl, double key) {
+        double old = rcl.getHeapKey();
+        rcl.setHeapKey(key);
+        if (key < old) {
+            siftUp(rcl.getHeapIndex());
+        } else {
+            siftDown(rcl.getHeapIndex());
+        }
+    }
+
+    private void removeAt(int index) {
+        QueuedResCloudlet removed = heap[index];
+        QueuedResCloudlet last = heap[--size];
+        heap[size] = null;
+        removed.setHeapIndex(-1);
+        if (index < size) {
+            heap[index] = last;
+            last.setHeapIndex(index);
+            siftDown(index);
+            siftUp(last.getHeapIndex());
+        }
+    }
+
+    private void siftUp(int index) {
+        QueuedResCloudlet rcl = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!less(rcl, heap[parent])) {
+                break;
+            }
+            place(heap[parent], index);
+            index = parent;
+        }
+        place(rcl, index);
+    }
+
+    private void siftDown(int index) {
+        QueuedResCloudlet rcl = heap[index];
+        int half = size >>> 1;
+        while (index < half) {
+            int child = 2 * index + 1;
+            if (child + 1 < size && less(heap[child + 1], heap[child])) {
+                child++;
+            }
+            if (!less(heap[child], rcl)) {
+                break;
+            }
+            place(heap[child], index);
+            index = child;
+        }
+        place(rcl, index);
+    }
+
+    private void place(QueuedResCloudlet rcl, int index) {
+        heap[index] = rcl;
+        rcl.setHeapIndex(index);
+    }
+
+    private static boolean less(QueuedResCloudlet a, QueuedResCloudlet b) {
+        if (a.getHeapKey() != b.getHeapKey()) {
+            return a.getHeapKey() < b.getHeapKey();
+        }
+        return a.getHeapSequence() < b.getHeapSequence();
+    }
+}
@@ -0,0 +1,57 @@
+package org.cloudbus.cloudsim.examples;
+
+import org.cloudbus.cloudsim.Cloudlet;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.file.Paths;
+
+/**
+ * Converts a binary cloudlet result file (see CloudletResultWriter) to CSV.
+ *
+ * Usage: CloudletResultExport input.clr [output.csv]
+ */
+public class CloudletResultExport {
+
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.out.println("Usage: CloudletResultExport input.clr [output.csv]");
+            return;
+        }
+        String input = args[0];
+        String output = args.length > 1 ? args[1] : input.replaceFirst("\\.clr$", "") + ".csv";
+        try {
+            long rows = export(input, output);
+            System.out.println(rows + " cloudlets exported to " + output);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    public static long export(String input, String output) throws IOException {
+        long rows = 0;
+        try (CloudletResultReader reader = new CloudletResultReader(Paths.get(input));
+             BufferedWriter writer = new BufferedWriter(new FileWriter(output))) {
+            writer.write("Cloudlet ID, VM ID, Arrival Time, Priority, Status, Start Time, Finish Time, Length, File Size, Output Size, Wait Time, Turnaround Time\n");
+            while (reader.next()) {
+                long arrivalTime = reader.getArrivalTime();
+                writer.write(String.format("%d, %d, %d, %d, %s, %.2f, %.2f, %d, %d, %d, %.2f, %.2f\n",
+                        reader.getCloudletId(),
+                        reader.getVmId(),
+                        arrivalTime,
+                        reader.getPriority(),
+                        Cloudlet.getStatusString(reader.getStatus()),
+                        reader.getExecStartTime(),
+                        reader.getFinishTime(),
+                        reader.getLength(),
+                        reader.getFileSize(),
+                        reader.getOutputSize(),
+                        Math.max(reader.getExecStartTime() - arrivalTime, 0),
+                        Math.max(reader.getFinishTime() - arrivalTime, 0)));
+                rows++;
+            }
+        }
+        return rows;
+    }
+}
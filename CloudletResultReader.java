@@ -0,0 +1,143 @@
+package org.cloudbus.cloudsim.examples;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.cloudbus.cloudsim.examples.CloudletResultWriter.*;
+
+/**
+ * Reads files written by CloudletResultWriter one block at a time into a reused direct
+ * buffer. next() steps a row cursor and the getters return the columns of the current row.
+ */
+public class CloudletResultReader implements Closeable {
+
+    private final FileChannel channel;
+    private final ByteBuffer block;
+    private final ByteBuffer blockHeader = ByteBuffer.allocateDirect(BLOCK_HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+    private final int[] columnOffsets = new int[COLUMN.length];
+
+    private int blockRowCount;
+    private int row = -1;
+
+    public CloudletResultReader(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        int blockRows = readHeader(channel);
+        channel.position(FILE_HEADER_BYTES);
+        this.block = ByteBuffer.allocateDirect(blockRowBytes() * blockRows).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    // Checks the file header and returns the block capacity
+    static int readHeader(FileChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        readFully(channel, header, 0);
+        header.flip();
+        if (header.getInt() != MAGIC) {
+            throw new IOException("Not a cloudlet result file");
+        }
+        int version = header.getInt();
+        int columns = header.getInt();
+        if (version != VERSION || columns != COLUMN.length) {
+            throw new IOException("Unsupported cloudlet result file version " + version + " with " + columns + " columns");
+        }
+        return header.getInt();
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new EOFException("Truncated cloudlet result file");
+            }
+            position += read;
+        }
+    }
+
+    private static int blockRowBytes() {
+        int bytes = 0;
+        for (int width : COLUMN_WIDTHS) {
+            bytes += width;
+        }
+        return bytes;
+    }
+
+    /**
+     * Moves to the next row, loading the next block when the current one is used up.
+     *
+     * @return false at the end of the file
+     */
+    public boolean next() throws IOException {
+        if (++row < blockRowCount) {
+            return true;
+        }
+        long position = channel.position();
+        if (position >= channel.size()) {
+            return false;
+        }
+        blockHeader.clear();
+        readFully(channel, blockHeader, position);
+        blockRowCount = blockHeader.getInt(0);
+        position += BLOCK_HEADER_BYTES;
+
+        int offset = 0;
+        for (int c = 0; c < COLUMN.length; c++) {
+            columnOffsets[c] = offset;
+            offset += COLUMN_WIDTHS[c] * blockRowCount;
+        }
+        block.clear().limit(offset);
+        readFully(channel, block, position);
+        channel.position(position + offset);
+        row = 0;
+        return blockRowCount > 0 || next();
+    }
+
+    public int getCloudletId() {
+        return block.getInt(columnOffsets[ID] + row * 4);
+    }
+
+    public int getVmId() {
+        return block.getInt(columnOffsets[VM_ID] + row * 4);
+    }
+
+    public int getStatus() {
+        return block.get(columnOffsets[STATUS] + row);
+    }
+
+    public int getPriority() {
+        return block.getInt(columnOffsets[PRIORITY] + row * 4);
+    }
+
+    public long getArrivalTime() {
+        return block.getLong(columnOffsets[ARRIVAL] + row * 8);
+    }
+
+    public double getExecStartTime() {
+        return block.getDouble(columnOffsets[START] + row * 8);
+    }
+
+    public double getFinishTime() {
+        return block.getDouble(columnOffsets[FINISH] + row * 8);
+    }
+
+    public long getLength() {
+        return block.getLong(columnOffsets[LENGTH] + row * 8);
+    }
+
+    public long getFileSize() {
+        return block.getLong(columnOffsets[FILE_SIZE] + row * 8);
+    }
+
+    public long getOutputSize() {
+        return block.getLong(columnOffsets[OUTPUT_SIZE] + row * 8);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
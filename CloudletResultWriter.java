@@ -0,0 +1,162 @@
+package org.cloudbus.cloudsim.examples;
+
+import org.cloudbus.cloudsim.Cloudlet;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Writes per-cloudlet results in a compact binary columnar format, for runs where
+ * String.format-ing millions of CSV rows would dominate the post-simulation time.
+ *
+ * Layout (little endian): a 16 byte file header (magic "CLRS", version, column count,
+ * block capacity), followed by blocks of up to 'block capacity' rows. Every block starts
+ * with its row count and then holds each column contiguously, in COLUMN order, with the
+ * fixed widths of COLUMN_WIDTHS. Blocks are self-contained, so a file can be appended to.
+ *
+ * Rows are copied into one direct buffer per column and every full block goes out in a
+ * single gathering write, so nothing is allocated per row. CloudletResultReader reads
+ * the format back and CloudletResultExport turns it into CSV.
+ */
+public class CloudletResultWriter implements Closeable {
+
+    static final int MAGIC = 0x53524C43; // "CLRS" once written little endian
+    static final int VERSION = 1;
+    static final int FILE_HEADER_BYTES = 16;
+    static final int BLOCK_HEADER_BYTES = 4;
+    public static final int DEFAULT_BLOCK_ROWS = 65536;
+
+    // Column indices
+    static final int ID = 0;
+    static final int VM_ID = 1;
+    static final int STATUS = 2;
+    static final int PRIORITY = 3;
+    static final int ARRIVAL = 4;
+    static final int START = 5;
+    static final int FINISH = 6;
+    static final int LENGTH = 7;
+    static final int FILE_SIZE = 8;
+    static final int OUTPUT_SIZE = 9;
+
+    static final String[] COLUMN = {"id", "vmId", "status", "priority", "arrival", "start", "finish", "length", "fileSize", "outputSize"};
+    static final int[] COLUMN_WIDTHS = {4, 4, 1, 4, 8, 8, 8, 8, 8, 8};
+
+    private final FileChannel channel;
+    private final int blockRows;
+    private final ByteBuffer blockHeader;
+    private final ByteBuffer[] columns = new ByteBuffer[COLUMN.length];
+    private final ByteBuffer[] gather = new ByteBuffer[COLUMN.length + 1];
+    private int rows;
+
+    public CloudletResultWriter(Path path, boolean append) throws IOException {
+        this(path, append, DEFAULT_BLOCK_ROWS);
+    }
+
+    public CloudletResultWriter(Path path, boolean append, int blockRows) throws IOException {
+        this.channel = append
+                ? FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.READ)
+                : FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        this.blockHeader = ByteBuffer.allocateDirect(BLOCK_HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        gather[0] = blockHeader;
+
+        if (channel.size() == 0) {
+            this.blockRows = blockRows;
+            ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putInt(VERSION).putInt(COLUMN.length).putInt(blockRows).flip();
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+        } else {
+            // Appending keeps the block size the file was created with
+            this.blockRows = CloudletResultReader.readHeader(channel);
+            channel.position(channel.size());
+        }
+
+        for (int c = 0; c < columns.length; c++) {
+            columns[c] = ByteBuffer.allocateDirect(COLUMN_WIDTHS[c] * this.blockRows).order(ByteOrder.LITTLE_ENDIAN);
+            gather[c + 1] = columns[c];
+        }
+    }
+
+    // Fastest path for callers that don't hold Cloudlet objects
+    public void write(int id, int vmId, int status, int priority, long arrival, double start, double finish,
+                      long length, long fileSize, long outputSize) throws IOException {
+        columns[ID].putInt(id);
+        columns[VM_ID].putInt(vmId);
+        columns[STATUS].put((byte) status);
+        columns[PRIORITY].putInt(priority);
+        columns[ARRIVAL].putLong(arrival);
+        columns[START].putDouble(start);
+        columns[FINISH].putDouble(finish);
+        columns[LENGTH].putLong(length);
+        columns[FILE_SIZE].putLong(fileSize);
+        columns[OUTPUT_SIZE].putLong(outputSize);
+        if (++rows == blockRows) {
+            flushBlock();
+        }
+    }
+
+    public void write(Cloudlet cloudlet) throws IOException {
+        long arrival = 0;
+        int priority = 0;
+        if (cloudlet instanceof CustomCloudlet) {
+            arrival = ((CustomCloudlet) cloudlet).getArrivalTime();
+            priority = ((CustomCloudlet) cloudlet).getPriority();
+        }
+        write(cloudlet.getCloudletId(), cloudlet.getVmId(), cloudlet.getCloudletStatus(), priority, arrival,
+                cloudlet.getExecStartTime(), cloudlet.getFinishTime(), cloudlet.getCloudletLength(),
+                cloudlet.getCloudletFileSize(), cloudlet.getCloudletOutputSize());
+    }
+
+    private void flushBlock() throws IOException {
+        if (rows == 0) {
+            return;
+        }
+        blockHeader.clear();
+        blockHeader.putInt(rows).flip();
+        long bytes = BLOCK_HEADER_BYTES;
+        for (ByteBuffer column : columns) {
+            column.flip();
+            bytes += column.remaining();
+        }
+        while (bytes > 0) {
+            bytes -= channel.write(gather);
+        }
+        for (ByteBuffer column : columns) {
+            column.clear();
+        }
+        rows = 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flushBlock();
+        } finally {
+            channel.close();
+        }
+    }
+
+    // Whether the runners should write their per-cloudlet results in this format (-Dcloudsim.results=binary)
+    public static boolean isEnabled() {
+        return "binary".equalsIgnoreCase(System.getProperty("cloudsim.results"));
+    }
+
+    public static void saveCloudletResults(List<? extends Cloudlet> finishedCloudlets, String filePath, boolean append) {
+        try (CloudletResultWriter writer = new CloudletResultWriter(Paths.get(filePath), append)) {
+            for (Cloudlet cloudlet : finishedCloudlets) {
+                writer.write(cloudlet);
+            }
+            System.out.println("Cloudlet-level results saved to " + filePath);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
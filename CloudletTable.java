@@ -0,0 +1,212 @@
+package org.cloudbus.cloudsim.examples;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.UtilizationModel;
+
+import java.util.Arrays;
+
+/**
+ * Struct-of-arrays store for very large workloads. A row is a cloudlet and the row index is
+ * its id; every attribute lives in a primitive column, so a pending cloudlet costs 56 bytes
+ * (4 int and 5 long/double columns) instead of a full Cloudlet object graph.
+ *
+ * Policies order and bind rows directly on the table; ArrivalAwareBroker materializes a
+ * CustomCloudlet only when its row arrives and writes the outcome back when it returns, so
+ * heavyweight objects exist only for cloudlets in flight. File sizes are kept as ints.
+ */
+public final class CloudletTable {
+
+    public static final int BYTES_PER_ROW = 4 * Integer.BYTES + 5 * Long.BYTES;
+
+    // Orders rows; must be consistent like a Comparator
+    public interface RowComparator {
+        int compare(int a, int b);
+    }
+
+    // A materialized row, so the broker can tell table cloudlets from listed ones
+    public static final class RowCloudlet extends CustomCloudlet {
+        private final CloudletTable table;
+
+        RowCloudlet(CloudletTable table, int row, UtilizationModel utilizationModel) {
+            super(row, table.length[row], 1, table.fileSize[row], table.outputSize[row],
+                    utilizationModel, utilizationModel, utilizationModel);
+            this.table = table;
+        }
+
+        public CloudletTable getTable() {
+            return table;
+        }
+    }
+
+    private int size;
+    private int[] vmId;
+    private int[] priority;
+    private int[] fileSize;
+    private int[] outputSize;
+    private long[] length;
+    private long[] arrival;
+    private double[] remaining;
+    private double[] start;
+    private double[] finish;
+
+    public CloudletTable(int capacity) {
+        capacity = Math.max(capacity, 1);
+        vmId = new int[capacity];
+        priority = new int[capacity];
+        fileSize = new int[capacity];
+        outputSize = new int[capacity];
+        length = new long[capacity];
+        arrival = new long[capacity];
+        remaining = new double[capacity];
+        start = new double[capacity];
+        finish = new double[capacity];
+    }
+
+    /**
+     * Appends a pending, unbound cloudlet and returns its row (= cloudlet id).
+     */
+    public int add(long length, long arrival, int priority, long fileSize, long outputSize) {
+        if (size == this.length.length) {
+            grow();
+        }
+        int row = size++;
+        this.vmId[row] = -1;
+        this.priority[row] = priority;
+        this.fileSize[row] = (int) Math.min(fileSize, Integer.MAX_VALUE);
+        this.outputSize[row] = (int) Math.min(outputSize, Integer.MAX_VALUE);
+        this.length[row] = length;
+        this.arrival[row] = arrival;
+        this.remaining[row] = length;
+        this.start[row] = -1;
+        this.finish[row] = -1;
+        return row;
+    }
+
+    private void grow() {
+        int capacity = length.length + (length.length >> 1) + 1;
+        vmId = Arrays.copyOf(vmId, capacity);
+        priority = Arrays.copyOf(priority, capacity);
+        fileSize = Arrays.copyOf(fileSize, capacity);
+        outputSize = Arrays.copyOf(outputSize, capacity);
+        length = Arrays.copyOf(length, capacity);
+        arrival = Arrays.copyOf(arrival, capacity);
+        remaining = Arrays.copyOf(remaining, capacity);
+        start = Arrays.copyOf(start, capacity);
+        finish = Arrays.copyOf(finish, capacity);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getVmId(int row) {
+        return vmId[row];
+    }
+
+    public void setVmId(int row, int vmId) {
+        this.vmId[row] = vmId;
+    }
+
+    public int getPriority(int row) {
+        return priority[row];
+    }
+
+    public long getFileSize(int row) {
+        return fileSize[row];
+    }
+
+    public long getOutputSize(int row) {
+        return outputSize[row];
+    }
+
+    public long getLength(int row) {
+        return length[row];
+    }
+
+    public long getArrivalTime(int row) {
+        return arrival[row];
+    }
+
+    // Remaining length in MI as of the cloudlet's return: 0 once finished, else what its scheduler last synced
+    public double getRemainingLength(int row) {
+        return remaining[row];
+    }
+
+    public void setRemainingLength(int row, double remaining) {
+        this.remaining[row] = remaining;
+    }
+
+    // -1 until the cloudlet has returned
+    public double getExecStartTime(int row) {
+        return start[row];
+    }
+
+    // -1 until the cloudlet has returned
+    public double getFinishTime(int row) {
+        return finish[row];
+    }
+
+    public boolean isFinished(int row) {
+        return finish[row] >= 0;
+    }
+
+    // The CloudSim view of a row, created when it is handed to the simulation core
+    public CustomCloudlet materialize(int row, int userId, UtilizationModel utilizationModel) {
+        CustomCloudlet cloudlet = new RowCloudlet(this, row, utilizationModel);
+        cloudlet.setArrivalTime(arrival[row]);
+        cloudlet.setPriority(priority[row]);
+        cloudlet.setUserId(userId);
+        cloudlet.setVmId(vmId[row]);
+        return cloudlet;
+    }
+
+    // Copies the outcome of a returned cloudlet back into its row
+    public void complete(Cloudlet cloudlet) {
+        int row = cloudlet.getCloudletId();
+        vmId[row] = cloudlet.getVmId();
+        start[row] = cloudlet.getExecStartTime();
+        finish[row] = cloudlet.getFinishTime();
+        if (cloudlet.isFinished()) {
+            remaining[row] = 0;
+        } else if (cloudlet instanceof CustomCloudlet) {
+            // Preemptive schedulers sync it on every preemption, others leave the full length
+            remaining[row] = ((CustomCloudlet) cloudlet).getRemainingLength();
+        }
+    }
+
+    // All rows in id order
+    public int[] rows() {
+        int[] rows = new int[size];
+        for (int i = 0; i < size; i++) {
+            rows[i] = i;
+        }
+        return rows;
+    }
+
+    /**
+     * Stable sort of row indices without boxing (merge sort, one int scratch array).
+     */
+    public static void sort(int[] rows, RowComparator comparator) {
+        int[] scratch = new int[rows.length];
+        for (int width = 1; width < rows.length; width <<= 1) {
+            for (int lo = 0; lo < rows.length - width; lo += width << 1) {
+                int mid = lo + width;
+                int hi = Math.min(mid + width, rows.length);
+                if (comparator.compare(rows[mid - 1], rows[mid]) <= 0) {
+                    continue; // already in order
+                }
+                System.arraycopy(rows, lo, scratch, lo, hi - lo);
+                int i = lo, j = mid, k = lo;
+                while (i < mid && j < hi) {
+                    rows[k++] = comparator.compare(scratch[j], scratch[i]) < 0 ? scratch[j++] : scratch[i++];
+                }
+                while (i < mid) {
+                    rows[k++] = scratch[i++];
+                }
+                while (j < hi) {
+                    rows[k++] = scratch[j++];
+                }
+            }
+        }
+    }
+}
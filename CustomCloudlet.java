@@ -29,7 +29,7 @@ import org.cloudbus.cloudsim.UtilizationModel;
 public class CustomCloudlet extends Cloudlet {
     private double remainingLength;
     private long arrivalTime; // Already present
-    private double finishTime;
+    private int priority;
 
     public CustomCloudlet(int cloudletId, long cloudletLength, int pesNumber, long cloudletFileSize, long cloudletOutputSize,
                           UtilizationModel utilizationModelCpu, UtilizationModel utilizationModelRam, UtilizationModel utilizationModelBw) {
@@ -53,11 +53,11 @@ public class CustomCloudlet extends Cloudlet {
         this.arrivalTime = arrivalTime;
     }
 
-    public double getFinishTime() {
-        return finishTime;
+    public int getPriority() {
+        return priority;
     }
 
-    public void setFinishTime(double finishTime) {
-        this.finishTime = finishTime;
+    public void setPriority(int priority) {
+        this.priority = priority;
     }
 }
@@ -0,0 +1,165 @@
+package org.cloudbus.cloudsim.examples;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Binds random instances with every HeuristicCloudletBinder heuristic and with the naive
+ * O(n^2 m) rounds, and reports the first cloudlet whose VM differs. Both break ties between
+ * VMs that would complete a cloudlet at the same time by MIPS class, in order of first
+ * appearance, then by ready time and index. Few distinct lengths and release instants make
+ * such ties common.
+ */
+final class HeuristicBinderCheck implements Validation.Check {
+
+    private static final double[] MIPS_CHOICES = {500, 1000, 2000, 2500};
+
+    @Override
+    public String sample(SplittableRandom random) {
+        int n = 1 + random.nextInt(300);
+        int m = 1 + random.nextInt(12);
+        double[] mips = new double[m];
+        for (int j = 0; j < m; j++) {
+            mips[j] = MIPS_CHOICES[random.nextInt(1 + random.nextInt(MIPS_CHOICES.length))];
+        }
+        double[] length = new double[n];
+        double[] release = new double[n];
+        int lengths = 1 + random.nextInt(n);
+        int releases = 1 + random.nextInt(n);
+        for (int i = 0; i < n; i++) {
+            length[i] = 1000 * (1 + random.nextInt(lengths));
+            release[i] = random.nextInt(releases);
+        }
+
+        for (HeuristicCloudletBinder.Heuristic heuristic : HeuristicCloudletBinder.Heuristic.values()) {
+            int[] fast = new HeuristicCloudletBinder(heuristic).binding(length, release, mips);
+            int[] naive;
+            switch (heuristic) {
+                case MCT:
+                    naive = naiveMct(length, release, mips);
+                    break;
+                case MIN_MIN:
+                case MAX_MIN:
+                    naive = naiveMinMin(length, mips, heuristic == HeuristicCloudletBinder.Heuristic.MAX_MIN);
+                    break;
+                default:
+                    naive = naiveSufferage(length, mips);
+            }
+            for (int i = 0; i < n; i++) {
+                if (fast[i] != naive[i]) {
+                    return String.format("%d cloudlets, %d VMs %s, %s: cloudlet %d on VM %d instead of %d",
+                            n, m, Arrays.toString(mips), heuristic, i, fast[i], naive[i]);
+                }
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public String summary() {
+        return HeuristicCloudletBinder.Heuristic.values().length + " heuristics each";
+    }
+
+    // Earliest-completion VM by scanning them all, with ReadyQueues' tie-breaking
+    private static int naiveEarliest(double length, double release, double[] ready, double[] mips, int[] mipsClass) {
+        int vm = 0;
+        for (int j = 1; j < mips.length; j++) {
+            double completion = Math.max(ready[j], release) + length / mips[j];
+            double best = Math.max(ready[vm], release) + length / mips[vm];
+            if (completion != best ? completion < best
+                    : mipsClass[j] != mipsClass[vm] ? mipsClass[j] < mipsClass[vm] : ready[j] < ready[vm]) {
+                vm = j;
+            }
+        }
+        return vm;
+    }
+
+    // Index of the first VM with the same MIPS, which orders the MIPS classes
+    private static int[] mipsClasses(double[] mips) {
+        int[] mipsClass = new int[mips.length];
+        for (int j = 0; j < mips.length; j++) {
+            mipsClass[j] = j;
+            for (int k = 0; k < j; k++) {
+                if (mips[k] == mips[j]) {
+                    mipsClass[j] = k;
+                    break;
+                }
+            }
+        }
+        return mipsClass;
+    }
+
+    // MCT scanning every VM for every cloudlet, in release order
+    private static int[] naiveMct(double[] length, double[] release, double[] mips) {
+        int[] mipsClass = mipsClasses(mips);
+        double[] ready = new double[mips.length];
+        int[] binding = new int[length.length];
+        for (int i : HeuristicCloudletBinder.order(release, false)) {
+            int vm = naiveEarliest(length[i], release[i], ready, mips, mipsClass);
+            ready[vm] = Math.max(ready[vm], release[i]) + length[i] / mips[vm];
+            binding[i] = vm;
+        }
+        return binding;
+    }
+
+    // Min-Min (Max-Min) in rounds: bind the unbound cloudlet with the smallest (largest) best completion time
+    private static int[] naiveMinMin(double[] length, double[] mips, boolean max) {
+        int n = length.length;
+        int[] mipsClass = mipsClasses(mips);
+        double[] ready = new double[mips.length];
+        int[] binding = new int[n];
+        boolean[] bound = new boolean[n];
+        for (int round = 0; round < n; round++) {
+            int pick = -1;
+            int pickVm = 0;
+            double pickCompletion = 0;
+            for (int i = 0; i < n; i++) {
+                if (bound[i]) {
+                    continue;
+                }
+                int vm = naiveEarliest(length[i], 0, ready, mips, mipsClass);
+                double completion = ready[vm] + length[i] / mips[vm];
+                if (pick < 0 || (max ? completion > pickCompletion : completion < pickCompletion)) {
+                    pick = i;
+                    pickVm = vm;
+                    pickCompletion = completion;
+                }
+            }
+            bound[pick] = true;
+            binding[pick] = pickVm;
+            ready[pickVm] = pickCompletion;
+        }
+        return binding;
+    }
+
+    // Sufferage in rounds, re-evaluating every unbound cloudlet against every VM each round
+    private static int[] naiveSufferage(double[] length, double[] mips) {
+        int n = length.length;
+        double[] ready = new double[mips.length];
+        int[] binding = new int[n];
+        if (mips.length == 1) {
+            return binding;
+        }
+        boolean[] bound = new boolean[n];
+        int[] best = new int[n];
+        int[] second = new int[n];
+        double[] bestCompletion = new double[n];
+        for (int round = 0; round < n; round++) {
+            int pick = -1;
+            double pickSufferage = 0;
+            for (int i = 0; i < n; i++) {
+                if (!bound[i]) {
+                    double sufferage = HeuristicCloudletBinder.evaluate(i, length, mips, ready, best, second, bestCompletion);
+                    if (pick < 0 || sufferage > pickSufferage) {
+                        pick = i;
+                        pickSufferage = sufferage;
+                    }
+                }
+            }
+            bound[pick] = true;
+            binding[pick] = best[pick];
+            ready[best[pick]] = bestCompletion[pick];
+        }
+        return binding;
+    }
+}
@@ -0,0 +1,353 @@
+package org.cloudbus.cloudsim.examples;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.Vm;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Completion-time driven cloudlet-to-VM binding for heterogeneous VM pools.
+ *
+ *  - MCT: cloudlets in arrival order, each to the VM that completes it first.
+ *  - MIN_MIN / MAX_MIN: batch heuristics, repeatedly bind the cloudlet with the smallest
+ *    (largest) best completion time.
+ *  - SUFFERAGE: repeatedly bind the cloudlet that would lose the most if it missed its best VM.
+ *
+ * VMs are tracked by ready time. VMs with the same MIPS are interchangeable except for their
+ * ready time, so they share one ready-time heap and only the head of each heap is a candidate:
+ * an MCT decision costs O(k + log m) for k distinct MIPS values, i.e. O(n log m) overall for
+ * the usual handful of VM types.
+ *
+ * Min-Min and Max-Min do not need the naive O(n^2 m) rounds. The best completion time of a
+ * cloudlet, min over j of (ready_j + length / mips_j), grows with its length, so Min-Min always
+ * picks the shortest remaining cloudlet and Max-Min the longest. Sorting once and running MCT
+ * in that order gives the same bindings in O(n log n + n log m).
+ *
+ * "Validation binder" checks all four against the textbook rounds on random instances.
+ */
+public class HeuristicCloudletBinder implements CloudletBinder {
+
+    public enum Heuristic { MCT, MIN_MIN, MAX_MIN, SUFFERAGE }
+
+    private final Heuristic heuristic;
+
+    public HeuristicCloudletBinder(Heuristic heuristic) {
+        this.heuristic = heuristic;
+    }
+
+    public Heuristic getHeuristic() {
+        return heuristic;
+    }
+
+    // Binder named by -Dcloudsim.binding, or null to keep the broker's default binding
+    public static CloudletBinder fromSystemProperty() {
+        String name = System.getProperty("cloudsim.binding");
+        return name == null || name.isEmpty() ? null : new HeuristicCloudletBinder(Heuristic.valueOf(name.toUpperCase()));
+    }
+
+    @Override
+    public void bind(List<? extends Cloudlet> cloudlets, List<? extends Vm> vms) {
+        if (cloudlets.isEmpty() || vms.isEmpty()) {
+            return;
+        }
+        int n = cloudlets.size();
+        double[] length = new double[n];
+        double[] release = new double[n];
+        for (int i = 0; i < n; i++) {
+            length[i] = cloudlets.get(i).getCloudletLength();
+            release[i] = ArrivalAwareBroker.arrivalTimeOf(cloudlets.get(i));
+        }
+        int[] binding = binding(length, release, mips(vms));
+        for (int i = 0; i < n; i++) {
+            cloudlets.get(i).setVmId(vms.get(binding[i]).getId());
+        }
+    }
+
+    @Override
+    public void bind(CloudletTable table, int[] rows, List<? extends Vm> vms) {
+        if (rows.length == 0 || vms.isEmpty()) {
+            return;
+        }
+        double[] length = new double[rows.length];
+        double[] release = new double[rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            length[i] = table.getLength(rows[i]);
+            release[i] = table.getArrivalTime(rows[i]);
+        }
+        int[] binding = binding(length, release, mips(vms));
+        for (int i = 0; i < rows.length; i++) {
+            table.setVmId(rows[i], vms.get(binding[i]).getId());
+        }
+    }
+
+    private static double[] mips(List<? extends Vm> vms) {
+        double[] mips = new double[vms.size()];
+        for (int j = 0; j < mips.length; j++) {
+            mips[j] = vms.get(j).getMips();
+        }
+        return mips;
+    }
+
+    // VM index of every cloudlet under this binder's heuristic
+    int[] binding(double[] length, double[] release, double[] mips) {
+        int n = length.length;
+        int[] binding;
+        switch (heuristic) {
+            case MCT:
+                binding = mct(order(release, false), length, release, mips);
+                break;
+            case MIN_MIN:
+                binding = mct(order(length, false), length, new double[n], mips);
+                break;
+            case MAX_MIN:
+                binding = mct(order(length, true), length, new double[n], mips);
+                break;
+            default:
+                binding = sufferage(length, mips);
+        }
+        return binding;
+    }
+
+    // Binds the cloudlets one by one in the given order to their earliest-completion VM
+    static int[] mct(int[] order, double[] length, double[] release, double[] mips) {
+        ReadyQueues queues = new ReadyQueues(mips);
+        int[] binding = new int[length.length];
+        for (int i : order) {
+            binding[i] = queues.bindEarliest(length[i], release[i]);
+        }
+        return binding;
+    }
+
+    // Indices sorted by key, stable for equal keys
+    static int[] order(double[] key, boolean descending) {
+        Integer[] boxed = new Integer[key.length];
+        for (int i = 0; i < boxed.length; i++) {
+            boxed[i] = i;
+        }
+        Arrays.sort(boxed, (a, b) -> descending ? Double.compare(key[b], key[a]) : Double.compare(key[a], key[b]));
+        int[] order = new int[boxed.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = boxed[i];
+        }
+        return order;
+    }
+
+    // Sufferage needs the two best VMs of every cloudlet. Binding to VM j only delays j, so only
+    // cloudlets that had j among their two best VMs are re-evaluated after each decision; the
+    // others keep their exact sufferage value in the heap.
+    static int[] sufferage(double[] length, double[] mips) {
+        int n = length.length;
+        int m = mips.length;
+        double[] ready = new double[m];
+        int[] binding = new int[n];
+        if (m == 1) {
+            return binding;
+        }
+
+        int[] best = new int[n];
+        int[] second = new int[n];
+        double[] bestCompletion = new double[n];
+        List<List<Integer>> referencedBy = new ArrayList<>(m);
+        for (int j = 0; j < m; j++) {
+            referencedBy.add(new ArrayList<>());
+        }
+
+        IndexedMaxHeap heap = new IndexedMaxHeap(n);
+        for (int i = 0; i < n; i++) {
+            heap.add(i, evaluate(i, length, mips, ready, best, second, bestCompletion));
+            referencedBy.get(best[i]).add(i);
+            referencedBy.get(second[i]).add(i);
+        }
+
+        int[] visited = new int[n];
+        int round = 0;
+        while (!heap.isEmpty()) {
+            int i = heap.poll();
+            int vm = best[i];
+            binding[i] = vm;
+            ready[vm] = bestCompletion[i];
+
+            round++;
+            List<Integer> affected = referencedBy.get(vm);
+            referencedBy.set(vm, new ArrayList<>());
+            for (int c : affected) {
+                if (!heap.contains(c) || visited[c] == round || (best[c] != vm && second[c] != vm)) {
+                    continue; // already bound, already refreshed or stale reference
+                }
+                visited[c] = round;
+                heap.update(c, evaluate(c, length, mips, ready, best, second, bestCompletion));
+                referencedBy.get(best[c]).add(c);
+                referencedBy.get(second[c]).add(c);
+            }
+        }
+        return binding;
+    }
+
+    // Finds the two earliest-completion VMs of a cloudlet and returns its sufferage
+    static double evaluate(int i, double[] length, double[] mips, double[] ready,
+                           int[] best, int[] second, double[] bestCompletion) {
+        double first = Double.MAX_VALUE;
+        double next = Double.MAX_VALUE;
+        int firstVm = 0;
+        int nextVm = 0;
+        for (int j = 0; j < mips.length; j++) {
+            double completion = ready[j] + length[i] / mips[j];
+            if (completion < first) {
+                next = first;
+                nextVm = firstVm;
+                first = completion;
+                firstVm = j;
+            } else if (completion < next) {
+                next = completion;
+                nextVm = j;
+            }
+        }
+        best[i] = firstVm;
+        second[i] = nextVm;
+        bestCompletion[i] = first;
+        return next - first;
+    }
+
+    // Ready-time heaps of VMs, one per distinct MIPS value
+    static final class ReadyQueues {
+
+        private final double[] ready;
+        private final double[] classMips;
+        private final List<PriorityQueue<Integer>> classes = new ArrayList<>();
+
+        ReadyQueues(double[] mips) {
+            ready = new double[mips.length];
+            Map<Double, PriorityQueue<Integer>> byMips = new HashMap<>();
+            List<Double> mipsValues = new ArrayList<>();
+            for (int j = 0; j < mips.length; j++) {
+                PriorityQueue<Integer> queue = byMips.get(mips[j]);
+                if (queue == null) {
+                    queue = new PriorityQueue<>((a, b) -> a.equals(b) ? 0
+                            : ready[a] != ready[b] ? Double.compare(ready[a], ready[b]) : Integer.compare(a, b));
+                    byMips.put(mips[j], queue);
+                    classes.add(queue);
+                    mipsValues.add(mips[j]);
+                }
+                queue.add(j);
+            }
+            classMips = new double[mipsValues.size()];
+            for (int c = 0; c < classMips.length; c++) {
+                classMips[c] = mipsValues.get(c);
+            }
+        }
+
+        // Binds a cloudlet to the VM that finishes it first and returns that VM's index
+        int bindEarliest(double length, double release) {
+            int bestClass = -1;
+            double bestCompletion = Double.MAX_VALUE;
+            for (int c = 0; c < classMips.length; c++) {
+                int vm = classes.get(c).peek();
+                double completion = Math.max(ready[vm], release) + length / classMips[c];
+                if (completion < bestCompletion) {
+                    bestCompletion = completion;
+                    bestClass = c;
+                }
+            }
+            PriorityQueue<Integer> queue = classes.get(bestClass);
+            int vm = queue.poll();
+            ready[vm] = bestCompletion;
+            queue.add(vm);
+            return vm;
+        }
+    }
+
+    // Max-heap of cloudlet indices by sufferage with O(log n) key updates
+    static final class IndexedMaxHeap {
+
+        private final int[] heap;
+        private final int[] position;
+        private final double[] key;
+        private int size;
+
+        IndexedMaxHeap(int capacity) {
+            heap = new int[capacity];
+            position = new int[capacity];
+            key = new double[capacity];
+            Arrays.fill(position, -1);
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        boolean contains(int id) {
+            return position[id] >= 0;
+        }
+
+        void add(int id, double value) {
+            key[id] = value;
+            heap[size] = id;
+            position[id] = size;
+            siftUp(size++);
+        }
+
+        int poll() {
+            int top = heap[0];
+            position[top] = -1;
+            if (--size > 0) {
+                heap[0] = heap[size];
+                position[heap[0]] = 0;
+                siftDown(0);
+            }
+            return top;
+        }
+
+        void update(int id, double value) {
+            double old = key[id];
+            key[id] = value;
+            if (value > old) {
+                siftUp(position[id]);
+            } else {
+                siftDown(position[id]);
+            }
+        }
+
+        private boolean higher(int a, int b) {
+            return key[a] != key[b] ? key[a] > key[b] : a < b;
+        }
+
+        private void siftUp(int index) {
+            int id = heap[index];
+            while (index > 0) {
+                int parent = (index - 1) >>> 1;
+                if (!higher(id, heap[parent])) {
+                    break;
+                }
+                heap[index] = heap[parent];
+                position[heap[index]] = index;
+                index = parent;
+            }
+            heap[index] = id;
+            position[id] = index;
+        }
+
+        private void siftDown(int index) {
+            int id = heap[index];
+            int half = size >>> 1;
+            while (index < half) {
+                int child = 2 * index + 1;
+                if (child + 1 < size && higher(heap[child + 1], heap[child])) {
+                    child++;
+                }
+                if (!higher(heap[child], id)) {
+                    break;
+                }
+                heap[index] = heap[child];
+                position[heap[index]] = index;
+                index = child;
+            }
+            heap[index] = id;
+            position[id] = index;
+        }
+    }
+}
@@ -0,0 +1,424 @@
+package org.cloudbus.cloudsim.examples;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.Vm;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * A space-shared FCFS schedule, timed as SpaceSharedEvaluator times it, that answers what-if
+ * changes to single cloudlets without re-running anything. Each VM keeps its queue as an array
+ * of cloudlets sorted in queue order (arrival time, then priority, lower first, then submission
+ * position), so the start and finish times in it form a prefix recurrence. Moving a cloudlet
+ * to another VM, or changing its priority or arrival time, takes it out of one queue and puts
+ * it into another, and only the queue suffixes from those two slots are recomputed; the pass
+ * stops at the first cloudlet whose start time comes out unchanged, since everything after it
+ * is unchanged too. Makespan, wait and turnaround totals are adjusted by the differences.
+ *
+ * A change costs a binary search and an array shift in each of the two queues, plus O(k + m)
+ * for the k cloudlets re-timed and m VMs, so what-if changes on plans of 100k cloudlets take
+ * microseconds. Changes are applied in place; undoing one is applying its inverse.
+ *
+ * Usage: IncrementalSchedule [cloudlets=100000] [vms=16] [changes=10000] [seed=1] times random
+ * changes on a synthetic MCT plan and checks the result against a full evaluation.
+ */
+public final class IncrementalSchedule {
+
+    private final long[] arrival;
+    private final long[] length;
+    private final int[] priority;
+    private final int[] position;
+    private final double[] vmMips;
+    private final double readyTime;
+
+    private final int[] vmOf;
+    private final int[][] queue;
+    private final int[] queueSize;
+    private final double[] start;
+    private final double[] finish;
+
+    private double totalWait;
+    private double totalTurnaround;
+    private int lastRecomputed;
+
+    /**
+     * The schedule of the given cloudlets (arrival times in seconds, lengths in MI) bound to
+     * VMs by vm and submitted in the given order. Priorities may be null, for all equal.
+     */
+    public IncrementalSchedule(long[] arrival, long[] length, int[] priority, double[] vmMips, int[] vm, int[] order) {
+        this(arrival, length, priority, vmMips, vm, order, SpaceSharedEvaluator.VM_READY_TIME);
+    }
+
+    public IncrementalSchedule(long[] arrival, long[] length, int[] priority, double[] vmMips, int[] vm, int[] order,
+                               double readyTime) {
+        int n = arrival.length;
+        if (length.length != n || vm.length != n || order.length != n || (priority != null && priority.length != n)) {
+            throw new IllegalArgumentException("Expected a length, VM and position for each of the " + n + " cloudlets");
+        }
+        this.arrival = arrival.clone();
+        this.length = length.clone();
+        this.priority = priority != null ? priority.clone() : new int[n];
+        this.vmMips = vmMips.clone();
+        this.readyTime = readyTime;
+        this.vmOf = vm.clone();
+        this.position = new int[n];
+        for (int p = 0; p < n; p++) {
+            position[order[p]] = p;
+        }
+
+        // Queues filled in queue order, then timed from their heads
+        Integer[] byKey = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            byKey[i] = i;
+        }
+        Arrays.sort(byKey, this::compare);
+        int[] counts = new int[vmMips.length];
+        for (int i = 0; i < n; i++) {
+            counts[vmOf[i]]++;
+        }
+        queue = new int[vmMips.length][];
+        queueSize = new int[vmMips.length];
+        for (int v = 0; v < queue.length; v++) {
+            queue[v] = new int[Math.max(8, counts[v] + counts[v] / 8)];
+        }
+        start = new double[n];
+        finish = new double[n];
+        Arrays.fill(start, Double.NaN);
+        for (int i : byKey) {
+            int v = vmOf[i];
+            queue[v][queueSize[v]++] = i;
+        }
+        for (int v = 0; v < queue.length; v++) {
+            recompute(v, 0);
+        }
+    }
+
+    /**
+     * The schedule of a completed run from its cloudlets, bound to the given VMs. Cloudlets
+     * arriving at the same instant keep the order the run started them in, and all priorities
+     * start out equal. Times are the evaluator's, not the run's, which may be later by the
+     * datacenter's update spacing.
+     */
+    public static IncrementalSchedule of(List<? extends Cloudlet> cloudlets, List<? extends Vm> vms) {
+        int n = cloudlets.size();
+        Map<Integer, Integer> vmIndex = new HashMap<>();
+        double[] mips = new double[vms.size()];
+        for (int v = 0; v < mips.length; v++) {
+            vmIndex.put(vms.get(v).getId(), v);
+            mips[v] = vms.get(v).getMips();
+        }
+        long[] arrival = new long[n];
+        long[] length = new long[n];
+        int[] vm = new int[n];
+        Integer[] byStart = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            Cloudlet cloudlet = cloudlets.get(i);
+            Integer v = vmIndex.get(cloudlet.getVmId());
+            if (v == null) {
+                throw new IllegalArgumentException("Cloudlet " + cloudlet.getCloudletId() + " is not bound to one of the VMs");
+            }
+            arrival[i] = (long) ArrivalAwareBroker.arrivalTimeOf(cloudlet);
+            length[i] = cloudlet.getCloudletLength();
+            vm[i] = v;
+            byStart[i] = i;
+        }
+        Arrays.sort(byStart, (a, b) -> Double.compare(cloudlets.get(a).getExecStartTime(), cloudlets.get(b).getExecStartTime()));
+        int[] order = new int[n];
+        for (int p = 0; p < n; p++) {
+            order[p] = byStart[p];
+        }
+        return new IncrementalSchedule(arrival, length, null, mips, vm, order);
+    }
+
+    public int getCloudletCount() {
+        return arrival.length;
+    }
+
+    public int getVmCount() {
+        return vmMips.length;
+    }
+
+    public int getVm(int cloudlet) {
+        return vmOf[cloudlet];
+    }
+
+    public long getArrivalTime(int cloudlet) {
+        return arrival[cloudlet];
+    }
+
+    public int getPriority(int cloudlet) {
+        return priority[cloudlet];
+    }
+
+    public double getStartTime(int cloudlet) {
+        return start[cloudlet];
+    }
+
+    public double getFinishTime(int cloudlet) {
+        return finish[cloudlet];
+    }
+
+    // Cloudlets whose times the last change recomputed, the moved one included
+    public int getLastRecomputed() {
+        return lastRecomputed;
+    }
+
+    // Binds a cloudlet to another VM (an index into the VM MIPS) and returns the new makespan
+    public double moveToVm(int cloudlet, int vm) {
+        if (vm < 0 || vm >= vmMips.length) {
+            throw new IllegalArgumentException("No VM " + vm);
+        }
+        lastRecomputed = 0;
+        remove(cloudlet);
+        vmOf[cloudlet] = vm;
+        insert(cloudlet);
+        return getMakeSpan();
+    }
+
+    // Reorders a cloudlet among those arriving with it and returns the new makespan
+    public double setPriority(int cloudlet, int priority) {
+        lastRecomputed = 0;
+        remove(cloudlet);
+        this.priority[cloudlet] = priority;
+        insert(cloudlet);
+        return getMakeSpan();
+    }
+
+    public double setArrivalTime(int cloudlet, long arrivalTime) {
+        lastRecomputed = 0;
+        remove(cloudlet);
+        arrival[cloudlet] = arrivalTime;
+        insert(cloudlet);
+        return getMakeSpan();
+    }
+
+    public double getMakeSpan() {
+        // Start and finish times grow along every queue, so only heads and tails matter
+        double firstStart = Double.MAX_VALUE;
+        double lastFinish = 0;
+        for (int v = 0; v < queue.length; v++) {
+            if (queueSize[v] > 0) {
+                firstStart = Math.min(firstStart, start[queue[v][0]]);
+                lastFinish = Math.max(lastFinish, finish[queue[v][queueSize[v] - 1]]);
+            }
+        }
+        return lastFinish > firstStart ? lastFinish - firstStart : 1.0;
+    }
+
+    public double getThroughput() {
+        return arrival.length / getMakeSpan();
+    }
+
+    public double getAvgWaitTime() {
+        return arrival.length > 0 ? totalWait / arrival.length : 0;
+    }
+
+    public double getAvgTurnaroundTime() {
+        return arrival.length > 0 ? totalTurnaround / arrival.length : 0;
+    }
+
+    // The VM index of every cloudlet and the cloudlets in an order that reproduces the queues
+    public int[] binding() {
+        return vmOf.clone();
+    }
+
+    public int[] submissionOrder() {
+        Integer[] byKey = new Integer[arrival.length];
+        for (int i = 0; i < byKey.length; i++) {
+            byKey[i] = i;
+        }
+        Arrays.sort(byKey, this::compare);
+        int[] order = new int[byKey.length];
+        for (int p = 0; p < order.length; p++) {
+            order[p] = byKey[p];
+        }
+        return order;
+    }
+
+    // Every metric of the schedule, percentiles included; a full O(n) pass
+    public RunResult result(String policyName) {
+        long wallStart = System.nanoTime();
+        MetricsAccumulator metrics = new MetricsAccumulator(v -> vmMips[v]);
+        for (int i = 0; i < arrival.length; i++) {
+            metrics.accept(arrival[i], start[i], finish[i], length[i], vmOf[i]);
+        }
+        return RunResult.of(policyName, metrics, (System.nanoTime() - wallStart) / 1_000_000);
+    }
+
+    // Queue order: arrival time, then priority, then submission position
+    private int compare(int a, int b) {
+        if (arrival[a] != arrival[b]) {
+            return Long.compare(arrival[a], arrival[b]);
+        }
+        return priority[a] != priority[b] ? Integer.compare(priority[a], priority[b]) : Integer.compare(position[a], position[b]);
+    }
+
+    private void remove(int cloudlet) {
+        int v = vmOf[cloudlet];
+        int[] q = queue[v];
+        int s = slotOf(v, cloudlet);
+        System.arraycopy(q, s + 1, q, s, queueSize[v] - s - 1);
+        queueSize[v]--;
+        totalWait -= start[cloudlet] - arrival[cloudlet];
+        totalTurnaround -= finish[cloudlet] - arrival[cloudlet];
+        start[cloudlet] = Double.NaN;
+        recompute(v, s);
+    }
+
+    private void insert(int cloudlet) {
+        int v = vmOf[cloudlet];
+        if (queueSize[v] == queue[v].length) {
+            queue[v] = Arrays.copyOf(queue[v], 2 * queue[v].length);
+        }
+        int[] q = queue[v];
+        int s = slotOf(v, cloudlet);
+        System.arraycopy(q, s, q, s + 1, queueSize[v] - s);
+        q[s] = cloudlet;
+        queueSize[v]++;
+        recompute(v, s);
+    }
+
+    // Where the cloudlet is, or belongs, in a queue; keys are unique, so a binary search finds it
+    private int slotOf(int v, int cloudlet) {
+        int[] q = queue[v];
+        int low = 0;
+        int high = queueSize[v];
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (compare(q[middle], cloudlet) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    // Re-times a queue from the given slot until a start time comes out unchanged; cloudlets
+    // that were just inserted have a NaN start, which never matches
+    private void recompute(int v, int from) {
+        int[] q = queue[v];
+        double free = from == 0 ? 0 : finish[q[from - 1]];
+        for (int s = from; s < queueSize[v]; s++) {
+            int i = q[s];
+            double begin = Math.max(Math.max(arrival[i], readyTime), free);
+            if (begin == start[i]) {
+                break;
+            }
+            double end = begin + length[i] / vmMips[v];
+            if (Double.isNaN(start[i])) {
+                totalWait += begin - arrival[i];
+                totalTurnaround += end - arrival[i];
+            } else {
+                totalWait += begin - start[i];
+                totalTurnaround += end - finish[i];
+            }
+            start[i] = begin;
+            finish[i] = end;
+            free = end;
+            lastRecomputed++;
+        }
+    }
+
+    public static void main(String[] args) {
+        try {
+            int cloudlets = 100000;
+            int vms = 16;
+            int changes = 10000;
+            long seed = 1;
+            for (String arg : args) {
+                String[] pair = arg.split("=", 2);
+                if (pair.length != 2) {
+                    throw new IllegalArgumentException("Expected name=value: " + arg);
+                }
+                switch (pair[0]) {
+                    case "cloudlets":
+                        cloudlets = Integer.parseInt(pair[1]);
+                        break;
+                    case "vms":
+                        vms = Integer.parseInt(pair[1]);
+                        break;
+                    case "changes":
+                        changes = Integer.parseInt(pair[1]);
+                        break;
+                    case "seed":
+                        seed = Long.parseLong(pair[1]);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown option: " + pair[0]);
+                }
+            }
+
+            Scenario scenario = Scenario.synthetic(vms, new int[]{1000, 2000, 2500}, cloudlets, seed);
+            long[] arrival = new long[cloudlets];
+            double[] release = new double[cloudlets];
+            double[] lengths = new double[cloudlets];
+            long[] length = new long[cloudlets];
+            int[] order = new int[cloudlets];
+            for (int i = 0; i < cloudlets; i++) {
+                arrival[i] = scenario.getArrivalTime(i);
+                release[i] = arrival[i];
+                length[i] = scenario.getLength(i);
+                lengths[i] = length[i];
+                order[i] = i; // synthetic arrivals are already in order
+            }
+            double[] mips = new double[vms];
+            for (int v = 0; v < vms; v++) {
+                mips[v] = scenario.getVmMips(v);
+            }
+            int[] vm = HeuristicCloudletBinder.mct(order, lengths, release, mips);
+
+            long buildStart = System.nanoTime();
+            IncrementalSchedule schedule = new IncrementalSchedule(arrival, length, null, mips, vm, order);
+            System.out.printf("%d cloudlets on %d VMs: built in %.1f ms, makespan %.2f, avg wait %.2f\n", cloudlets, vms,
+                    (System.nanoTime() - buildStart) / 1e6, schedule.getMakeSpan(), schedule.getAvgWaitTime());
+
+            SplittableRandom random = new SplittableRandom(seed);
+            long total = 0;
+            long worst = 0;
+            long recomputed = 0;
+            for (int change = 0; change < changes; change++) {
+                int i = random.nextInt(cloudlets);
+                long changeStart = System.nanoTime();
+                switch (change % 3) {
+                    case 0:
+                        schedule.moveToVm(i, random.nextInt(vms));
+                        break;
+                    case 1:
+                        schedule.setPriority(i, random.nextInt(5));
+                        break;
+                    default:
+                        schedule.setArrivalTime(i, Math.max(0, schedule.getArrivalTime(i) + random.nextInt(21) - 10));
+                }
+                long elapsed = System.nanoTime() - changeStart;
+                total += elapsed;
+                worst = Math.max(worst, elapsed);
+                recomputed += schedule.getLastRecomputed();
+            }
+            System.out.printf("%d changes: %.1f us on average, %.1f us at most, %.1f cloudlets re-timed per change\n",
+                    changes, total / 1e3 / Math.max(1, changes), worst / 1e3, (double) recomputed / Math.max(1, changes));
+
+            // The queue order of the incremental schedule, evaluated from scratch
+            for (int i = 0; i < cloudlets; i++) {
+                arrival[i] = schedule.getArrivalTime(i);
+            }
+            SpaceSharedEvaluator full = new SpaceSharedEvaluator(arrival, length, mips);
+            double[] start = new double[cloudlets];
+            double[] finish = new double[cloudlets];
+            full.evaluate(schedule.binding(), schedule.submissionOrder(), start, finish);
+            double deviation = 0;
+            for (int i = 0; i < cloudlets; i++) {
+                deviation = Math.max(deviation, Math.max(Math.abs(start[i] - schedule.getStartTime(i)),
+                        Math.abs(finish[i] - schedule.getFinishTime(i))));
+            }
+            System.out.printf("Full evaluation: makespan %.2f vs %.2f, avg wait %.2f vs %.2f, max deviation %.2e s\n",
+                    full.getMakeSpan(), schedule.getMakeSpan(), full.getAvgWaitTime(), schedule.getAvgWaitTime(), deviation);
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package org.cloudbus.cloudsim.examples;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+
+/**
+ * A private copy of CloudSim and this package in a class loader of its own, driven through
+ * the public static methods of one worker class (SweepWorker, RegionWorker, TuningWorker).
+ * CloudSim keeps its state in statics, so this is how several simulations share one JVM.
+ * Only JDK types should cross the class loader boundary. Closing the worker unregisters its
+ * SimulationMonitor, which would otherwise keep the class loader alive.
+ */
+final class IsolatedWorker implements Closeable {
+
+    private final URLClassLoader loader;
+    private final Class<?> workerClass;
+
+    IsolatedWorker(URL[] classPath, String workerClassName) throws Exception {
+        // Parent is the platform loader, so CloudSim and this package are loaded again
+        loader = new URLClassLoader(classPath, ClassLoader.getSystemClassLoader().getParent());
+        workerClass = Class.forName(workerClassName, true, loader);
+    }
+
+    Method method(String name, Class<?>... parameterTypes) throws NoSuchMethodException {
+        return workerClass.getMethod(name, parameterTypes);
+    }
+
+    // Calls one of the worker's static methods, rethrowing what it threw
+    static Object invoke(Method method, Object... args) throws Exception {
+        try {
+            return method.invoke(null, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            invoke(Class.forName(SimulationMonitor.class.getName(), true, loader).getMethod("unregister"));
+        } catch (Exception e) {
+            System.err.println("Could not unregister a worker's simulation monitor: " + e);
+        } finally {
+            loader.close();
+        }
+    }
+}
@@ -0,0 +1,525 @@
+package org.cloudbus.cloudsim.examples;
+
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.core.FutureQueue;
+import org.cloudbus.cloudsim.core.SimEvent;
+
+import java.lang.reflect.Field;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Ladder queue (Tang, Goh and Thng) as a drop-in replacement for CloudSim's TreeSet based
+ * future event queue, with O(1) amortized insert and remove-min instead of O(log n) and a tree
+ * node per event.
+ *
+ * Events live in three tiers:
+ *  - top: an unsorted array of events beyond every rung
+ *  - rungs: up to MAX_RUNGS levels of buckets, each level spreading one bucket of the level
+ *    above (or the whole top) over up to MAX_BUCKETS equal-width buckets
+ *  - bottom: a short sorted array holding the earliest events
+ * New events go to the first tier whose range covers them; remove-min pops the bottom, which
+ * is refilled from the next non-empty bucket of the deepest rung. A bucket that is still too
+ * large is spread over a new rung first, so the bottom stays short.
+ *
+ * Events are ordered exactly like FutureQueue orders them: by time, then by a serial number
+ * counted from 0 in insertion order, which addEventFirst() sets to 0 and reserveSerial() can
+ * hand out ahead of the insertion, then by insertion order.
+ * Every tier is made of array backed buckets that are reused for the life of the queue, so
+ * steady-state operation does not allocate. Install it with init() in place of CloudSim.init().
+ *
+ * "Validation ladder" checks the ordering against a TreeSet reference on random operation
+ * sequences.
+ */
+public class LadderFutureQueue extends FutureQueue {
+
+    private static final int MAX_RUNGS = 8;
+    private static final int MAX_BUCKETS = 4096;
+    private static final int SPAWN_THRESHOLD = 32;
+
+    // Events with their ordering keys, in insertion order unless sorted
+    private static final class Bucket {
+        SimEvent[] events = new SimEvent[4];
+        double[] times = new double[4];
+        long[] serials = new long[4];
+        int size;
+
+        void add(SimEvent event, double time, long serial) {
+            if (size == events.length) {
+                grow();
+            }
+            events[size] = event;
+            times[size] = time;
+            serials[size] = serial;
+            size++;
+        }
+
+        void insertAt(int index, SimEvent event, double time, long serial) {
+            if (size == events.length) {
+                grow();
+            }
+            System.arraycopy(events, index, events, index + 1, size - index);
+            System.arraycopy(times, index, times, index + 1, size - index);
+            System.arraycopy(serials, index, serials, index + 1, size - index);
+            events[index] = event;
+            times[index] = time;
+            serials[index] = serial;
+            size++;
+        }
+
+        void removeAt(int index) {
+            System.arraycopy(events, index + 1, events, index, size - index - 1);
+            System.arraycopy(times, index + 1, times, index, size - index - 1);
+            System.arraycopy(serials, index + 1, serials, index, size - index - 1);
+            events[--size] = null;
+        }
+
+        // Drops the first count entries
+        void shift(int count) {
+            System.arraycopy(events, count, events, 0, size - count);
+            System.arraycopy(times, count, times, 0, size - count);
+            System.arraycopy(serials, count, serials, 0, size - count);
+            Arrays.fill(events, size - count, size, null);
+            size -= count;
+        }
+
+        int indexOf(SimEvent event) {
+            for (int i = 0; i < size; i++) {
+                if (events[i] == event) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        void clear() {
+            Arrays.fill(events, 0, size, null);
+            size = 0;
+        }
+
+        private void grow() {
+            int capacity = events.length << 1;
+            events = Arrays.copyOf(events, capacity);
+            times = Arrays.copyOf(times, capacity);
+            serials = Arrays.copyOf(serials, capacity);
+        }
+    }
+
+    // One level of equal-width buckets
+    private static final class Rung {
+        Bucket[] buckets = new Bucket[0];
+        int count;
+        double start;
+        double width;
+        int current; // last bucket handed down; it and all before it are empty
+
+        double position(double time) {
+            return (time - start) / width;
+        }
+    }
+
+    private final Rung[] rungs = new Rung[MAX_RUNGS];
+    private int rungCount;
+    private Bucket top = new Bucket();
+    private Bucket bottom = new Bucket();
+    private int bottomHead; // bottom holds its events in [bottomHead, bottom.size)
+    private int size;
+    private long serial;
+
+    // Merge sort scratch
+    private SimEvent[] scratchEvents = new SimEvent[0];
+    private double[] scratchTimes = new double[0];
+    private long[] scratchSerials = new long[0];
+
+    /**
+     * CloudSim.init() that then swaps in a ladder queue when -Dcloudsim.eventqueue=ladder
+     * (the default queue otherwise). It also clears the termination time a stopped run may have
+     * left behind, which CloudSim.init() keeps and which would end every later run at that time.
+     */
+    public static void init(int numUser, Calendar calendar, boolean traceFlag) {
+        CloudSim.init(numUser, calendar, traceFlag);
+        clearTerminationTime();
+        if ("ladder".equalsIgnoreCase(System.getProperty("cloudsim.eventqueue", "").trim())) {
+            install();
+        }
+    }
+
+    /**
+     * Replaces the future queue of the initialized CloudSim with a ladder queue, keeping any
+     * events already scheduled, and returns it. CloudSim offers no hook for this, so the
+     * private field is set.
+     */
+    public static LadderFutureQueue install() {
+        try {
+            Field field = CloudSim.class.getDeclaredField("future");
+            field.setAccessible(true);
+            FutureQueue current = (FutureQueue) field.get(null);
+            if (current instanceof LadderFutureQueue) {
+                return (LadderFutureQueue) current;
+            }
+            LadderFutureQueue queue = new LadderFutureQueue();
+            if (current != null) {
+                for (Iterator<SimEvent> it = current.iterator(); it.hasNext(); ) {
+                    queue.addEvent(it.next());
+                }
+            }
+            field.set(null, queue);
+            return queue;
+        } catch (NoSuchFieldException | IllegalAccessException e) {
+            throw new IllegalStateException("Cannot replace the CloudSim future queue", e);
+        }
+    }
+
+    // Resets CloudSim's private terminateAt, set by terminateSimulation(time), to "no limit"
+    private static void clearTerminationTime() {
+        try {
+            Field field = CloudSim.class.getDeclaredField("terminateAt");
+            field.setAccessible(true);
+            field.setDouble(null, -1);
+        } catch (NoSuchFieldException | IllegalAccessException e) {
+            throw new IllegalStateException("Cannot reset the CloudSim termination time", e);
+        }
+    }
+
+    @Override
+    public void addEvent(SimEvent newEvent) {
+        insert(newEvent, serial++);
+    }
+
+    @Override
+    public void addEventFirst(SimEvent newEvent) {
+        insert(newEvent, 0);
+    }
+
+    // Takes the serial the next event would get, for an event that is only added later
+    long reserveSerial() {
+        return serial++;
+    }
+
+    // Adds an event in the place a serial from reserveSerial() gives it among events of its time
+    void addEvent(SimEvent newEvent, long reservedSerial) {
+        insert(newEvent, reservedSerial);
+    }
+
+    // Time of the earliest event, +Infinity when the queue is empty
+    public double peekTime() {
+        refill();
+        return bottomHead < bottom.size ? bottom.times[bottomHead] : Double.POSITIVE_INFINITY;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        for (int j = 0; j < rungCount; j++) {
+            Rung rung = rungs[j];
+            for (int i = 0; i < rung.count; i++) {
+                rung.buckets[i].clear();
+            }
+        }
+        rungCount = 0;
+        top.clear();
+        bottom.clear();
+        bottomHead = 0;
+        size = 0;
+    }
+
+    @Override
+    public boolean remove(SimEvent event) {
+        // The usual case: the event just processed, at the head of the bottom
+        if (bottomHead < bottom.size && bottom.events[bottomHead] == event) {
+            bottom.events[bottomHead++] = null;
+            size--;
+            return true;
+        }
+        for (int i = bottomHead; i < bottom.size; i++) {
+            if (bottom.events[i] == event) {
+                bottom.removeAt(i);
+                size--;
+                return true;
+            }
+        }
+        double time = event.eventTime();
+        for (int j = 0; j < rungCount; j++) {
+            Rung rung = rungs[j];
+            double p = rung.position(time);
+            if (p >= rung.current + 1) {
+                if (j == 0 && p >= rung.count) {
+                    break;
+                }
+                return removeFrom(rung.buckets[(int) Math.min(p, rung.count - 1)], event);
+            }
+        }
+        return removeFrom(top, event);
+    }
+
+    private boolean removeFrom(Bucket bucket, SimEvent event) {
+        int index = bucket.indexOf(event);
+        if (index < 0) {
+            return false;
+        }
+        bucket.removeAt(index);
+        size--;
+        return true;
+    }
+
+    @Override
+    public boolean removeAll(Collection<SimEvent> events) {
+        boolean changed = false;
+        for (SimEvent event : events) {
+            changed |= remove(event);
+        }
+        return changed;
+    }
+
+    /**
+     * Iterates in queue order. Only the first events are cheap to reach; walking further sorts
+     * the buckets on the way, which is what CloudSim's cancel operations need.
+     */
+    @Override
+    public Iterator<SimEvent> iterator() {
+        refill();
+        return new LadderIterator();
+    }
+
+    private void insert(SimEvent event, long serial) {
+        double time = event.eventTime();
+        size++;
+        for (int j = 0; j < rungCount; j++) {
+            Rung rung = rungs[j];
+            double p = rung.position(time);
+            if (p >= rung.current + 1) {
+                if (j == 0 && p >= rung.count) {
+                    top.add(event, time, serial);
+                } else {
+                    rung.buckets[(int) Math.min(p, rung.count - 1)].add(event, time, serial);
+                }
+                return;
+            }
+        }
+        if (rungCount == 0 && (bottomHead == bottom.size || !less(time, serial, bottom.times[bottom.size - 1], bottom.serials[bottom.size - 1]))) {
+            top.add(event, time, serial);
+            return;
+        }
+        insertBottom(event, time, serial);
+    }
+
+    private void insertBottom(SimEvent event, double time, long serial) {
+        int lo = bottomHead;
+        int hi = bottom.size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (less(time, serial, bottom.times[mid], bottom.serials[mid])) {
+                hi = mid;
+            } else {
+                lo = mid + 1;
+            }
+        }
+        if (lo == bottomHead && bottomHead > 0) {
+            bottomHead--;
+            bottom.events[bottomHead] = event;
+            bottom.times[bottomHead] = time;
+            bottom.serials[bottomHead] = serial;
+            return;
+        }
+        if (bottom.size == bottom.events.length && bottomHead > 0) {
+            bottom.shift(bottomHead);
+            lo -= bottomHead;
+            bottomHead = 0;
+        }
+        bottom.insertAt(lo, event, time, serial);
+    }
+
+    // Makes sure the bottom holds the earliest events unless the queue is empty
+    private void refill() {
+        while (bottomHead == bottom.size && size > 0) {
+            bottom.clear();
+            bottomHead = 0;
+            if (rungCount == 0) {
+                spread(top, 0);
+            }
+            Rung rung = rungs[rungCount - 1];
+            int next = rung.current + 1;
+            while (next < rung.count && rung.buckets[next].size == 0) {
+                next++;
+            }
+            if (next == rung.count) {
+                rung.current = rung.count - 1;
+                rungCount--;
+                continue;
+            }
+            rung.current = next;
+            Bucket bucket = rung.buckets[next];
+            if (bucket.size > SPAWN_THRESHOLD && rungCount < MAX_RUNGS && !sameTime(bucket)) {
+                spread(bucket, rungCount);
+                continue;
+            }
+            // Swap the bucket in as the new bottom; the emptied bottom takes its place
+            rung.buckets[next] = bottom;
+            bottom = bucket;
+            sort(bottom);
+        }
+    }
+
+    // Spreads the events of a bucket over a new rung at the given depth
+    private void spread(Bucket source, int depth) {
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < source.size; i++) {
+            min = Math.min(min, source.times[i]);
+            max = Math.max(max, source.times[i]);
+        }
+        Rung rung = rungs[depth];
+        if (rung == null) {
+            rung = rungs[depth] = new Rung();
+        }
+        int count = Math.max(Math.min(source.size, MAX_BUCKETS), 1);
+        if (rung.buckets.length < count) {
+            int old = rung.buckets.length;
+            rung.buckets = Arrays.copyOf(rung.buckets, count);
+            for (int i = old; i < count; i++) {
+                rung.buckets[i] = new Bucket();
+            }
+        }
+        rung.count = count;
+        rung.current = -1;
+        rung.start = min;
+        // Slightly wider than needed so the latest event still falls into the last bucket
+        rung.width = max > min ? (max - min) / count * (1 + 1e-9) : 1;
+        for (int i = 0; i < source.size; i++) {
+            double p = rung.position(source.times[i]);
+            rung.buckets[(int) Math.min(p, count - 1)].add(source.events[i], source.times[i], source.serials[i]);
+        }
+        source.clear();
+        rungCount = depth + 1;
+    }
+
+    private static boolean sameTime(Bucket bucket) {
+        for (int i = 1; i < bucket.size; i++) {
+            if (bucket.times[i] != bucket.times[0]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean less(double time, long serial, double otherTime, long otherSerial) {
+        return time < otherTime || (time == otherTime && serial < otherSerial);
+    }
+
+    // Sorts a whole bucket by time and insertion order (stable bottom-up merge sort)
+    private void sort(Bucket bucket) {
+        int n = bucket.size;
+        for (int i = 1; i < n; i++) {
+            if (less(bucket.times[i], bucket.serials[i], bucket.times[i - 1], bucket.serials[i - 1])) {
+                break;
+            }
+            if (i == n - 1) {
+                return; // already in order, e.g. events scheduled in time order
+            }
+        }
+        if (scratchEvents.length < n) {
+            scratchEvents = new SimEvent[bucket.events.length];
+            scratchTimes = new double[bucket.events.length];
+            scratchSerials = new long[bucket.events.length];
+        }
+        for (int width = 1; width < n; width <<= 1) {
+            for (int lo = 0; lo < n - width; lo += width << 1) {
+                int mid = lo + width;
+                int hi = Math.min(mid + width, n);
+                if (!less(bucket.times[mid], bucket.serials[mid], bucket.times[mid - 1], bucket.serials[mid - 1])) {
+                    continue;
+                }
+                System.arraycopy(bucket.events, lo, scratchEvents, lo, hi - lo);
+                System.arraycopy(bucket.times, lo, scratchTimes, lo, hi - lo);
+                System.arraycopy(bucket.serials, lo, scratchSerials, lo, hi - lo);
+                int i = lo;
+                int j = mid;
+                for (int k = lo; k < hi; k++) {
+                    int from = j < hi && (i >= mid || less(scratchTimes[j], scratchSerials[j], scratchTimes[i], scratchSerials[i])) ? j++ : i++;
+                    bucket.events[k] = scratchEvents[from];
+                    bucket.times[k] = scratchTimes[from];
+                    bucket.serials[k] = scratchSerials[from];
+                }
+            }
+        }
+        Arrays.fill(scratchEvents, 0, n, null);
+    }
+
+    // Walks bottom, then the remaining buckets of each rung from the deepest up, then top
+    private final class LadderIterator implements Iterator<SimEvent> {
+        private Bucket bucket = bottom;
+        private int index = bottomHead;
+        private int rung = rungCount;
+        private int nextBucket = -1;
+        private boolean topVisited;
+        private int last = -1;
+        private Bucket lastBucket;
+
+        @Override
+        public boolean hasNext() {
+            while (index >= bucket.size) {
+                if (!advance()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private boolean advance() {
+            while (rung > 0) {
+                Rung r = rungs[rung - 1];
+                if (nextBucket < 0) {
+                    nextBucket = r.current + 1;
+                }
+                if (nextBucket < r.count) {
+                    bucket = r.buckets[nextBucket++];
+                    index = 0;
+                    sort(bucket);
+                    return true;
+                }
+                rung--;
+                nextBucket = -1;
+            }
+            if (topVisited) {
+                return false;
+            }
+            topVisited = true;
+            bucket = top;
+            index = 0;
+            sort(top);
+            return true;
+        }
+
+        @Override
+        public SimEvent next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            lastBucket = bucket;
+            last = index;
+            return bucket.events[index++];
+        }
+
+        @Override
+        public void remove() {
+            if (last < 0) {
+                throw new IllegalStateException();
+            }
+            if (lastBucket == bottom && last == bottomHead) {
+                bottom.events[bottomHead++] = null;
+            } else {
+                lastBucket.removeAt(last);
+                index--;
+            }
+            size--;
+            last = -1;
+        }
+    }
+}
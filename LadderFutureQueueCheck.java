@@ -0,0 +1,157 @@
+package org.cloudbus.cloudsim.examples;
+
+import org.cloudbus.cloudsim.core.SimEvent;
+
+import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.TreeSet;
+
+/**
+ * Runs random operation sequences against a LadderFutureQueue and a TreeSet ordered like
+ * FutureQueue, and reports where they first differ. The operations follow CloudSim's use of
+ * the queue: runClockTick() takes the head and then every event at its time, cancellations
+ * walk the iterator and remove through it, and single events are removed. Samples alternate
+ * between times with frequent ties, spread out times and clustered times that make buckets
+ * spawn new rungs.
+ */
+final class LadderFutureQueueCheck implements Validation.Check {
+
+    private final Constructor<SimEvent> constructor;
+    private int samples;
+
+    LadderFutureQueueCheck() {
+        try {
+            // CloudSim keeps this constructor package private
+            constructor = SimEvent.class.getDeclaredConstructor(int.class, double.class, int.class, int.class, int.class, Object.class);
+            constructor.setAccessible(true);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException("SimEvent has no (int, double, int, int, int, Object) constructor", e);
+        }
+    }
+
+    @Override
+    public String sample(SplittableRandom random) throws Exception {
+        return sample(constructor, samples++ % 4, 1000 + random.nextInt(20000), random);
+    }
+
+    // An event of the reference queue with its FutureQueue ordering keys
+    private static final class ReferenceEvent {
+        final SimEvent event;
+        final double time;
+        final long serial;
+        final long order;
+
+        ReferenceEvent(SimEvent event, double time, long serial, long order) {
+            this.event = event;
+            this.time = time;
+            this.serial = serial;
+            this.order = order;
+        }
+    }
+
+    // Returns where the queues first differ, or null when they agreed throughout
+    private static String sample(Constructor<SimEvent> constructor, int mode, int operations, SplittableRandom random) throws Exception {
+        LadderFutureQueue queue = new LadderFutureQueue();
+        TreeSet<ReferenceEvent> reference = new TreeSet<>(Comparator.<ReferenceEvent>comparingDouble(e -> e.time)
+                .thenComparingLong(e -> e.serial).thenComparingLong(e -> e.order));
+        long serial = 0;
+        long order = 0;
+        double clock = 0;
+        for (int operation = 0; operation < operations; operation++) {
+            // The clustered samples mostly add, so buckets grow past the ladder's SPAWN_THRESHOLD
+            int kind = random.nextInt(10);
+            if (kind < (mode == 2 ? 8 : 5) || reference.isEmpty()) {
+                double time;
+                switch (mode) {
+                    case 0:
+                        time = clock + random.nextInt(5);
+                        break;
+                    case 1:
+                        time = clock + random.nextDouble() * 1000;
+                        break;
+                    case 2:
+                        time = clock + (random.nextInt(50) == 0 ? random.nextDouble() * 1e6 : random.nextDouble() * 1e-3);
+                        break;
+                    default:
+                        time = clock + Math.floor(-Math.log(1 - random.nextDouble()) * 10);
+                }
+                SimEvent event = constructor.newInstance(0, time, 0, 0, 0, null);
+                if (random.nextInt(mode == 0 ? 4 : 16) == 0) {
+                    queue.addEventFirst(event);
+                    reference.add(new ReferenceEvent(event, time, 0, order++));
+                } else {
+                    queue.addEvent(event);
+                    reference.add(new ReferenceEvent(event, time, serial++, order++));
+                }
+            } else if (kind < 8) {
+                // runClockTick(): the head, then everything at its time
+                Iterator<SimEvent> it = queue.iterator();
+                ReferenceEvent head = reference.pollFirst();
+                if (!it.hasNext() || it.next() != head.event) {
+                    return "head differs at operation " + operation;
+                }
+                if (queue.peekTime() != head.time || !queue.remove(head.event)) {
+                    return "head not removed at operation " + operation;
+                }
+                clock = head.time;
+                List<SimEvent> sameTime = new ArrayList<>();
+                for (it = queue.iterator(); it.hasNext(); ) {
+                    SimEvent next = it.next();
+                    if (next.eventTime() != clock) {
+                        break;
+                    }
+                    sameTime.add(next);
+                }
+                int index = 0;
+                for (ReferenceEvent expected : reference) {
+                    if (expected.time != clock) {
+                        break;
+                    }
+                    if (index == sameTime.size() || sameTime.get(index++) != expected.event) {
+                        return "events at " + clock + " differ at operation " + operation;
+                    }
+                }
+                if (index != sameTime.size()) {
+                    return "events at " + clock + " differ at operation " + operation;
+                }
+                queue.removeAll(sameTime);
+                for (int i = 0; i < index; i++) {
+                    reference.pollFirst();
+                }
+            } else if (kind == 8) {
+                // A cancellation: walk in order up to a random event and remove it through the iterator
+                int victim = random.nextInt(reference.size());
+                Iterator<SimEvent> it = queue.iterator();
+                Iterator<ReferenceEvent> expected = reference.iterator();
+                for (int i = 0; i <= victim; i++) {
+                    if (!it.hasNext() || it.next() != expected.next().event) {
+                        return "iteration differs at position " + i + " at operation " + operation;
+                    }
+                }
+                it.remove();
+                expected.remove();
+            } else {
+                ReferenceEvent victim = new ArrayList<>(reference).get(random.nextInt(reference.size()));
+                if (!queue.remove(victim.event) || queue.remove(victim.event)) {
+                    return "remove of an event at " + victim.time + " failed at operation " + operation;
+                }
+                reference.remove(victim);
+            }
+            if (queue.size() != reference.size()) {
+                return "size " + queue.size() + " instead of " + reference.size() + " at operation " + operation;
+            }
+        }
+
+        for (ReferenceEvent expected : reference) {
+            Iterator<SimEvent> it = queue.iterator();
+            if (!it.hasNext() || it.next() != expected.event || !queue.remove(expected.event)) {
+                return "drain differs at " + expected.time;
+            }
+        }
+        return queue.size() == 0 && !queue.iterator().hasNext() ? null : "not empty after draining";
+    }
+}
@@ -0,0 +1,123 @@
+package org.cloudbus.cloudsim.examples;
+
+/**
+ * Fixed-memory histogram of non-negative times in the spirit of HdrHistogram: values are
+ * counted in log-linear buckets, 256 linear sub-buckets per power of two, so any recorded
+ * value is reproduced within 0.5% (or one resolution unit) whatever its magnitude. The whole
+ * positive range fits in one ~58 KB array, so memory does not grow with the number of
+ * recorded values. Count, sum, min and max are kept exactly.
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 8;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int SUB_BUCKET_HALF_BITS = SUB_BUCKET_BITS - 1;
+    private static final int BUCKET_COUNT = 64 - SUB_BUCKET_BITS; // covers every positive long
+
+    private final double unitsPerValue;
+    private final long[] counts = new long[(BUCKET_COUNT + 1) << SUB_BUCKET_HALF_BITS];
+
+    private long count;
+    private double sum;
+    private double min = Double.MAX_VALUE;
+    private double max;
+    private int highestIndex;
+
+    // Millisecond resolution for times in seconds
+    public LatencyHistogram() {
+        this(1000);
+    }
+
+    // Values are bucketed in units of 1 / unitsPerValue
+    public LatencyHistogram(double unitsPerValue) {
+        this.unitsPerValue = unitsPerValue;
+    }
+
+    public void record(double value) {
+        value = Math.max(value, 0);
+        int index = indexOf((long) (value * unitsPerValue));
+        counts[index]++;
+        highestIndex = Math.max(highestIndex, index);
+        count++;
+        sum += value;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    public void add(LatencyHistogram other) {
+        if (other.unitsPerValue != unitsPerValue) {
+            throw new IllegalArgumentException("Histograms have different resolutions");
+        }
+        for (int i = 0; i <= other.highestIndex; i++) {
+            counts[i] += other.counts[i];
+        }
+        highestIndex = Math.max(highestIndex, other.highestIndex);
+        count += other.count;
+        sum += other.sum;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    public void reset() {
+        java.util.Arrays.fill(counts, 0, highestIndex + 1, 0);
+        highestIndex = 0;
+        count = 0;
+        sum = 0;
+        min = Double.MAX_VALUE;
+        max = 0;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMean() {
+        return count == 0 ? 0 : sum / count;
+    }
+
+    public double getMin() {
+        return count == 0 ? 0 : min;
+    }
+
+    public double getMax() {
+        return max;
+    }
+
+    /**
+     * The value below which the given percentage (0-100) of the recorded values fall,
+     * i.e. the nearest-rank percentile, reported as the middle of its bucket.
+     */
+    public double getValueAtPercentile(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max((long) Math.ceil(percentile / 100.0 * count), 1);
+        if (rank >= count) {
+            return max;
+        }
+        long seen = 0;
+        for (int i = 0; i <= highestIndex; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(Math.max(valueOf(i) / unitsPerValue, min), max);
+            }
+        }
+        return max;
+    }
+
+    // Bucket b holds values with their highest set bit at b + 7 (b = 0 also holds 0..127),
+    // sub-bucket s covers [s << b, (s + 1) << b)
+    static int indexOf(long units) {
+        int magnitude = 63 - Long.numberOfLeadingZeros(units | (SUB_BUCKET_COUNT - 1));
+        int bucket = magnitude - SUB_BUCKET_HALF_BITS;
+        int subBucket = (int) (units >>> bucket);
+        return (bucket << SUB_BUCKET_HALF_BITS) + subBucket;
+    }
+
+    static double valueOf(int index) {
+        int bucket = Math.max((index >> SUB_BUCKET_HALF_BITS) - 1, 0);
+        int subBucket = index - (bucket << SUB_BUCKET_HALF_BITS);
+        double lowest = (double) ((long) subBucket << bucket);
+        return lowest + ((1L << bucket) - 1) / 2.0;
+    }
+}
@@ -0,0 +1,650 @@
+package org.cloudbus.cloudsim.examples;
+
+import org.cloudbus.cloudsim.CloudletScheduler;
+import org.cloudbus.cloudsim.CloudletSchedulerSpaceShared;
+import org.cloudbus.cloudsim.Vm;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Searches a cloudlet-to-VM binding and submission order with a metaheuristic, for VMs running
+ * the space-shared FCFS scheduler. Candidates are scored by makespan with SpaceSharedEvaluator
+ * rather than CloudSim, so a search scores hundreds of thousands of schedules in the time of a
+ * single simulation; the best one is then bound and submitted like any other policy.
+ *
+ *  - GA: tournament selection, uniform crossover of the bindings and order crossover of the
+ *    submission orders, reassignment and swap mutations, the best schedule always kept.
+ *  - PSO: a VM coordinate and a priority coordinate per cloudlet, decoded to a binding and to
+ *    an order by sorting the priorities.
+ *  - ACO: a max-min ant system; ants bind the cloudlets in arrival order, guided by pheromone
+ *    and by the response time each VM would give. The submission order stays by arrival.
+ *
+ * The order only decides between cloudlets arriving at the same instant, as the broker releases
+ * the rest by arrival time anyway. Every search starts from the MCT binding in arrival order and
+ * never returns anything worse. Each iteration builds and scores its candidates in parallel on a
+ * ForkJoinPool, in fixed chunks that own an evaluator and scratch arrays, and candidates are
+ * rewritten in place, so the search allocates nothing after its setup. It stops when the
+ * wall-clock budget or the iteration limit is reached; every candidate draws from its own random
+ * stream, so a fixed number of iterations gives the same schedule on any number of threads.
+ */
+public class MetaheuristicScheduler implements SchedulingPolicy {
+
+    public enum Algorithm { GA, PSO, ACO }
+
+    public static final long DEFAULT_BUDGET_MILLIS = 1000;
+    public static final int DEFAULT_POPULATION = 64;
+
+    private final Algorithm algorithm;
+    private final long budgetMillis;
+    private final int maxIterations;
+    private final int population;
+    private final int threads;
+    private final long seed;
+
+    // Statistics of the last search
+    private int iterations;
+    private double bestMakeSpan;
+
+    public MetaheuristicScheduler(Algorithm algorithm, long budgetMillis) {
+        this(algorithm, budgetMillis, Integer.MAX_VALUE, DEFAULT_POPULATION, Runtime.getRuntime().availableProcessors(), 1);
+    }
+
+    /**
+     * A scheduler that searches for budgetMillis or maxIterations iterations, whichever ends
+     * first, scoring the given number of candidates per iteration on the given number of threads.
+     */
+    public MetaheuristicScheduler(Algorithm algorithm, long budgetMillis, int maxIterations, int population,
+                                  int threads, long seed) {
+        if (population < 2 || threads < 1 || maxIterations < 1) {
+            throw new IllegalArgumentException("Expected at least 2 candidates, 1 thread and 1 iteration");
+        }
+        this.algorithm = algorithm;
+        this.budgetMillis = budgetMillis;
+        this.maxIterations = maxIterations;
+        this.population = population;
+        this.threads = threads;
+        this.seed = seed;
+    }
+
+    // Schedulers named by -Dcloudsim.metaheuristics (e.g. GA,PSO,ACO), each searching for
+    // -Dcloudsim.metaheuristic.budget ms on -Dcloudsim.metaheuristic.threads threads
+    public static List<MetaheuristicScheduler> fromSystemProperty() {
+        List<MetaheuristicScheduler> schedulers = new ArrayList<>();
+        String names = System.getProperty("cloudsim.metaheuristics");
+        if (names == null || names.trim().isEmpty()) {
+            return schedulers;
+        }
+        long budget = Long.getLong("cloudsim.metaheuristic.budget", DEFAULT_BUDGET_MILLIS);
+        int threads = Integer.getInteger("cloudsim.metaheuristic.threads", Runtime.getRuntime().availableProcessors());
+        for (String name : names.split(",")) {
+            Algorithm algorithm = Algorithm.valueOf(name.trim().toUpperCase());
+            schedulers.add(new MetaheuristicScheduler(algorithm, budget, Integer.MAX_VALUE, DEFAULT_POPULATION, threads, 1));
+        }
+        return schedulers;
+    }
+
+    public Algorithm getAlgorithm() {
+        return algorithm;
+    }
+
+    public long getBudgetMillis() {
+        return budgetMillis;
+    }
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    public long getEvaluations() {
+        return (long) iterations * population;
+    }
+
+    // Makespan of the last schedule as the evaluator predicts it
+    public double getBestMakeSpan() {
+        return bestMakeSpan;
+    }
+
+    @Override
+    public String getName() {
+        return algorithm.name();
+    }
+
+    @Override
+    public CloudletScheduler createCloudletScheduler() {
+        return new CloudletSchedulerSpaceShared();
+    }
+
+    @Override
+    public void prepare(List<CustomCloudlet> cloudlets, List<Vm> vms) {
+        if (cloudlets.isEmpty() || vms.isEmpty()) {
+            return;
+        }
+        int n = cloudlets.size();
+        long[] arrival = new long[n];
+        long[] length = new long[n];
+        for (int i = 0; i < n; i++) {
+            arrival[i] = cloudlets.get(i).getArrivalTime();
+            length[i] = cloudlets.get(i).getCloudletLength();
+        }
+        int[][] schedule = search(arrival, length, mips(vms));
+        List<CustomCloudlet> given = new ArrayList<>(cloudlets);
+        for (int position = 0; position < n; position++) {
+            int i = schedule[1][position];
+            CustomCloudlet cloudlet = given.get(i);
+            cloudlet.setVmId(vms.get(schedule[0][i]).getId());
+            cloudlets.set(position, cloudlet);
+        }
+    }
+
+    @Override
+    public int[] prepare(CloudletTable table, List<Vm> vms) {
+        int[] rows = table.rows();
+        if (rows.length == 0 || vms.isEmpty()) {
+            return rows;
+        }
+        long[] arrival = new long[rows.length];
+        long[] length = new long[rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            arrival[i] = table.getArrivalTime(rows[i]);
+            length[i] = table.getLength(rows[i]);
+        }
+        int[][] schedule = search(arrival, length, mips(vms));
+        int[] order = new int[rows.length];
+        for (int position = 0; position < rows.length; position++) {
+            int i = schedule[1][position];
+            table.setVmId(rows[i], vms.get(schedule[0][i]).getId());
+            order[position] = rows[i];
+        }
+        return order;
+    }
+
+    private static double[] mips(List<? extends Vm> vms) {
+        double[] mips = new double[vms.size()];
+        for (int j = 0; j < mips.length; j++) {
+            mips[j] = vms.get(j).getMips();
+        }
+        return mips;
+    }
+
+    /**
+     * The best schedule found for the given cloudlets on VMs of the given MIPS: the VM index of
+     * every cloudlet, then the cloudlet indices in submission order.
+     */
+    int[][] search(long[] arrival, long[] length, double[] mips) {
+        Search search;
+        switch (algorithm) {
+            case GA:
+                search = new GeneticSearch(arrival, length, mips, population, seed);
+                break;
+            case PSO:
+                search = new ParticleSwarmSearch(arrival, length, mips, population, seed);
+                break;
+            default:
+                search = new AntColonySearch(arrival, length, mips, population, seed);
+        }
+
+        long deadline = System.nanoTime() + budgetMillis * 1_000_000;
+        Chunk[] chunks = search.chunks(Math.min(population, 4 * threads));
+        RecursiveAction pass = new RecursiveAction() {
+            @Override
+            protected void compute() {
+                invokeAll(chunks);
+            }
+        };
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            do {
+                for (Chunk chunk : chunks) {
+                    chunk.reinitialize();
+                }
+                pass.reinitialize();
+                pool.invoke(pass);
+                search.update();
+            } while (search.iteration < maxIterations && System.nanoTime() < deadline);
+        } finally {
+            pool.shutdown();
+        }
+        iterations = search.iteration;
+        bestMakeSpan = search.bestFitness;
+        return new int[][]{search.bestVm, search.bestOrder};
+    }
+
+    // Candidate schedules of one search and the best one so far; subclasses build the candidates
+    abstract static class Search {
+
+        final int n;
+        final int m;
+        final long[] arrival;
+        final long[] length;
+        final double[] mips;
+        final int[] seedVm; // MCT binding in arrival order
+        final int[] arrivalOrder;
+
+        int[][] vm;
+        int[][] order;
+        final double[] fitness;
+        final SplittableRandom[] random;
+
+        final int[] bestVm;
+        final int[] bestOrder;
+        double bestFitness = Double.MAX_VALUE;
+        int iteration;
+
+        Search(long[] arrival, long[] length, double[] mips, int population, long seed) {
+            this.n = arrival.length;
+            this.m = mips.length;
+            this.arrival = arrival;
+            this.length = length;
+            this.mips = mips;
+
+            Integer[] byArrival = new Integer[n];
+            double[] release = new double[n];
+            double[] lengths = new double[n];
+            for (int i = 0; i < n; i++) {
+                byArrival[i] = i;
+                release[i] = arrival[i];
+                lengths[i] = length[i];
+            }
+            Arrays.sort(byArrival, (a, b) -> Long.compare(arrival[a], arrival[b]));
+            arrivalOrder = new int[n];
+            for (int p = 0; p < n; p++) {
+                arrivalOrder[p] = byArrival[p];
+            }
+            seedVm = HeuristicCloudletBinder.mct(arrivalOrder, lengths, release, mips);
+
+            vm = new int[population][n];
+            order = new int[population][n];
+            fitness = new double[population];
+            random = new SplittableRandom[population];
+            SplittableRandom root = new SplittableRandom(seed);
+            for (int k = 0; k < population; k++) {
+                random[k] = root.split();
+            }
+            bestVm = new int[n];
+            bestOrder = new int[n];
+        }
+
+        // Writes candidate k into vm[k] and order[k]; runs in parallel with the other candidates
+        abstract void build(int k, Chunk chunk);
+
+        // Runs right after candidate k was scored, still in parallel
+        void evaluated(int k) {
+        }
+
+        // Sequential step between iterations, after the best schedule so far has been updated
+        abstract void advance();
+
+        final void update() {
+            int best = 0;
+            for (int k = 1; k < fitness.length; k++) {
+                if (fitness[k] < fitness[best]) {
+                    best = k;
+                }
+            }
+            if (fitness[best] < bestFitness) {
+                bestFitness = fitness[best];
+                System.arraycopy(vm[best], 0, bestVm, 0, n);
+                System.arraycopy(order[best], 0, bestOrder, 0, n);
+            }
+            advance();
+            iteration++;
+        }
+
+        final void seed(int k) {
+            System.arraycopy(seedVm, 0, vm[k], 0, n);
+            System.arraycopy(arrivalOrder, 0, order[k], 0, n);
+        }
+
+        final Chunk[] chunks(int count) {
+            Chunk[] chunks = new Chunk[count];
+            for (int c = 0; c < count; c++) {
+                chunks[c] = new Chunk(this, c * fitness.length / count, (c + 1) * fitness.length / count);
+            }
+            return chunks;
+        }
+    }
+
+    // A fixed share of the candidates, with the evaluator and scratch space its thread uses for them
+    static final class Chunk extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Search search;
+        private final int from;
+        private final int to;
+        private final SpaceSharedEvaluator evaluator;
+        final long[] keys;
+        final boolean[] used;
+        final double[] ready;
+        final double[] weight;
+
+        Chunk(Search search, int from, int to) {
+            this.search = search;
+            this.from = from;
+            this.to = to;
+            this.evaluator = new SpaceSharedEvaluator(search.arrival, search.length, search.mips);
+            this.keys = new long[search.n];
+            this.used = new boolean[search.n];
+            this.ready = new double[search.m];
+            this.weight = new double[search.m];
+        }
+
+        @Override
+        protected void compute() {
+            for (int k = from; k < to; k++) {
+                search.build(k, this);
+                search.fitness[k] = evaluator.evaluate(search.vm[k], search.order[k], null, null);
+                search.evaluated(k);
+            }
+        }
+    }
+
+    static final class GeneticSearch extends Search {
+
+        private static final double CROSSOVER_RATE = 0.9;
+
+        private int[][] parentVm;
+        private int[][] parentOrder;
+        private final double[] parentFitness;
+
+        GeneticSearch(long[] arrival, long[] length, double[] mips, int population, long seed) {
+            super(arrival, length, mips, population, seed);
+            parentVm = new int[population][n];
+            parentOrder = new int[population][n];
+            parentFitness = new double[population];
+        }
+
+        @Override
+        void build(int k, Chunk chunk) {
+            SplittableRandom random = this.random[k];
+            int[] childVm = vm[k];
+            int[] childOrder = order[k];
+            if (iteration == 0) {
+                // The MCT schedule, mutants of it and random schedules
+                seed(k);
+                if (k % 2 == 1) {
+                    for (int mutation = 0; mutation <= n / 10; mutation++) {
+                        childVm[random.nextInt(n)] = random.nextInt(m);
+                    }
+                } else if (k > 0) {
+                    for (int i = 0; i < n; i++) {
+                        childVm[i] = random.nextInt(m);
+                    }
+                    for (int p = n - 1; p > 0; p--) {
+                        swap(childOrder, p, random.nextInt(p + 1));
+                    }
+                }
+                return;
+            }
+            if (k == 0) {
+                System.arraycopy(bestVm, 0, childVm, 0, n);
+                System.arraycopy(bestOrder, 0, childOrder, 0, n);
+                return;
+            }
+
+            int a = tournament(random);
+            int b = tournament(random);
+            if (random.nextDouble() < CROSSOVER_RATE) {
+                uniformCrossover(parentVm[a], parentVm[b], childVm, random);
+                orderCrossover(parentOrder[a], parentOrder[b], childOrder, chunk.used, random);
+            } else {
+                System.arraycopy(parentVm[a], 0, childVm, 0, n);
+                System.arraycopy(parentOrder[a], 0, childOrder, 0, n);
+            }
+            int mutations = 1 + random.nextInt(3);
+            for (int mutation = 0; mutation < mutations; mutation++) {
+                childVm[random.nextInt(n)] = random.nextInt(m);
+            }
+            if (random.nextBoolean()) {
+                swap(childOrder, random.nextInt(n), random.nextInt(n));
+            }
+        }
+
+        @Override
+        void advance() {
+            // The candidates become the parents of the next iteration, whose arrays are reused
+            int[][] swap = parentVm;
+            parentVm = vm;
+            vm = swap;
+            swap = parentOrder;
+            parentOrder = order;
+            order = swap;
+            System.arraycopy(fitness, 0, parentFitness, 0, fitness.length);
+        }
+
+        private int tournament(SplittableRandom random) {
+            int a = random.nextInt(parentFitness.length);
+            int b = random.nextInt(parentFitness.length);
+            return parentFitness[a] <= parentFitness[b] ? a : b;
+        }
+
+        private static void uniformCrossover(int[] a, int[] b, int[] child, SplittableRandom random) {
+            for (int from = 0; from < child.length; from += 64) {
+                long bits = random.nextLong();
+                int to = Math.min(child.length, from + 64);
+                for (int i = from; i < to; i++, bits >>>= 1) {
+                    child[i] = (bits & 1) == 0 ? a[i] : b[i];
+                }
+            }
+        }
+
+        // A slice of a's order in place, the other cloudlets in b's order around it
+        private static void orderCrossover(int[] a, int[] b, int[] child, boolean[] used, SplittableRandom random) {
+            int n = child.length;
+            int from = random.nextInt(n);
+            int to = from + 1 + random.nextInt(n - from);
+            Arrays.fill(used, false);
+            for (int p = from; p < to; p++) {
+                child[p] = a[p];
+                used[a[p]] = true;
+            }
+            int p = 0;
+            for (int cloudlet : b) {
+                if (!used[cloudlet]) {
+                    if (p == from) {
+                        p = to;
+                    }
+                    child[p++] = cloudlet;
+                }
+            }
+        }
+
+        private static void swap(int[] array, int i, int j) {
+            int value = array[i];
+            array[i] = array[j];
+            array[j] = value;
+        }
+    }
+
+    static final class ParticleSwarmSearch extends Search {
+
+        private static final double INERTIA = 0.72;
+        private static final double ACCELERATION = 1.49;
+
+        // Coordinate i is the VM of cloudlet i in [0, m), coordinate n + i its priority in [0, 1)
+        private final double[][] position;
+        private final double[][] velocity;
+        private final double[][] personalBest;
+        private final double[] personalBestFitness;
+        private final double[] globalBest;
+        private double globalBestFitness = Double.MAX_VALUE;
+
+        ParticleSwarmSearch(long[] arrival, long[] length, double[] mips, int population, long seed) {
+            super(arrival, length, mips, population, seed);
+            position = new double[population][2 * n];
+            velocity = new double[population][2 * n];
+            personalBest = new double[population][2 * n];
+            personalBestFitness = new double[population];
+            globalBest = new double[2 * n];
+            Arrays.fill(personalBestFitness, Double.MAX_VALUE);
+        }
+
+        @Override
+        void build(int k, Chunk chunk) {
+            SplittableRandom random = this.random[k];
+            double[] x = position[k];
+            double[] v = velocity[k];
+            if (iteration == 0) {
+                for (int i = 0; i < n; i++) {
+                    x[i] = k == 0 ? seedVm[i] + 0.5 : random.nextDouble() * m;
+                    x[n + i] = random.nextDouble();
+                    v[i] = (random.nextDouble() - 0.5) * m / 4;
+                    v[n + i] = (random.nextDouble() - 0.5) / 4;
+                }
+                if (k == 0) {
+                    for (int p = 0; p < n; p++) {
+                        x[n + arrivalOrder[p]] = (p + 0.5) / n;
+                    }
+                }
+            } else {
+                double[] personal = personalBest[k];
+                for (int d = 0; d < x.length; d++) {
+                    double limit = d < n ? m : 1;
+                    double speed = INERTIA * v[d]
+                            + ACCELERATION * random.nextDouble() * (personal[d] - x[d])
+                            + ACCELERATION * random.nextDouble() * (globalBest[d] - x[d]);
+                    speed = Math.max(-limit / 2, Math.min(limit / 2, speed));
+                    double next = x[d] + speed;
+                    if (next < 0 || next >= limit) {
+                        next = next < 0 ? 0 : Math.nextDown(limit);
+                        speed = 0;
+                    }
+                    x[d] = next;
+                    v[d] = speed;
+                }
+            }
+
+            // VM by the integer part of the coordinate, order by priority; ties keep cloudlet order
+            int[] binding = vm[k];
+            long[] keys = chunk.keys;
+            for (int i = 0; i < n; i++) {
+                binding[i] = Math.min(m - 1, (int) x[i]);
+                keys[i] = (long) (x[n + i] * (1 << 30)) << 32 | i;
+            }
+            Arrays.sort(keys, 0, n);
+            int[] submission = order[k];
+            for (int p = 0; p < n; p++) {
+                submission[p] = (int) keys[p];
+            }
+        }
+
+        @Override
+        void evaluated(int k) {
+            if (fitness[k] < personalBestFitness[k]) {
+                personalBestFitness[k] = fitness[k];
+                System.arraycopy(position[k], 0, personalBest[k], 0, 2 * n);
+            }
+        }
+
+        @Override
+        void advance() {
+            int best = 0;
+            for (int k = 1; k < personalBestFitness.length; k++) {
+                if (personalBestFitness[k] < personalBestFitness[best]) {
+                    best = k;
+                }
+            }
+            if (personalBestFitness[best] < globalBestFitness) {
+                globalBestFitness = personalBestFitness[best];
+                System.arraycopy(personalBest[best], 0, globalBest, 0, 2 * n);
+            }
+        }
+    }
+
+    static final class AntColonySearch extends Search {
+
+        private static final double EVAPORATION = 0.1;
+        // Probability that an ant takes the most attractive VM rather than sampling one
+        private static final double EXPLOITATION = 0.9;
+
+        private final double[] pheromone; // n x m, by cloudlet then VM
+
+        AntColonySearch(long[] arrival, long[] length, double[] mips, int population, long seed) {
+            super(arrival, length, mips, population, seed);
+            long cells = (long) n * m;
+            if (cells > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Too many cloudlets and VMs for one pheromone matrix: " + n + " x " + m);
+            }
+            pheromone = new double[(int) cells];
+            Arrays.fill(pheromone, 1);
+            for (int k = 0; k < population; k++) {
+                System.arraycopy(arrivalOrder, 0, order[k], 0, n);
+            }
+        }
+
+        @Override
+        void build(int k, Chunk chunk) {
+            int[] binding = vm[k];
+            if (iteration == 0 && k == 0) {
+                System.arraycopy(seedVm, 0, binding, 0, n);
+                return;
+            }
+            SplittableRandom random = this.random[k];
+            double[] ready = chunk.ready;
+            double[] weight = chunk.weight;
+            Arrays.fill(ready, 0);
+            for (int i : arrivalOrder) {
+                double release = Math.max(arrival[i], SpaceSharedEvaluator.VM_READY_TIME);
+                int base = i * m;
+                int choice = 0;
+                double total = 0;
+                for (int j = 0; j < m; j++) {
+                    // Pheromone times the squared inverse of the response time on VM j
+                    double response = Math.max(ready[j], release) - arrival[i] + length[i] / mips[j] + 1e-9;
+                    weight[j] = pheromone[base + j] / (response * response);
+                    total += weight[j];
+                    if (weight[j] > weight[choice]) {
+                        choice = j;
+                    }
+                }
+                if (random.nextDouble() >= EXPLOITATION) {
+                    double sample = random.nextDouble() * total;
+                    for (choice = 0; choice < m - 1; choice++) {
+                        sample -= weight[choice];
+                        if (sample < 0) {
+                            break;
+                        }
+                    }
+                }
+                binding[i] = choice;
+                ready[choice] = Math.max(ready[choice], release) + length[i] / mips[choice];
+            }
+        }
+
+        @Override
+        void advance() {
+            // Max-min bounds from the best makespan; the trail starts at the maximum
+            double max = 1 / (EVAPORATION * bestFitness);
+            double min = max / (2 * n);
+            if (iteration == 0) {
+                Arrays.fill(pheromone, max);
+            }
+            for (int e = 0; e < pheromone.length; e++) {
+                pheromone[e] = Math.max(min, pheromone[e] * (1 - EVAPORATION));
+            }
+
+            // Deposit alternately along the best schedule so far and this iteration's best
+            int[] source = bestVm;
+            double sourceFitness = bestFitness;
+            if (iteration % 2 == 1) {
+                int best = 0;
+                for (int k = 1; k < fitness.length; k++) {
+                    if (fitness[k] < fitness[best]) {
+                        best = k;
+                    }
+                }
+                source = vm[best];
+                sourceFitness = fitness[best];
+            }
+            for (int i = 0; i < n; i++) {
+                int e = i * m + source[i];
+                pheromone[e] = Math.min(max, pheromone[e] + 1 / sourceFitness);
+            }
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package org.cloudbus.cloudsim.examples;
+
+import org.cloudbus.cloudsim.Cloudlet;
+
+import java.util.function.IntToDoubleFunction;
+
+/**
+ * Algorithm-level metrics computed in one pass over the finished cloudlets, with the same
+ * definitions the runners always used (wait = start - arrival, response and turnaround =
+ * finish - arrival). Wait, response, turnaround and slowdown go into fixed-memory
+ * histograms, so tail percentiles are available and memory stays constant however many
+ * cloudlets are consumed.
+ */
+public class MetricsAccumulator {
+
+    private final IntToDoubleFunction vmMips;
+
+    private final LatencyHistogram waitTime = new LatencyHistogram();
+    private final LatencyHistogram responseTime = new LatencyHistogram();
+    private final LatencyHistogram turnaroundTime = new LatencyHistogram();
+    private final LatencyHistogram slowdown = new LatencyHistogram();
+
+    private int count;
+    private long totalLength;
+    private double startTime = Double.MAX_VALUE;
+    private double finishTime = 0;
+
+    // Slowdown is relative to the time a cloudlet spent between start and finish
+    public MetricsAccumulator() {
+        this(null);
+    }
+
+    // Slowdown is relative to length / MIPS of the cloudlet's VM, which preemption does not stretch
+    public MetricsAccumulator(IntToDoubleFunction vmMips) {
+        this.vmMips = vmMips;
+    }
+
+    public void accept(Cloudlet cloudlet) {
+        accept(((CustomCloudlet) cloudlet).getArrivalTime(), cloudlet.getExecStartTime(), cloudlet.getFinishTime(),
+                cloudlet.getCloudletLength(), cloudlet.getVmId());
+    }
+
+    // Every finished row of a table workload
+    public void accept(CloudletTable table) {
+        for (int row = 0; row < table.size(); row++) {
+            if (table.isFinished(row)) {
+                accept(table.getArrivalTime(row), table.getExecStartTime(row), table.getFinishTime(row),
+                        table.getLength(row), table.getVmId(row));
+            }
+        }
+    }
+
+    public void accept(long arrivalTime, double execStartTime, double finishTimeForCloudlet, long length, int vmId) {
+        // Make sure the start and finish times are correct, if they are not set
+        if (execStartTime <= 0) {
+            execStartTime = arrivalTime;
+        }
+        if (finishTimeForCloudlet <= 0) {
+            finishTimeForCloudlet = execStartTime + length / 1000.0;
+        }
+
+        double turnaround = Math.max(finishTimeForCloudlet - arrivalTime, 0);
+        waitTime.record(execStartTime - arrivalTime);
+        responseTime.record(turnaround);
+        turnaroundTime.record(turnaround);
+
+        double serviceTime = vmMips != null
+                ? length / vmMips.applyAsDouble(vmId)
+                : finishTimeForCloudlet - execStartTime;
+        slowdown.record(serviceTime > 0 ? Math.max(turnaround / serviceTime, 1.0) : 1.0);
+
+        startTime = Math.min(startTime, execStartTime);
+        finishTime = Math.max(finishTime, finishTimeForCloudlet);
+        totalLength += length;
+        count++;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public long getTotalLength() {
+        return totalLength;
+    }
+
+    public double getMakeSpan() {
+        double makeSpan = finishTime - startTime;
+        return makeSpan > 0 ? makeSpan : 1.0; // Ensure makeSpan is non-zero
+    }
+
+    public double getThroughput() {
+        return count / getMakeSpan();
+    }
+
+    public LatencyHistogram getWaitTime() {
+        return waitTime;
+    }
+
+    public LatencyHistogram getResponseTime() {
+        return responseTime;
+    }
+
+    public LatencyHistogram getTurnaroundTime() {
+        return turnaroundTime;
+    }
+
+    public LatencyHistogram getSlowdown() {
+        return slowdown;
+    }
+
+    // Mean, p50, p90, p99 and max of one histogram, for the runners' console output
+    public static String summary(LatencyHistogram histogram) {
+        return String.format("mean %.2f, p50 %.2f, p90 %.2f, p99 %.2f, max %.2f",
+                histogram.getMean(),
+                histogram.getValueAtPercentile(50),
+                histogram.getValueAtPercentile(90),
+                histogram.getValueAtPercentile(99),
+                histogram.getMax());
+    }
+}
@@ -0,0 +1,191 @@
+package org.cloudbus.cloudsim.examples;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.UtilizationModelFull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Runs random sequences of queueing, dispatch, preemption, cancellation and boosts through
+ * the hooks of a MultiLevelFeedbackCloudletScheduler and through a plain model that keeps
+ * each cloudlet's level and the CPU time it used there, and reports where they first differ.
+ * The model demotes by taking off whole allotments, which checks demotion across several
+ * levels and the bottom level's wrap-around, and it boosts by hand, which checks boosted
+ * cloudlets against dispatch order, slice ends, preemption times and shouldPreempt(). Times
+ * are multiples of 1/8 s, so both sides compute them exactly.
+ */
+final class MultiLevelFeedbackCheck implements Validation.Check {
+
+    @Override
+    public String sample(SplittableRandom random) {
+        return sample(500 + random.nextInt(5000), random);
+    }
+
+    // A cloudlet as the model sees it
+    private static final class ModelCloudlet {
+        final QueuedResCloudlet rcl;
+        int level;
+        double used;
+        double start; // when it last started or was boosted, while it runs
+        long order;   // when it last queued
+
+        ModelCloudlet(QueuedResCloudlet rcl) {
+            this.rcl = rcl;
+        }
+
+        // Charges CPU time at the cloudlet's level, one level down per allotment used up; returns the levels dropped
+        int charge(double time, double[] quanta) {
+            if (Double.isInfinite(quanta[level])) {
+                return 0;
+            }
+            double total = used + time;
+            int dropped = 0;
+            while (level < quanta.length - 1 && total >= quanta[level]) {
+                total -= quanta[level];
+                level++;
+                dropped++;
+            }
+            used = Double.isInfinite(quanta[level]) ? total : total % quanta[level];
+            return dropped;
+        }
+
+        // When, running on, it has used up every allotment above the given level, or its own at that level
+        double demotionTime(int level, double[] quanta) {
+            double time = start - used + quanta[this.level];
+            for (int below = this.level + 1; below < level; below++) {
+                time += quanta[below];
+            }
+            return time;
+        }
+    }
+
+    // Returns where the scheduler and the model first differ, or null when they agreed throughout
+    private static String sample(int operations, SplittableRandom random) {
+        double[] choices = {0.5, 1, 1.5, 2, 3, 4, 8};
+        double[] quanta = new double[1 + random.nextInt(5)];
+        for (int level = 0; level < quanta.length; level++) {
+            quanta[level] = choices[random.nextInt(choices.length)];
+        }
+        if (random.nextInt(4) == 0) {
+            quanta[quanta.length - 1] = Double.POSITIVE_INFINITY;
+        }
+        double boostPeriod = random.nextInt(4) == 0 ? Double.POSITIVE_INFINITY : 4 + random.nextInt(60);
+        int pes = 1 + random.nextInt(3);
+        MultiLevelFeedbackCloudletScheduler scheduler = new MultiLevelFeedbackCloudletScheduler(quanta, boostPeriod);
+        List<QueuedResCloudlet> execList = scheduler.getCloudletExecList();
+        UtilizationModelFull full = new UtilizationModelFull();
+
+        List<ModelCloudlet> waiting = new ArrayList<>();
+        List<ModelCloudlet> running = new ArrayList<>();
+        Comparator<ModelCloudlet> dispatchOrder = Comparator.<ModelCloudlet>comparingInt(c -> c.level).thenComparingLong(c -> c.order);
+        double nextBoost = boostPeriod;
+        long boosts = 0;
+        long demotions = 0;
+        long order = 0;
+        double now = 0;
+        for (int operation = 0; operation < operations; operation++) {
+            String where = "operation " + operation + " at " + now + " with quanta " + Arrays.toString(quanta) + ": ";
+            int kind = random.nextInt(7);
+            if (kind == 0) {
+                ModelCloudlet cloudlet = new ModelCloudlet(new QueuedResCloudlet(new Cloudlet(operation, 1000, 1, 0, 0, full, full, full)));
+                cloudlet.order = order++;
+                waiting.add(cloudlet);
+                scheduler.enqueue(cloudlet.rcl, now);
+            } else if (kind == 1 && running.size() < pes && !waiting.isEmpty()) {
+                ModelCloudlet cloudlet = waiting.stream().min(dispatchOrder).get();
+                QueuedResCloudlet polled = scheduler.poll(now);
+                if (polled != cloudlet.rcl) {
+                    return where + "dispatched " + (polled == null ? "nothing" : polled.getCloudletId()) + " instead of " + cloudlet.rcl.getCloudletId();
+                }
+                waiting.remove(cloudlet);
+                scheduler.onStart(polled, now);
+                execList.add(polled);
+                cloudlet.start = now;
+                running.add(cloudlet);
+            } else if (kind == 2 && !running.isEmpty()) {
+                // Preempted, or its turn is over, so it queues again
+                ModelCloudlet cloudlet = running.remove(random.nextInt(running.size()));
+                execList.remove(cloudlet.rcl);
+                scheduler.onPreempt(cloudlet.rcl, now);
+                demotions += cloudlet.charge(now - cloudlet.start, quanta);
+                if (cloudlet.rcl.getFeedbackLevel() != cloudlet.level || cloudlet.rcl.getLevelTimeUsed() != cloudlet.used) {
+                    return where + "cloudlet " + cloudlet.rcl.getCloudletId() + " left at level " + cloudlet.rcl.getFeedbackLevel()
+                            + " with " + cloudlet.rcl.getLevelTimeUsed() + " used, expected " + cloudlet.level + " with " + cloudlet.used;
+                }
+                cloudlet.order = order++;
+                waiting.add(cloudlet);
+                scheduler.enqueue(cloudlet.rcl, now);
+            } else if (kind == 3 && !waiting.isEmpty()) {
+                ModelCloudlet cloudlet = waiting.remove(random.nextInt(waiting.size()));
+                if (!scheduler.removeQueued(cloudlet.rcl)) {
+                    return where + "could not cancel cloudlet " + cloudlet.rcl.getCloudletId();
+                }
+            } else if (kind == 4) {
+                scheduler.boostIfDue(now);
+                boolean anyBelowTop = waiting.stream().anyMatch(c -> c.level > 0) || running.stream().anyMatch(c -> c.level > 0);
+                if (!anyBelowTop) {
+                    nextBoost = now + boostPeriod;
+                } else if (now >= nextBoost) {
+                    // The top level keeps its order and the lower ones queue behind it, top down
+                    waiting.sort(dispatchOrder);
+                    for (ModelCloudlet cloudlet : waiting) {
+                        cloudlet.level = 0;
+                        cloudlet.used = 0;
+                        cloudlet.order = order++;
+                    }
+                    for (ModelCloudlet cloudlet : running) {
+                        cloudlet.level = 0;
+                        cloudlet.used = 0;
+                        cloudlet.start = now;
+                    }
+                    nextBoost = now + boostPeriod;
+                    boosts++;
+                }
+            } else {
+                now += random.nextInt(1 + random.nextInt(64)) / 8.0;
+            }
+
+            ModelCloudlet head = waiting.stream().min(dispatchOrder).orElse(null);
+            if (scheduler.peek() != (head == null ? null : head.rcl)) {
+                return where + "peek() is not the next cloudlet to dispatch";
+            }
+            for (int level = 0; level < quanta.length; level++) {
+                int queued = level;
+                long expected = waiting.stream().filter(c -> c.level == queued).count();
+                if (scheduler.getQueuedCount(level) != expected) {
+                    return where + scheduler.getQueuedCount(level) + " cloudlets at level " + level + ", expected " + expected;
+                }
+            }
+            if (scheduler.getDemotionCount() != demotions || scheduler.getBoostCount() != boosts) {
+                return where + scheduler.getDemotionCount() + " demotions and " + scheduler.getBoostCount() + " boosts, expected "
+                        + demotions + " and " + boosts;
+            }
+            boolean anyBelowTop = waiting.stream().anyMatch(c -> c.level > 0) || running.stream().anyMatch(c -> c.level > 0);
+            for (ModelCloudlet cloudlet : running) {
+                double sliceEnd = cloudlet.demotionTime(cloudlet.level, quanta);
+                if (cloudlet.rcl.getFeedbackLevel() != cloudlet.level || cloudlet.rcl.getSliceEnd() != sliceEnd) {
+                    return where + "running cloudlet " + cloudlet.rcl.getCloudletId() + " at level " + cloudlet.rcl.getFeedbackLevel()
+                            + " until " + cloudlet.rcl.getSliceEnd() + ", expected " + cloudlet.level + " until " + sliceEnd;
+                }
+                double preemption = head == null ? Double.MAX_VALUE : cloudlet.demotionTime(head.level, quanta);
+                if (head != null && anyBelowTop) {
+                    preemption = Math.min(preemption, nextBoost);
+                }
+                if (scheduler.preemptionTime(cloudlet.rcl) != preemption) {
+                    return where + "cloudlet " + cloudlet.rcl.getCloudletId() + " preempted at " + scheduler.preemptionTime(cloudlet.rcl)
+                            + ", expected " + preemption;
+                }
+                boolean preempt = head != null && (head.level < cloudlet.level || cloudlet.demotionTime(head.level, quanta) <= now);
+                if (head != null && scheduler.shouldPreempt(head.rcl, cloudlet.rcl, now) != preempt) {
+                    return where + "cloudlet " + head.rcl.getCloudletId() + (preempt ? " does not preempt " : " preempts ")
+                            + cloudlet.rcl.getCloudletId();
+                }
+            }
+        }
+        return null;
+    }
+}
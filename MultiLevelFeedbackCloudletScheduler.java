@@ -0,0 +1,243 @@
+package org.cloudbus.cloudsim.examples;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.core.CloudSim;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Multi-level feedback queue scheduler. Cloudlets enter the top level and drop a level each
+ * time they use up their level's quantum of CPU time, so short cloudlets finish in the upper
+ * levels with SJF-like latency while long ones sink, without any length being known up front.
+ * A waiting cloudlet takes the PE from a running one in a lower level, cloudlets within a level
+ * take turns, and the bottom level is round robin on its own quantum (first come first served
+ * if that quantum is infinite). A cloudlet keeps what it used of its allotment when a higher
+ * level preempts it. While anything sits below the top level, all cloudlets are boosted back
+ * to the top every boostPeriod seconds, so a steady stream of short work cannot starve long work.
+ *
+ * Every level is an ArrayDeque and a bitmap marks the non-empty ones, so the next cloudlet is
+ * one numberOfTrailingZeros away and queueing, dispatch and demotion are O(1); hence at most
+ * 64 levels. Quanta shorter than CloudSim.getMinTimeBetweenEvents() are stretched to it.
+ */
+public class MultiLevelFeedbackCloudletScheduler extends PreemptiveCloudletScheduler {
+
+    // Seconds of CPU time per level, doubling downwards; the bottom level takes 8 s turns
+    public static final double[] DEFAULT_QUANTA = {1, 2, 4, 8};
+    public static final double DEFAULT_BOOST_PERIOD = 100;
+
+    private final double[] quanta;
+    private final double boostPeriod;
+    private final ArrayDeque<QueuedResCloudlet>[] levels;
+    private long nonEmptyLevels; // bit l is set while level l has waiting cloudlets
+    private double nextBoost;
+    private long boosts;
+    private long demotions;
+
+    public MultiLevelFeedbackCloudletScheduler() {
+        this(DEFAULT_QUANTA, DEFAULT_BOOST_PERIOD);
+    }
+
+    /**
+     * A scheduler with one level per quantum, top level first; the bottom quantum may be
+     * infinite, and so may the boost period to never boost.
+     */
+    @SuppressWarnings("unchecked")
+    public MultiLevelFeedbackCloudletScheduler(double[] quanta, double boostPeriod) {
+        if (quanta.length == 0 || quanta.length > Long.SIZE) {
+            throw new IllegalArgumentException("Expected 1 to " + Long.SIZE + " levels: " + quanta.length);
+        }
+        for (double quantum : quanta) {
+            if (!(quantum > 0)) {
+                throw new IllegalArgumentException("Quanta must be positive: " + Arrays.toString(quanta));
+            }
+        }
+        if (!(boostPeriod > 0)) {
+            throw new IllegalArgumentException("Boost period must be positive: " + boostPeriod);
+        }
+        this.quanta = quanta.clone();
+        this.boostPeriod = boostPeriod;
+        this.nextBoost = boostPeriod;
+        this.levels = (ArrayDeque<QueuedResCloudlet>[]) new ArrayDeque<?>[quanta.length];
+        for (int level = 0; level < levels.length; level++) {
+            levels[level] = new ArrayDeque<>();
+        }
+    }
+
+    public int getLevelCount() {
+        return quanta.length;
+    }
+
+    public double getQuantum(int level) {
+        return quanta[level];
+    }
+
+    public double getBoostPeriod() {
+        return boostPeriod;
+    }
+
+    public long getBoostCount() {
+        return boosts;
+    }
+
+    // Number of levels cloudlets have dropped in total
+    public long getDemotionCount() {
+        return demotions;
+    }
+
+    public int getQueuedCount(int level) {
+        return levels[level].size();
+    }
+
+    @Override
+    public double updateVmProcessing(double currentTime, List<Double> mipsShare) {
+        boostIfDue(currentTime);
+        return super.updateVmProcessing(currentTime, mipsShare);
+    }
+
+    @Override
+    public double cloudletSubmit(Cloudlet cloudlet, double fileTransferTime) {
+        boostIfDue(CloudSim.clock());
+        return super.cloudletSubmit(cloudlet, fileTransferTime);
+    }
+
+    @Override
+    protected void enqueue(QueuedResCloudlet rcl, double currentTime) {
+        int level = rcl.getFeedbackLevel();
+        levels[level].addLast(rcl);
+        nonEmptyLevels |= 1L << level;
+    }
+
+    @Override
+    protected QueuedResCloudlet poll(double currentTime) {
+        if (nonEmptyLevels == 0) {
+            return null;
+        }
+        int level = Long.numberOfTrailingZeros(nonEmptyLevels);
+        QueuedResCloudlet rcl = levels[level].pollFirst();
+        if (levels[level].isEmpty()) {
+            nonEmptyLevels &= ~(1L << level);
+        }
+        return rcl;
+    }
+
+    @Override
+    protected QueuedResCloudlet peek() {
+        return nonEmptyLevels == 0 ? null : levels[Long.numberOfTrailingZeros(nonEmptyLevels)].peekFirst();
+    }
+
+    @Override
+    protected boolean removeQueued(QueuedResCloudlet rcl) {
+        int level = rcl.getFeedbackLevel();
+        boolean removed = levels[level].remove(rcl); // linear, only used on cancellation
+        if (levels[level].isEmpty()) {
+            nonEmptyLevels &= ~(1L << level);
+        }
+        return removed;
+    }
+
+    @Override
+    protected void onStart(QueuedResCloudlet rcl, double currentTime) {
+        // Whatever is left of the allotment at its level
+        rcl.setSliceEnd(currentTime + quanta[rcl.getFeedbackLevel()] - rcl.getLevelTimeUsed());
+    }
+
+    @Override
+    protected void onPreempt(QueuedResCloudlet rcl, double currentTime) {
+        int level = rcl.getFeedbackLevel();
+        double sliceEnd = rcl.getSliceEnd();
+        if (currentTime < sliceEnd) {
+            if (!Double.isInfinite(quanta[level])) {
+                rcl.setLevelTimeUsed(quanta[level] - (sliceEnd - currentTime));
+            }
+            return;
+        }
+
+        // A cloudlet running alone is not stopped at the end of its slice, so it may owe
+        // several levels by now
+        double overflow = currentTime - sliceEnd;
+        while (level < quanta.length - 1) {
+            level++;
+            demotions++;
+            if (overflow < quanta[level]) {
+                break;
+            }
+            overflow -= quanta[level];
+        }
+        rcl.setFeedbackLevel(level);
+        rcl.setLevelTimeUsed(overflow < quanta[level] ? overflow : overflow % quanta[level]);
+    }
+
+    @Override
+    protected double preemptionTime(QueuedResCloudlet rcl) {
+        if (nonEmptyLevels == 0) {
+            return Double.MAX_VALUE;
+        }
+        double time = demotionTime(rcl, Long.numberOfTrailingZeros(nonEmptyLevels));
+        return isAnyBelowTop() ? Math.min(time, nextBoost) : time;
+    }
+
+    @Override
+    protected boolean shouldPreempt(QueuedResCloudlet waiting, QueuedResCloudlet running) {
+        return shouldPreempt(waiting, running, CloudSim.clock());
+    }
+
+    boolean shouldPreempt(QueuedResCloudlet waiting, QueuedResCloudlet running, double currentTime) {
+        int level = waiting.getFeedbackLevel();
+        return level < running.getFeedbackLevel() || demotionTime(running, level) <= currentTime;
+    }
+
+    // When a running cloudlet, demoted as it uses up its allotments, reaches the tail of the
+    // given level, or ends its turn there if it already is at that level
+    private double demotionTime(QueuedResCloudlet rcl, int level) {
+        double time = rcl.getSliceEnd();
+        for (int below = rcl.getFeedbackLevel() + 1; below < level; below++) {
+            time += quanta[below];
+        }
+        return time;
+    }
+
+    private boolean isAnyBelowTop() {
+        if ((nonEmptyLevels & ~1L) != 0) {
+            return true;
+        }
+        for (QueuedResCloudlet rcl : this.<QueuedResCloudlet>getCloudletExecList()) {
+            if (rcl.getFeedbackLevel() > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Moves every cloudlet back to the top level with a fresh allotment, once per boost period
+    // counted from when something first sat below the top level
+    void boostIfDue(double currentTime) {
+        if (!isAnyBelowTop()) {
+            nextBoost = currentTime + boostPeriod;
+            return;
+        }
+        if (currentTime < nextBoost) {
+            return;
+        }
+        for (QueuedResCloudlet rcl : levels[0]) {
+            rcl.setLevelTimeUsed(0);
+        }
+        for (int level = 1; level < levels.length; level++) {
+            for (QueuedResCloudlet rcl : levels[level]) {
+                rcl.setFeedbackLevel(0);
+                rcl.setLevelTimeUsed(0);
+                levels[0].addLast(rcl);
+            }
+            levels[level].clear();
+        }
+        nonEmptyLevels = levels[0].isEmpty() ? 0 : 1;
+        for (QueuedResCloudlet rcl : this.<QueuedResCloudlet>getCloudletExecList()) {
+            rcl.setFeedbackLevel(0);
+            rcl.setLevelTimeUsed(0);
+            rcl.setSliceEnd(currentTime + quanta[0]);
+        }
+        nextBoost = currentTime + boostPeriod;
+        boosts++;
+    }
+}
@@ -0,0 +1,466 @@
+package org.cloudbus.cloudsim.examples;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.Datacenter;
+import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.Vm;
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.core.SimEntity;
+import org.cloudbus.cloudsim.core.SimEvent;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs one sweep point as a multi-region study: the VMs are spread over one datacenter per
+ * region, and every region is simulated by its own isolated CloudSim (a RegionWorker) on a
+ * pool of threads. Regions only interact through cloudlets issued in one region and run in
+ * another, which reach the other region latency seconds after they arrive.
+ *
+ * The regions are synchronized conservatively in windows. A region can only send at the
+ * arrival instants of its remote cloudlets, so no message can reach any region before the
+ * earliest next send plus the latency; every region handles its events before that horizon
+ * in parallel, and the messages sent meanwhile are delivered at the barrier, ordered by time
+ * and sending region, before any region takes an event of the horizon from its queue. The
+ * number of windows follows the number of sending instants, so light cross-region traffic
+ * leaves the regions running independently for long stretches. verify=true also runs the
+ * study unsplit on one CloudSim (runReference) and compares where and when every cloudlet
+ * ran, which tests the windows rather than just the thread count.
+ *
+ * Usage: ParallelSimulation [regions=16] [vms=64] [mips=1000:2000] [cloudlets=100000] [policy=FCFS]
+ *                           [quantum=100] [seed=42] [latency=0.05] [remote=0.01] [threads=0]
+ *                           [topology=auto|spec] [verify=false]
+ * threads=0 runs one thread per region, up to the number of cores. The topology is that of
+ * each region's datacenter; auto sizes one single-PE host per VM of the region.
+ */
+public class ParallelSimulation {
+
+    private static final String WORKER_CLASS = RegionWorker.class.getName();
+
+    // One region's private CloudSim, driven through RegionWorker's static methods
+    private static final class Region implements Closeable {
+        private final IsolatedWorker worker;
+        private final Method nextEventTime;
+        private final Method nextOutputTime;
+        private final Method advance;
+        private final Method deliver;
+        private final Method finish;
+
+        Region(URL[] classPath, String encodedPoint, int region, int regions, double latency, double remoteFraction) throws Exception {
+            worker = new IsolatedWorker(classPath, WORKER_CLASS);
+            nextEventTime = worker.method("nextEventTime");
+            nextOutputTime = worker.method("nextOutputTime");
+            advance = worker.method("advance", double.class);
+            deliver = worker.method("deliver", double[].class);
+            finish = worker.method("finish");
+            IsolatedWorker.invoke(worker.method("init", String.class, int.class, int.class, double.class, double.class),
+                    encodedPoint, region, regions, latency, remoteFraction);
+        }
+
+        double nextEventTime() throws Exception {
+            return (Double) IsolatedWorker.invoke(nextEventTime);
+        }
+
+        double nextOutputTime() throws Exception {
+            return (Double) IsolatedWorker.invoke(nextOutputTime);
+        }
+
+        double[] advance(double horizon) throws Exception {
+            return (double[]) IsolatedWorker.invoke(advance, horizon);
+        }
+
+        void deliver(double[] messages) throws Exception {
+            IsolatedWorker.invoke(deliver, (Object) messages);
+        }
+
+        Object[] finish() throws Exception {
+            return (Object[]) IsolatedWorker.invoke(finish);
+        }
+
+        @Override
+        public void close() throws IOException {
+            worker.close();
+        }
+    }
+
+    // Hands the cross-region cloudlets of runReference() over, in the order the windows deliver them
+    private static final class Router extends SimEntity {
+        private final double latency;
+        private final List<ArrivalAwareBroker> brokers;
+        private final List<CustomCloudlet> messages; // by arrival, then home region, then id
+        private final int[] destination;
+        private int next;
+
+        Router(String name, double latency, List<ArrivalAwareBroker> brokers, List<CustomCloudlet> messages, int[] destination) {
+            super(name);
+            this.latency = latency;
+            this.brokers = brokers;
+            this.messages = messages;
+            this.destination = destination;
+        }
+
+        @Override
+        public void startEntity() {
+            for (int i = 0; i < messages.size(); i++) {
+                if (i == 0 || messages.get(i).getArrivalTime() != messages.get(i - 1).getArrivalTime()) {
+                    schedule(getId(), messages.get(i).getArrivalTime(), SimulationTags.REGION_SEND);
+                }
+            }
+        }
+
+        @Override
+        public void processEvent(SimEvent ev) {
+            if (ev.getTag() != SimulationTags.REGION_SEND) {
+                return;
+            }
+            // One batch per region, like one delivery of the messages of an instant
+            List<List<Cloudlet>> batches = new ArrayList<>(brokers.size());
+            for (int r = 0; r < brokers.size(); r++) {
+                batches.add(new ArrayList<>());
+            }
+            double now = CloudSim.clock();
+            while (next < messages.size() && messages.get(next).getArrivalTime() <= now) {
+                CustomCloudlet cloudlet = messages.get(next);
+                batches.get(destination[cloudlet.getCloudletId()]).add(cloudlet);
+                next++;
+            }
+            for (int r = 0; r < brokers.size(); r++) {
+                if (!batches.get(r).isEmpty()) {
+                    send(brokers.get(r).getId(), latency, SimulationTags.CLOUDLET_ARRIVAL, batches.get(r));
+                }
+            }
+        }
+
+        @Override
+        public void shutdownEntity() {
+        }
+    }
+
+    // What a run did besides its metrics, and after keep(), where and when each cloudlet ran
+    static final class Stats {
+        long windows;
+        long messages;
+        // By cloudlet id; a VM id of -1 marks a cloudlet that did not finish
+        int[] vmId;
+        double[] start;
+        double[] finish;
+
+        void keep(int cloudlets) {
+            vmId = new int[cloudlets];
+            Arrays.fill(vmId, -1);
+            start = new double[cloudlets];
+            finish = new double[cloudlets];
+        }
+
+        void record(int id, int vm, double execStart, double finishTime) {
+            if (vmId != null) {
+                vmId[id] = vm;
+                start[id] = execStart;
+                finish[id] = finishTime;
+            }
+        }
+    }
+
+    public static void main(String[] args) {
+        try {
+            Map<String, String> options = new HashMap<>();
+            options.put("regions", "16");
+            options.put("vms", "64");
+            options.put("mips", "1000:2000");
+            options.put("cloudlets", "100000");
+            options.put("policy", "FCFS");
+            options.put("quantum", "100");
+            options.put("seed", "42");
+            options.put("latency", "0.05");
+            options.put("remote", "0.01");
+            options.put("threads", "0");
+            options.put("topology", SweepPoint.AUTO_TOPOLOGY);
+            options.put("verify", "false");
+            for (String arg : args) {
+                int eq = arg.indexOf('=');
+                if (eq < 0 || !options.containsKey(arg.substring(0, eq))) {
+                    throw new IllegalArgumentException("Expected key=value with key " + String.join(", ", options.keySet()) + ": " + arg);
+                }
+                options.put(arg.substring(0, eq), arg.substring(eq + 1).trim());
+            }
+
+            int regions = Integer.parseInt(options.get("regions"));
+            int vms = Integer.parseInt(options.get("vms"));
+            int[] mix = SweepPoint.parseMix(options.get("mips"));
+            String topology = options.get("topology");
+            if (SweepPoint.AUTO_TOPOLOGY.equals(topology)) {
+                int hosts = (vms + regions - 1) / Math.max(regions, 1);
+                topology = hosts + "x1x" + Arrays.stream(mix).max().getAsInt() + "x16384x10000";
+            }
+            SweepPoint point = new SweepPoint(vms, mix, Integer.parseInt(options.get("quantum")),
+                    Integer.parseInt(options.get("cloudlets")), options.get("policy"), Long.parseLong(options.get("seed")), topology);
+            double latency = Double.parseDouble(options.get("latency"));
+            double remote = Double.parseDouble(options.get("remote"));
+            int threads = Integer.parseInt(options.get("threads"));
+            if (threads <= 0) {
+                threads = Math.min(regions, Runtime.getRuntime().availableProcessors());
+            }
+
+            System.out.println("Simulating " + point + " in " + regions + " regions on " + threads + " threads");
+            boolean verify = Boolean.parseBoolean(options.get("verify"));
+            Stats stats = new Stats();
+            if (verify) {
+                stats.keep(point.getCloudletCount());
+            }
+            RunResult result = run(point, regions, latency, remote, threads, stats);
+            print(result, stats);
+            RunLedger ledger = RunLedger.fromSystemProperty();
+            ledger.record(result, "regions=" + regions + ";latency=" + latency + "s;remote=" + remote,
+                    point.toScenario().configHash(point.toTopology()));
+
+            if (verify) {
+                System.out.println("Rerunning on one CloudSim holding every region");
+                Stats referenceStats = new Stats();
+                referenceStats.keep(point.getCloudletCount());
+                RunResult reference = runReference(point, regions, latency, remote, referenceStats);
+                print(reference, referenceStats);
+                String difference = firstDifference(stats, referenceStats);
+                System.out.printf("Results %s, speedup %.2fx\n", difference == null ? "match for every cloudlet" : "DIFFER: " + difference,
+                        (double) reference.getWallTimeMillis() / Math.max(result.getWallTimeMillis(), 1));
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Simulates the point in the given number of regions on a pool of threads and returns the
+     * metrics over the cloudlets of all regions.
+     */
+    public static RunResult run(SweepPoint point, int regions, double latency, double remoteFraction, int threads, Stats stats) throws Exception {
+        checkRegions(point, regions, latency, remoteFraction);
+        long wallStart = System.nanoTime();
+        URL[] classPath = ParameterSweep.classPathUrls();
+        List<Region> workers = new ArrayList<>(regions);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Region>> created = new ArrayList<>(regions);
+            for (int r = 0; r < regions; r++) {
+                int region = r;
+                created.add(pool.submit(() -> new Region(classPath, point.encode(), region, regions, latency, remoteFraction)));
+            }
+            for (Future<Region> region : created) {
+                workers.add(region.get());
+            }
+
+            List<Future<double[]>> sent = new ArrayList<>(regions);
+            while (true) {
+                double next = Double.POSITIVE_INFINITY;
+                double horizon = Double.POSITIVE_INFINITY;
+                for (Region region : workers) {
+                    next = Math.min(next, region.nextEventTime());
+                    horizon = Math.min(horizon, region.nextOutputTime());
+                }
+                if (next == Double.POSITIVE_INFINITY) {
+                    break;
+                }
+
+                // Nothing sent from now on arrives before the horizon, so every region may run up to it
+                double windowEnd = horizon;
+                sent.clear();
+                for (Region region : workers) {
+                    sent.add(pool.submit(() -> region.advance(windowEnd)));
+                }
+                List<double[]> messages = new ArrayList<>(regions);
+                for (Future<double[]> outbox : sent) {
+                    messages.add(outbox.get());
+                }
+                stats.windows++;
+                stats.messages += deliver(messages, workers);
+            }
+
+            MetricsAccumulator metrics = new MetricsAccumulator(point.toScenario()::getVmMips);
+            for (Region region : workers) {
+                Object[] columns = region.finish();
+                long[] arrival = (long[]) columns[0];
+                double[] start = (double[]) columns[1];
+                double[] finish = (double[]) columns[2];
+                long[] length = (long[]) columns[3];
+                int[] vmId = (int[]) columns[4];
+                int[] id = (int[]) columns[5];
+                for (int i = 0; i < arrival.length; i++) {
+                    metrics.accept(arrival[i], start[i], finish[i], length[i], vmId[i]);
+                    stats.record(id[i], vmId[i], start[i], finish[i]);
+                }
+            }
+            return RunResult.of(point.getPolicy(), metrics, (System.nanoTime() - wallStart) / 1_000_000);
+        } finally {
+            pool.shutdownNow();
+            for (Region region : workers) {
+                region.close();
+            }
+        }
+    }
+
+    /**
+     * Simulates the same study as run() without splitting it: one CloudSim holds the
+     * datacenter and broker of every region, and a Router hands each cross-region cloudlet to
+     * the broker of the region that runs it latency seconds after it arrives. Stats count the
+     * whole run as one window.
+     */
+    public static RunResult runReference(SweepPoint point, int regions, double latency, double remoteFraction, Stats stats) throws Exception {
+        checkRegions(point, regions, latency, remoteFraction);
+        long wallStart = System.nanoTime();
+        Log.disable();
+        LadderFutureQueue.init(1, null, false);
+        SimulationMonitor.get().setLabel("reference " + regions + " regions " + point.encode());
+
+        List<ArrivalAwareBroker> brokers = new ArrayList<>(regions);
+        List<CustomCloudlet> messages = new ArrayList<>();
+        int[] destination = null;
+        int[] issuedBy = null;
+        // Built region by region as RegionWorker.init does, so entities and draws come out the same
+        for (int region = 0; region < regions; region++) {
+            SchedulingPolicy policy = SchedulingPolicies.defaults(point.getQuantumMs() / 1000.0).get(point.getPolicy());
+            if (policy == null) {
+                throw new IllegalArgumentException("Unknown policy: " + point.getPolicy());
+            }
+            Datacenter datacenter = PolicyRunner.createDatacenter("Datacenter_" + region, point.toTopology());
+            ArrivalAwareBroker broker = new ArrivalAwareBroker("Broker_" + region);
+            broker.setDatacenterId(datacenter.getId());
+            brokers.add(broker);
+
+            Scenario scenario = point.toScenario();
+            List<Vm> vms = scenario.createVms(broker.getId(), policy);
+            List<CustomCloudlet> cloudlets = scenario.createCloudlets(broker.getId());
+            int[][] placement = RegionWorker.place(policy, cloudlets, vms, regions, remoteFraction, point.getSeed());
+            int[] runs = placement[0];
+            int[] home = placement[1];
+            // Every region draws the same placement
+            destination = runs;
+            issuedBy = home;
+
+            List<Vm> localVms = new ArrayList<>();
+            for (Vm vm : vms) {
+                if (vm.getId() % regions == region) {
+                    localVms.add(vm);
+                }
+            }
+            List<CustomCloudlet> local = new ArrayList<>();
+            int inbound = 0;
+            for (CustomCloudlet cloudlet : cloudlets) {
+                int id = cloudlet.getCloudletId();
+                if (runs[id] == region && home[id] == region) {
+                    local.add(cloudlet);
+                } else if (runs[id] == region) {
+                    // The copy owned by the region that runs it, as in the parallel run
+                    messages.add(cloudlet);
+                    inbound++;
+                }
+            }
+            broker.submitVmList(localVms);
+            broker.submitCloudletList(local);
+            broker.expectCloudlets(inbound);
+        }
+
+        // Within an instant deliver() merges the outboxes in region order, each sorted by id
+        int[] home = issuedBy;
+        messages.sort((a, b) -> a.getArrivalTime() != b.getArrivalTime() ? Long.compare(a.getArrivalTime(), b.getArrivalTime())
+                : home[a.getCloudletId()] != home[b.getCloudletId()] ? Integer.compare(home[a.getCloudletId()], home[b.getCloudletId()])
+                : Integer.compare(a.getCloudletId(), b.getCloudletId()));
+        new Router("Router", latency, brokers, messages, destination);
+
+        CloudSim.startSimulation();
+        MetricsAccumulator metrics = new MetricsAccumulator(point.toScenario()::getVmMips);
+        for (ArrivalAwareBroker broker : brokers) {
+            for (Cloudlet cloudlet : broker.getCloudletReceivedList()) {
+                metrics.accept(cloudlet);
+                stats.record(cloudlet.getCloudletId(), cloudlet.getVmId(), cloudlet.getExecStartTime(), cloudlet.getFinishTime());
+            }
+        }
+        CloudSim.stopSimulation();
+        stats.windows++;
+        stats.messages += messages.size();
+        return RunResult.of(point.getPolicy(), metrics, (System.nanoTime() - wallStart) / 1_000_000);
+    }
+
+    private static void checkRegions(SweepPoint point, int regions, double latency, double remoteFraction) {
+        if (regions <= 0 || regions > point.getVmCount()) {
+            throw new IllegalArgumentException("Need between 1 and " + point.getVmCount() + " regions, one VM each at least: " + regions);
+        }
+        if (regions > 1 && remoteFraction > 0 && !(latency > 0)) {
+            throw new IllegalArgumentException("Cross-region traffic needs a positive latency, it is the lookahead: " + latency);
+        }
+    }
+
+    // Hands every region its messages ordered by time, then by sending region; returns the count
+    private static long deliver(List<double[]> outboxes, List<Region> workers) throws Exception {
+        int total = 0;
+        for (double[] outbox : outboxes) {
+            total += outbox.length / 3;
+        }
+        if (total == 0) {
+            return 0;
+        }
+        // Each outbox is in time order already; a stable sort of their concatenation keeps regions in order
+        Integer[] order = new Integer[total];
+        double[] all = new double[total * 3];
+        int offset = 0;
+        for (double[] outbox : outboxes) {
+            System.arraycopy(outbox, 0, all, offset, outbox.length);
+            offset += outbox.length;
+        }
+        for (int i = 0; i < total; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(all[a * 3], all[b * 3]));
+
+        int[] counts = new int[workers.size()];
+        for (int i = 0; i < total; i++) {
+            counts[(int) all[i * 3 + 1]]++;
+        }
+        double[][] inboxes = new double[workers.size()][];
+        for (int r = 0; r < inboxes.length; r++) {
+            inboxes[r] = new double[counts[r] * 3];
+            counts[r] = 0;
+        }
+        for (int i : order) {
+            int r = (int) all[i * 3 + 1];
+            System.arraycopy(all, i * 3, inboxes[r], counts[r]++ * 3, 3);
+        }
+        for (int r = 0; r < inboxes.length; r++) {
+            if (inboxes[r].length > 0) {
+                workers.get(r).deliver(inboxes[r]);
+            }
+        }
+        return total;
+    }
+
+    // The first cloudlet, by id, that ran on another VM or at other times in the two runs; null if none
+    static String firstDifference(Stats a, Stats b) {
+        for (int id = 0; id < a.vmId.length; id++) {
+            if (a.vmId[id] != b.vmId[id] || a.start[id] != b.start[id] || a.finish[id] != b.finish[id]) {
+                return String.format("cloudlet %d ran %s in the regions, %s in the reference", id,
+                        describe(a, id), describe(b, id));
+            }
+        }
+        return null;
+    }
+
+    private static String describe(Stats stats, int id) {
+        return stats.vmId[id] == -1 ? "not at all"
+                : String.format("on VM %d from %.6f to %.6f", stats.vmId[id], stats.start[id], stats.finish[id]);
+    }
+
+    private static void print(RunResult result, Stats stats) {
+        System.out.printf("%s: %d cloudlets, makespan %.2f, avg wait %.2f, p99 wait %.2f, avg turnaround %.2f; "
+                        + "%d windows, %d cross-region cloudlets, %d ms\n",
+                result.getPolicyName(), result.getCloudletCount(), result.getMakeSpan(), result.getAvgWaitTime(),
+                result.getP99WaitTime(), result.getAvgTurnaroundTime(), stats.windows, stats.messages, result.getWallTimeMillis());
+    }
+}
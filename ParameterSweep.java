@@ -0,0 +1,231 @@
+package org.cloudbus.cloudsim.examples;
+
+import java.io.*;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Runs a grid of simulations concurrently. CloudSim keeps its state in statics, so every
+ * worker thread owns an isolated copy of it: a private class loader over the application
+ * class path (default), or a forked worker JVM (-Dcloudsim.sweep.isolation=fork). Points
+ * are queued on a fixed pool of -Dcloudsim.sweep.threads workers (all cores by default) and
+ * each result is printed and appended to sweep_results.csv as soon as it is in. Every run is
+ * also recorded in the run ledger.
+ *
+ * Usage: ParameterSweep [vms=2,4,8] [mips=1000,1000:2000] [quantum=50,100] [cloudlets=1000,10000]
+ *                       [policy=FCFS,SJF,...] [seed=42,43] [topology=auto|spec]
+ * A mips entry is a colon separated mix the VMs cycle through. The quantum only applies to
+ * Round Robin, so other policies are run once per remaining grid point.
+ */
+public class ParameterSweep {
+
+    private static final String WORKER_CLASS = SweepWorker.class.getName();
+
+    // A private CloudSim that runs one point at a time
+    private interface Worker extends Closeable {
+        String run(String encodedPoint) throws Exception;
+    }
+
+    private static final class ClassLoaderWorker implements Worker {
+        private final IsolatedWorker worker;
+        private final Method run;
+
+        ClassLoaderWorker(URL[] classPath) throws Exception {
+            worker = new IsolatedWorker(classPath, WORKER_CLASS);
+            run = worker.method("run", String.class);
+        }
+
+        @Override
+        public String run(String encodedPoint) throws Exception {
+            return (String) IsolatedWorker.invoke(run, encodedPoint);
+        }
+
+        @Override
+        public void close() throws IOException {
+            worker.close();
+        }
+    }
+
+    private static final class ForkedWorker implements Worker {
+        private final Process process;
+        private final BufferedWriter toWorker;
+        private final BufferedReader fromWorker;
+
+        ForkedWorker() throws IOException {
+            String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+            String ledger = System.getProperty("cloudsim.ledger", RunLedger.DEFAULT_PATH);
+            process = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"), "-Dcloudsim.ledger=" + ledger, WORKER_CLASS)
+                    .redirectError(ProcessBuilder.Redirect.INHERIT)
+                    .start();
+            toWorker = new BufferedWriter(new OutputStreamWriter(process.getOutputStream()));
+            fromWorker = new BufferedReader(new InputStreamReader(process.getInputStream()));
+        }
+
+        @Override
+        public String run(String encodedPoint) throws Exception {
+            toWorker.write(encodedPoint);
+            toWorker.newLine();
+            toWorker.flush();
+            String line;
+            while ((line = fromWorker.readLine()) != null) {
+                if (line.startsWith(SweepWorker.RESULT_PREFIX)) {
+                    return line.substring(SweepWorker.RESULT_PREFIX.length());
+                }
+                if (line.startsWith(SweepWorker.ERROR_PREFIX)) {
+                    throw new IllegalStateException(line.substring(SweepWorker.ERROR_PREFIX.length()));
+                }
+            }
+            throw new IOException("Sweep worker exited with status " + process.waitFor());
+        }
+
+        @Override
+        public void close() throws IOException {
+            toWorker.close();
+            process.destroy();
+        }
+    }
+
+    public static void main(String[] args) {
+        try {
+            List<SweepPoint> points = parseGrid(args);
+            int threads = Integer.getInteger("cloudsim.sweep.threads", Runtime.getRuntime().availableProcessors());
+            boolean fork = "fork".equalsIgnoreCase(System.getProperty("cloudsim.sweep.isolation"));
+            System.out.println("Sweeping " + points.size() + " points on " + threads + " "
+                    + (fork ? "forked JVMs" : "isolated class loaders"));
+            sweep(points, threads, fork, "sweep_results.csv");
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    static List<SweepPoint> parseGrid(String[] args) {
+        Map<String, String> grid = new HashMap<>();
+        grid.put("vms", "4");
+        grid.put("mips", "1000");
+        grid.put("quantum", "100");
+        grid.put("cloudlets", "1000");
+        grid.put("seed", "42");
+        grid.put("topology", SweepPoint.AUTO_TOPOLOGY);
+        StringJoiner allPolicies = new StringJoiner(",");
+        for (SchedulingPolicy policy : SchedulingPolicies.defaults(0.1).all()) {
+            allPolicies.add(policy.getName());
+        }
+        grid.put("policy", allPolicies.toString());
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq < 0 || !grid.containsKey(arg.substring(0, eq))) {
+                throw new IllegalArgumentException("Expected key=value[,value...] with key vms, mips, quantum, cloudlets, policy, seed or topology: " + arg);
+            }
+            grid.put(arg.substring(0, eq), arg.substring(eq + 1));
+        }
+
+        SchedulingPolicies known = SchedulingPolicies.defaults(0.1);
+        String[] policies = grid.get("policy").split(",");
+        for (String policy : policies) {
+            if (known.get(policy.trim()) == null) {
+                throw new IllegalArgumentException("Unknown policy: " + policy.trim());
+            }
+        }
+        String[] quanta = grid.get("quantum").split(",");
+        String topology = grid.get("topology").trim(); // a single spec, its commas separate host groups
+
+        List<SweepPoint> points = new ArrayList<>();
+        for (String vms : grid.get("vms").split(",")) {
+            for (String mix : grid.get("mips").split(",")) {
+                for (String cloudlets : grid.get("cloudlets").split(",")) {
+                    for (String seed : grid.get("seed").split(",")) {
+                        for (String policy : policies) {
+                            boolean usesQuantum = policy.trim().equals("Round Robin");
+                            for (String quantum : usesQuantum ? quanta : new String[]{quanta[0]}) {
+                                points.add(new SweepPoint(Integer.parseInt(vms.trim()), SweepPoint.parseMix(mix),
+                                        Integer.parseInt(quantum.trim()), Integer.parseInt(cloudlets.trim()),
+                                        policy.trim(), Long.parseLong(seed.trim()), topology));
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return points;
+    }
+
+    /**
+     * Runs the points on a bounded pool and streams one row per point into the CSV file
+     * (rewritten per sweep) in completion order. Returns once every point has finished.
+     */
+    static void sweep(List<SweepPoint> points, int threads, boolean fork, String filePath) throws Exception {
+        URL[] classPath = classPathUrls();
+        List<Worker> workers = Collections.synchronizedList(new ArrayList<>());
+        ThreadLocal<Worker> workerOfThread = new ThreadLocal<>();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(filePath))) {
+            String header = "VMs, MIPS Mix, Quantum (ms), Cloudlets, Policy, Seed, " + SweepWorker.RESULT_HEADER;
+            writer.write(header + "\n");
+            System.out.println(header);
+            Object outputLock = new Object();
+
+            List<Future<?>> futures = new ArrayList<>(points.size());
+            for (SweepPoint point : points) {
+                futures.add(pool.submit(() -> {
+                    String row;
+                    try {
+                        Worker worker = workerOfThread.get();
+                        if (worker == null) {
+                            worker = fork ? new ForkedWorker() : new ClassLoaderWorker(classPath);
+                            workers.add(worker);
+                            workerOfThread.set(worker);
+                        }
+                        try {
+                            row = worker.run(point.encode());
+                        } catch (Exception e) {
+                            // The worker's CloudSim may be left mid-run, the next point gets a fresh one
+                            workerOfThread.remove();
+                            workers.remove(worker);
+                            worker.close();
+                            throw e;
+                        }
+                    } catch (Exception e) {
+                        row = failedRow(e);
+                    }
+                    String line = String.format("%d, %s, %d, %d, %s, %d, %s", point.getVmCount(), point.getMixString(),
+                            point.getQuantumMs(), point.getCloudletCount(), point.getPolicy(), point.getSeed(), row);
+                    synchronized (outputLock) {
+                        System.out.println(line);
+                        writer.write(line + "\n");
+                        writer.flush();
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            System.out.println("Sweep results saved to " + filePath);
+        } finally {
+            pool.shutdownNow();
+            synchronized (workers) {
+                for (Worker worker : workers) {
+                    worker.close();
+                }
+            }
+        }
+    }
+
+    // A failure as one quoted CSV field; exception messages often hold commas and line breaks
+    static String failedRow(Exception e) {
+        return "\"FAILED: " + e.toString().replaceAll("\\s*[\\r\\n]+\\s*", " ").replace("\"", "\"\"") + "\"";
+    }
+
+    static URL[] classPathUrls() throws IOException {
+        String[] entries = System.getProperty("java.class.path").split(File.pathSeparator);
+        URL[] urls = new URL[entries.length];
+        for (int i = 0; i < entries.length; i++) {
+            urls[i] = Paths.get(entries[i]).toUri().toURL();
+        }
+        return urls;
+    }
+}
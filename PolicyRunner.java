@@ -0,0 +1,209 @@
+package org.cloudbus.cloudsim.examples;
+
+import org.cloudbus.cloudsim.*;
+import org.cloudbus.cloudsim.core.CloudSim;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Replays one scenario through every registered scheduling policy inside a single JVM and
+ * prints one comparison table, instead of launching each runner separately and typing the
+ * same workload in again.
+ *
+ * Usage: PolicyRunner [tracePath [maxRecords]]. VMs and the Round Robin quantum are read from
+ * stdin, cloudlets from the trace or stdin. -Dcloudsim.policies=FCFS,SJF,... restricts the
+ * run to a subset and -Dcloudsim.binding adds a binder-based variant of every policy.
+ * -Dcloudsim.table=true runs the workload from a CloudletTable instead of cloudlet objects.
+ * -Dcloudsim.workload=<spec> streams the cloudlets from a WorkloadGenerator instead, so only the
+ * VMs are read; every policy replays the same generated workload.
+ * -Dcloudsim.metaheuristics=GA,PSO,ACO adds schedules searched by MetaheuristicScheduler, within
+ * -Dcloudsim.metaheuristic.budget ms each.
+ */
+public class PolicyRunner {
+
+    public static void main(String[] args) {
+        try {
+            Scanner scanner = new Scanner(System.in);
+            System.out.println("Enter quantum time (in ms): ");
+            double quantumMs = scanner.nextDouble();
+            double quantum = quantumMs / 1000.0;
+            WorkloadGenerator workload = WorkloadGenerator.fromSystemProperty();
+            Scenario scenario = workload == null ? Scenario.read(args, scanner) : Scenario.readVms(scanner);
+
+            SchedulingPolicies registry = SchedulingPolicies.defaults(quantum);
+            List<SchedulingPolicy> policies = selectPolicies(registry);
+
+            // CloudSim logs every event; with several full runs that dominates the output
+            Log.disable();
+            TopologyBuilder topology = TopologyBuilder.fromSystemProperty();
+            String configHash = workload == null ? scenario.configHash(topology) : scenario.configHash(topology, workload);
+            RunLedger ledger = RunLedger.fromSystemProperty();
+            List<RunResult> results = new ArrayList<>();
+            SimulationMonitor monitor = SimulationMonitor.get();
+            for (SchedulingPolicy policy : policies) {
+                monitor.setLabel(policy.getName());
+                RunResult result = run(scenario, policy, topology);
+                if (monitor.wasStopped()) {
+                    System.out.println(policy.getName() + " was stopped over JMX, its results are partial");
+                }
+                String parameters = policy.getName().startsWith("Round Robin") ? "quantum=" + quantumMs + "ms" : "";
+                if (policy instanceof MetaheuristicScheduler) {
+                    MetaheuristicScheduler scheduler = (MetaheuristicScheduler) policy;
+                    System.out.printf("%s: %d iterations, %d schedules evaluated, predicted makespan %.2f\n", policy.getName(),
+                            scheduler.getIterations(), scheduler.getEvaluations(), scheduler.getBestMakeSpan());
+                    parameters = "budget=" + scheduler.getBudgetMillis() + "ms";
+                }
+                ledger.record(result, RunLedger.markIfStopped(parameters), configHash);
+                results.add(result);
+            }
+            Log.enable();
+            System.out.println(results.size() + " runs of config " + configHash + " recorded in " + ledger.getPath());
+
+            printReport(workload == null ? scenario.toString() : scenario + " streaming " + workload, results);
+            saveReportToCSV(results, "policy_comparison.csv");
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    private static List<SchedulingPolicy> selectPolicies(SchedulingPolicies registry) {
+        List<SchedulingPolicy> policies = new ArrayList<>();
+        String names = System.getProperty("cloudsim.policies");
+        if (names == null || names.trim().isEmpty()) {
+            policies.addAll(registry.all());
+        } else {
+            for (String name : names.split(",")) {
+                SchedulingPolicy policy = registry.get(name.trim());
+                if (policy == null) {
+                    throw new IllegalArgumentException("Unknown policy: " + name.trim());
+                }
+                policies.add(policy);
+            }
+        }
+
+        CloudletBinder binder = HeuristicCloudletBinder.fromSystemProperty();
+        if (binder != null) {
+            String suffix = " + " + System.getProperty("cloudsim.binding").trim().toUpperCase();
+            int count = policies.size();
+            for (int i = 0; i < count; i++) {
+                SchedulingPolicy policy = policies.get(i);
+                policies.add(SchedulingPolicies.withBinding(policy, binder, policy.getName() + suffix));
+            }
+        }
+        // Added after the binder variants, as a binder would overwrite the searched binding
+        policies.addAll(MetaheuristicScheduler.fromSystemProperty());
+        return policies;
+    }
+
+    /**
+     * Runs the scenario under one policy on a freshly initialized CloudSim. CloudSim keeps its
+     * state in statics, so runs in one JVM must happen one after the other.
+     */
+    public static RunResult run(Scenario scenario, SchedulingPolicy policy) throws Exception {
+        return run(scenario, policy, TopologyBuilder.fromSystemProperty());
+    }
+
+    public static RunResult run(Scenario scenario, SchedulingPolicy policy, TopologyBuilder topology) throws Exception {
+        long wallStart = System.nanoTime();
+        LadderFutureQueue.init(1, null, false);
+
+        createDatacenter("Datacenter_0", topology);
+        ArrivalAwareBroker broker = new ArrivalAwareBroker("Broker_0");
+        int brokerId = broker.getId();
+
+        List<Vm> vmlist = scenario.createVms(brokerId, policy);
+        broker.submitVmList(vmlist);
+        MetricsAccumulator metrics = new MetricsAccumulator(scenario::getVmMips);
+
+        // -Dcloudsim.workload streams generated cloudlets; results go straight into the metrics
+        WorkloadGenerator workload = WorkloadGenerator.fromSystemProperty();
+        if (workload != null) {
+            broker.submitWorkload(workload, metrics::accept);
+            CloudSim.startSimulation();
+            CloudSim.stopSimulation();
+        } else if (Boolean.getBoolean("cloudsim.table")) {
+            // -Dcloudsim.table=true keeps the workload in a CloudletTable, for runs too large for cloudlet objects
+            CloudletTable table = scenario.createTable();
+            broker.submitCloudletTable(table, policy.prepare(table, vmlist));
+            CloudSim.startSimulation();
+            CloudSim.stopSimulation();
+            metrics.accept(table);
+        } else {
+            List<CustomCloudlet> cloudletList = scenario.createCloudlets(brokerId);
+            policy.prepare(cloudletList, vmlist);
+            broker.submitCloudletList(cloudletList);
+            CloudSim.startSimulation();
+            List<Cloudlet> finishedCloudlets = broker.getCloudletReceivedList();
+            CloudSim.stopSimulation();
+            for (Cloudlet cloudlet : finishedCloudlets) {
+                metrics.accept(cloudlet);
+            }
+        }
+        return RunResult.of(policy.getName(), metrics, (System.nanoTime() - wallStart) / 1_000_000);
+    }
+
+    private static void printReport(String scenario, List<RunResult> results) {
+        System.out.println("\nPolicy comparison for " + scenario + ":");
+        System.out.printf("%-24s | %-10s | %-10s | %-13s | %-13s | %-17s | %-19s | %-9s | %-9s\n",
+                "Algorithm", "MakeSpan", "Throughput", "Avg Wait Time", "P99 Wait Time", "Avg Response Time",
+                "Avg Turnaround Time", "Cloudlets", "Wall (ms)");
+        for (RunResult result : results) {
+            System.out.printf("%-24s | %-10.2f | %-10.4f | %-13.2f | %-13.2f | %-17.2f | %-19.2f | %-9d | %-9d\n",
+                    result.getPolicyName(),
+                    result.getMakeSpan(),
+                    result.getThroughput(),
+                    result.getAvgWaitTime(),
+                    result.getP99WaitTime(),
+                    result.getAvgResponseTime(),
+                    result.getAvgTurnaroundTime(),
+                    result.getCloudletCount(),
+                    result.getWallTimeMillis());
+        }
+    }
+
+    private static void saveReportToCSV(List<RunResult> results, String filePath) {
+        // One report per invocation, so the file is rewritten rather than appended to
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(filePath))) {
+            writer.write("Algorithm Name, MakeSpan, Throughput, Avg Wait Time, Avg Response Time, Avg Turnaround Time, "
+                    + "P50 Wait Time, P90 Wait Time, P99 Wait Time, Max Wait Time, Cloudlet Count, Wall Time (ms)\n");
+            for (RunResult result : results) {
+                writer.write(String.format("%s, %.2f, %.2f, %.2f, %.2f, %.2f, %.2f, %.2f, %.2f, %.2f, %d, %d\n",
+                        result.getPolicyName(),
+                        result.getMakeSpan(),
+                        result.getThroughput(),
+                        result.getAvgWaitTime(),
+                        result.getAvgResponseTime(),
+                        result.getAvgTurnaroundTime(),
+                        result.getP50WaitTime(),
+                        result.getP90WaitTime(),
+                        result.getP99WaitTime(),
+                        result.getMaxWaitTime(),
+                        result.getCloudletCount(),
+                        result.getWallTimeMillis()));
+            }
+            System.out.println("Policy comparison saved to " + filePath);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    // The datacenter of every runner: the topology's hosts behind a capacity-indexed allocation policy
+    static Datacenter createDatacenter(String name, TopologyBuilder topology) throws Exception {
+        List<Host> hostList = topology.buildHosts();
+
+        String arch = "x86"; //architecture of physical hardware
+        String os = "Linux";
+        String vmm = "Xen"; //VMM
+        double timeZone = 5.5;
+        double cost = 3.0;
+        double costPerMem = 0.05;
+        double costPerStorage = 0.001;
+        double costPerBw = 0.0;
+
+        DatacenterCharacteristics characteristics = new DatacenterCharacteristics(arch, os, vmm, hostList, timeZone, cost, costPerMem, costPerStorage, costPerBw);
+        return new ProfiledDatacenter(name, characteristics, new CapacityIndexedVmAllocationPolicy(hostList), new LinkedList<>(), 0);
+    }
+}
@@ -0,0 +1,275 @@
+package org.cloudbus.cloudsim.examples;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.CloudletSchedulerSpaceShared;
+import org.cloudbus.cloudsim.Consts;
+import org.cloudbus.cloudsim.ResCloudlet;
+import org.cloudbus.cloudsim.core.CloudSim;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Space-shared scheduler whose waiting cloudlets live in a policy specific ready queue and
+ * whose running cloudlets can be taken off their PE again.
+ *
+ * Subclasses only decide the queue order and when a running cloudlet has to give up its PE.
+ * Preemption is driven by simulation events: the next slice expiry is reported from
+ * updateVmProcessing() together with the next completion, so the datacenter wakes the VM up
+ * exactly when a switch is due. Note that the datacenter never processes a VM twice within
+ * CloudSim.getMinTimeBetweenEvents(), so shorter slices are stretched to that granularity.
+ * Starts and preemptions are reported to SimulationEvents.
+ */
+public abstract class PreemptiveCloudletScheduler extends CloudletSchedulerSpaceShared {
+
+    // Queued cloudlets by id, for status queries and cancellation
+    private final Map<Integer, QueuedResCloudlet> queuedById = new HashMap<>();
+
+    private double capacity; // MIPS of one PE
+    private long preemptions;
+
+    // Adds a cloudlet to the ready queue
+    protected abstract void enqueue(QueuedResCloudlet rcl, double currentTime);
+
+    // Removes and returns the cloudlet to run next
+    protected abstract QueuedResCloudlet poll(double currentTime);
+
+    // Returns the cloudlet to run next without removing it
+    protected abstract QueuedResCloudlet peek();
+
+    // Removes a specific cloudlet from the ready queue
+    protected abstract boolean removeQueued(QueuedResCloudlet rcl);
+
+    // Called when a cloudlet gets a PE
+    protected void onStart(QueuedResCloudlet rcl, double currentTime) {
+    }
+
+    // Called when a running cloudlet is taken off its PE, before it is queued again
+    protected void onPreempt(QueuedResCloudlet rcl, double currentTime) {
+    }
+
+    // Absolute time at which a running cloudlet has to give its PE to a waiting one
+    protected double preemptionTime(QueuedResCloudlet rcl) {
+        return Double.MAX_VALUE;
+    }
+
+    // Whether the head of the ready queue should take the PE of the given running cloudlet
+    protected boolean shouldPreempt(QueuedResCloudlet waiting, QueuedResCloudlet running) {
+        return false;
+    }
+
+    @Override
+    public double updateVmProcessing(double currentTime, List<Double> mipsShare) {
+        setCurrentMipsShare(mipsShare);
+        updateCapacity(mipsShare);
+        advance(currentTime);
+
+        List<QueuedResCloudlet> execList = getCloudletExecList();
+        if (execList.isEmpty() && queuedById.isEmpty()) {
+            return 0.0;
+        }
+
+        // Finished cloudlets release their PEs
+        for (Iterator<QueuedResCloudlet> it = execList.iterator(); it.hasNext(); ) {
+            QueuedResCloudlet rcl = it.next();
+            if (rcl.getRemainingCloudletLength() == 0) {
+                it.remove();
+                cloudletFinish(rcl);
+            }
+        }
+
+        // Expired slices only cost a switch when someone is actually waiting
+        if (!queuedById.isEmpty()) {
+            List<QueuedResCloudlet> expired = new ArrayList<>();
+            for (QueuedResCloudlet rcl : execList) {
+                if (preemptionTime(rcl) <= currentTime) {
+                    expired.add(rcl);
+                }
+            }
+            for (QueuedResCloudlet rcl : expired) {
+                preempt(rcl, currentTime);
+            }
+        }
+
+        dispatch(currentTime);
+        preemptWaiting(currentTime);
+        return nextEventTime(currentTime);
+    }
+
+    @Override
+    public double cloudletSubmit(Cloudlet cloudlet, double fileTransferTime) {
+        double now = CloudSim.clock();
+        updateCapacity(getCurrentMipsShare());
+        advance(now); // running cloudlets must be up to date before they are compared
+
+        // File transfer is charged as extra length, like CloudletSchedulerSpaceShared does
+        cloudlet.setCloudletLength(cloudlet.getCloudletLength() + (long) (capacity * fileTransferTime));
+
+        QueuedResCloudlet rcl = new QueuedResCloudlet(cloudlet);
+        rcl.setCloudletStatus(Cloudlet.QUEUED);
+        queue(rcl, now);
+
+        dispatch(now);
+        preemptWaiting(now);
+
+        double next = nextEventTime(now);
+        return next == 0.0 || next == Double.MAX_VALUE ? 0.0 : next - now;
+    }
+
+    @Override
+    public double cloudletSubmit(Cloudlet cloudlet) {
+        return cloudletSubmit(cloudlet, 0.0);
+    }
+
+    @Override
+    public void cloudletFinish(ResCloudlet rcl) {
+        super.cloudletFinish(rcl);
+        ((QueuedResCloudlet) rcl).syncRemainingLength();
+    }
+
+    @Override
+    public Cloudlet cloudletCancel(int cloudletId) {
+        QueuedResCloudlet rcl = queuedById.remove(cloudletId);
+        if (rcl == null) {
+            return super.cloudletCancel(cloudletId);
+        }
+        removeQueued(rcl);
+        rcl.setCloudletStatus(Cloudlet.CANCELED);
+        return rcl.getCloudlet();
+    }
+
+    @Override
+    public int getCloudletStatus(int cloudletId) {
+        QueuedResCloudlet rcl = queuedById.get(cloudletId);
+        return rcl != null ? rcl.getCloudletStatus() : super.getCloudletStatus(cloudletId);
+    }
+
+    // Number of cloudlets waiting in the ready queue
+    public int getQueuedCount() {
+        return queuedById.size();
+    }
+
+    // Number of times a running cloudlet was taken off its PE
+    public long getPreemptionCount() {
+        return preemptions;
+    }
+
+    // MIPS of one PE as of the last update
+    protected double getCapacity() {
+        return capacity;
+    }
+
+    // Queued cloudlet with the given id, or null when it is running, finished or unknown
+    protected QueuedResCloudlet getQueued(int cloudletId) {
+        return queuedById.get(cloudletId);
+    }
+
+    private void queue(QueuedResCloudlet rcl, double currentTime) {
+        rcl.setQueuedSince(currentTime);
+        queuedById.put(rcl.getCloudletId(), rcl);
+        enqueue(rcl, currentTime);
+    }
+
+    // Hands free PEs to queued cloudlets
+    private void dispatch(double currentTime) {
+        while (!queuedById.isEmpty() && currentCpus - usedPes >= peek().getNumberOfPes()) {
+            QueuedResCloudlet rcl = poll(currentTime);
+            queuedById.remove(rcl.getCloudletId());
+            start(rcl, currentTime);
+        }
+    }
+
+    // Lets the head of the queue take over a PE when the policy says so
+    private void preemptWaiting(double currentTime) {
+        int switches = getCloudletExecList().size();
+        while (!queuedById.isEmpty() && switches-- > 0) {
+            QueuedResCloudlet head = peek();
+            QueuedResCloudlet victim = null;
+            for (QueuedResCloudlet running : this.<QueuedResCloudlet>getCloudletExecList()) {
+                if (shouldPreempt(head, running)) {
+                    victim = running;
+                    break;
+                }
+            }
+            if (victim == null) {
+                return;
+            }
+            preempt(victim, currentTime);
+            dispatch(currentTime);
+        }
+    }
+
+    private void start(QueuedResCloudlet rcl, double currentTime) {
+        rcl.setCloudletStatus(Cloudlet.INEXEC);
+        SimulationEvents.cloudletStarted(rcl, rcl.getFirstStartTime() >= 0);
+        if (rcl.getFirstStartTime() < 0) {
+            rcl.setFirstStartTime(currentTime);
+        } else {
+            rcl.getCloudlet().setExecStartTime(rcl.getFirstStartTime());
+        }
+        for (int i = 0; i < rcl.getNumberOfPes(); i++) {
+            rcl.setMachineAndPeId(0, i);
+        }
+        getCloudletExecList().add(rcl);
+        usedPes += rcl.getNumberOfPes();
+        onStart(rcl, currentTime);
+    }
+
+    private void preempt(QueuedResCloudlet rcl, double currentTime) {
+        getCloudletExecList().remove(rcl);
+        usedPes -= rcl.getNumberOfPes();
+        rcl.setCloudletStatus(Cloudlet.PAUSED); // PAUSED makes ResCloudlet account the CPU time used so far
+        rcl.syncRemainingLength();
+        preemptions++;
+        SimulationEvents.cloudletPreempted(rcl);
+        onPreempt(rcl, currentTime);
+        queue(rcl, currentTime);
+    }
+
+    // Applies the work done by the running cloudlets since the last update
+    private void advance(double currentTime) {
+        double timeSpan = currentTime - getPreviousTime();
+        if (timeSpan > 0 && capacity > 0) {
+            for (ResCloudlet rcl : getCloudletExecList()) {
+                rcl.updateCloudletFinishedSoFar((long) (capacity * timeSpan * rcl.getNumberOfPes() * Consts.MILLION));
+            }
+        }
+        setPreviousTime(currentTime);
+    }
+
+    private void updateCapacity(List<Double> mipsShare) {
+        if (mipsShare == null) {
+            return;
+        }
+        double total = 0.0;
+        int cpus = 0;
+        for (Double mips : mipsShare) {
+            total += mips;
+            if (mips > 0) {
+                cpus++;
+            }
+        }
+        currentCpus = cpus;
+        capacity = cpus > 0 ? total / cpus : 0.0;
+    }
+
+    // Earliest completion or slice expiry among the running cloudlets
+    private double nextEventTime(double currentTime) {
+        List<QueuedResCloudlet> execList = getCloudletExecList();
+        if (execList.isEmpty()) {
+            return queuedById.isEmpty() ? 0.0 : Double.MAX_VALUE;
+        }
+        double next = Double.MAX_VALUE;
+        for (QueuedResCloudlet rcl : execList) {
+            double finish = currentTime + rcl.getRemainingCloudletLength() / (capacity * rcl.getNumberOfPes());
+            next = Math.min(next, finish);
+            if (!queuedById.isEmpty()) {
+                next = Math.min(next, preemptionTime(rcl));
+            }
+        }
+        return Math.max(next, currentTime + CloudSim.getMinTimeBetweenEvents());
+    }
+}
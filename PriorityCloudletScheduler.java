@@ -0,0 +1,77 @@
+package org.cloudbus.cloudsim.examples;
+
+import org.cloudbus.cloudsim.Cloudlet;
+
+/**
+ * Non-preemptive space-shared scheduler that always starts the waiting cloudlet with the best
+ * priority (lowest value, as in the Priority runner). Waiting cloudlets age: every second spent
+ * in the queue improves the effective priority by agingRate levels, so low priority work cannot
+ * starve under a steady stream of high priority arrivals.
+ *
+ * Since all waiting cloudlets age at the same rate, comparing effective priorities at any
+ * instant is the same as comparing priority + agingRate * queuedSince. That key never changes
+ * while a cloudlet waits, so aging costs nothing at dispatch time and the heap stays valid.
+ */
+public class PriorityCloudletScheduler extends PreemptiveCloudletScheduler {
+
+    public static final double DEFAULT_AGING_RATE = 0.1;
+
+    private final double agingRate; // priority levels per second of waiting
+    private final CloudletHeap readyHeap = new CloudletHeap();
+
+    public PriorityCloudletScheduler() {
+        this(DEFAULT_AGING_RATE);
+    }
+
+    public PriorityCloudletScheduler(double agingRate) {
+        if (agingRate < 0) {
+            throw new IllegalArgumentException("Aging rate must not be negative: " + agingRate);
+        }
+        this.agingRate = agingRate;
+    }
+
+    public double getAgingRate() {
+        return agingRate;
+    }
+
+    /**
+     * Changes the priority of a waiting cloudlet in O(log n).
+     *
+     * @return false if the cloudlet is not waiting on this VM
+     */
+    public boolean updatePriority(int cloudletId, int priority) {
+        QueuedResCloudlet rcl = getQueued(cloudletId);
+        if (rcl == null) {
+            return false;
+        }
+        if (rcl.getCloudlet() instanceof CustomCloudlet) {
+            ((CustomCloudlet) rcl.getCloudlet()).setPriority(priority);
+        }
+        readyHeap.updateKey(rcl, priority + agingRate * rcl.getQueuedSince());
+        return true;
+    }
+
+    @Override
+    protected void enqueue(QueuedResCloudlet rcl, double currentTime) {
+        readyHeap.add(rcl, priorityOf(rcl.getCloudlet()) + agingRate * currentTime);
+    }
+
+    @Override
+    protected QueuedResCloudlet poll(double currentTime) {
+        return readyHeap.poll();
+    }
+
+    @Override
+    protected QueuedResCloudlet peek() {
+        return readyHeap.peek();
+    }
+
+    @Override
+    protected boolean removeQueued(QueuedResCloudlet rcl) {
+        return readyHeap.remove(rcl);
+    }
+
+    private static int priorityOf(Cloudlet cloudlet) {
+        return cloudlet instanceof CustomCloudlet ? ((CustomCloudlet) cloudlet).getPriority() : 0;
+    }
+}
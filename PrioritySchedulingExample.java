@@ -2,42 +2,22 @@ package org.cloudbus.cloudsim.examples;
 
 import org.cloudbus.cloudsim.*;
 import org.cloudbus.cloudsim.core.CloudSim;
-import org.cloudbus.cloudsim.provisioners.BwProvisionerSimple;
-import org.cloudbus.cloudsim.provisioners.PeProvisionerSimple;
-import org.cloudbus.cloudsim.provisioners.RamProvisionerSimple;
 
 import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.*;
 
-class PriorityCloudlet extends Cloudlet {
-    private int priority; // Custom field to store priority
-    private long arrivalTime;
+class PriorityCloudlet extends CustomCloudlet {
 
     public PriorityCloudlet(int cloudletId, long length, int pesNumber, long fileSize, long outputSize,
                             UtilizationModel utilizationModel, int priority, long arrivalTime) {
         super(cloudletId, length, pesNumber, fileSize, outputSize,
                 utilizationModel, utilizationModel, utilizationModel);
-        this.priority = priority;
-        this.arrivalTime = arrivalTime;
-    }
-
-    public int getPriority() {
-        return priority;
-    }
-
-    public void setPriority(int priority) {
-        this.priority = priority;
-    }
-
-    public long getArrivalTime() {
-        return arrivalTime;
-    }
-
-    public void setArrivalTime(long arrivalTime) {
-        this.arrivalTime = arrivalTime;
+        setPriority(priority);
+        setArrivalTime(arrivalTime);
     }
 }
 
@@ -46,11 +26,13 @@ public class PrioritySchedulingExample {
     public static void main(String[] args) {
         try {
             int numUsers = 1; // Number of cloud users
-            CloudSim.init(numUsers, null, false);
+            LadderFutureQueue.init(numUsers, null, false);
 
-            Datacenter datacenter = createDatacenter("Datacenter_0");
+            // Hosts come from a compact topology spec (-Dcloudsim.topology), by default the single
+            // 5000 MIPS host this example always used
+            Datacenter datacenter = PolicyRunner.createDatacenter("Datacenter_0", TopologyBuilder.fromSystemProperty());
 
-            DatacenterBroker broker = new DatacenterBroker("Broker_0");
+            DatacenterBroker broker = new ArrivalAwareBroker("Broker_0");
             int brokerId = broker.getId();
 
             Scanner scanner = new Scanner(System.in);
@@ -64,82 +46,81 @@ public class PrioritySchedulingExample {
                 int ram = scanner.nextInt();
                 int bw = scanner.nextInt();
                 long size = scanner.nextLong();
-                Vm vm = new Vm(i, brokerId, mips, 1, ram, bw, size, "Xen", new CloudletSchedulerSpaceShared());
+                Vm vm = new Vm(i, brokerId, mips, 1, ram, bw, size, "Xen", new PriorityCloudletScheduler());
                 vmlist.add(vm);
             }
             broker.submitVmList(vmlist);
 
-            System.out.println("Enter the number of Cloudlets: ");
-            int numCloudlets = scanner.nextInt();
+            // Cloudlets come from a workload trace when one is given (args: tracePath [maxRecords]),
+            // otherwise they are typed in
             List<PriorityCloudlet> cloudletList = new ArrayList<>();
-
             UtilizationModel utilizationModel = new UtilizationModelFull();
-            for (int i = 0; i < numCloudlets; i++) {
-                System.out.println("Enter details for Cloudlet " + (i + 1) + " (Format: arrivalTime length fileSize outputSize priority): ");
-                long arrivalTime = scanner.nextLong(); // Get the arrival time from user
-                long length = scanner.nextLong();
-                long fileSize = scanner.nextLong();
-                long outputSize = scanner.nextLong();
-                int priority = scanner.nextInt();
-
-                // Create PriorityCloudlet instance with correct constructor
-                PriorityCloudlet cloudlet = new PriorityCloudlet(i, length, 1, fileSize, outputSize, utilizationModel, priority, arrivalTime);
-                cloudlet.setUserId(brokerId);
-                cloudletList.add(cloudlet);
+            if (args.length > 0) {
+                int maxRecords = args.length > 1 ? Integer.parseInt(args[1]) : Integer.MAX_VALUE;
+                try (TraceWorkloadLoader loader = new TraceWorkloadLoader(Paths.get(args[0]))) {
+                    while (cloudletList.size() < maxRecords && loader.next()) {
+                        PriorityCloudlet cloudlet = new PriorityCloudlet(cloudletList.size(), loader.getLength(), 1, loader.getFileSize(),
+                                loader.getOutputSize(), utilizationModel, loader.getPriority(), loader.getArrivalTime());
+                        cloudlet.setUserId(brokerId);
+                        cloudletList.add(cloudlet);
+                    }
+                }
+                System.out.println("Loaded " + cloudletList.size() + " cloudlets from " + args[0]);
+            } else {
+                System.out.println("Enter the number of Cloudlets: ");
+                int numCloudlets = scanner.nextInt();
+
+                for (int i = 0; i < numCloudlets; i++) {
+                    System.out.println("Enter details for Cloudlet " + (i + 1) + " (Format: arrivalTime length fileSize outputSize priority): ");
+                    long arrivalTime = scanner.nextLong(); // Get the arrival time from user
+                    long length = scanner.nextLong();
+                    long fileSize = scanner.nextLong();
+                    long outputSize = scanner.nextLong();
+                    int priority = scanner.nextInt();
+
+                    // Create PriorityCloudlet instance with correct constructor
+                    PriorityCloudlet cloudlet = new PriorityCloudlet(i, length, 1, fileSize, outputSize, utilizationModel, priority, arrivalTime);
+                    cloudlet.setUserId(brokerId);
+                    cloudletList.add(cloudlet);
+                }
             }
+            int numCloudlets = cloudletList.size();
 
-            // Sort cloudlets by arrival time first (FCFS) and then by priority
+            // Sort cloudlets by arrival time first (FCFS) and then by priority; once they queue on a VM
+            // the PriorityCloudletScheduler keeps serving them in priority order
             cloudletList.sort(Comparator.comparingLong(PriorityCloudlet::getArrivalTime)
                     .thenComparingInt(PriorityCloudlet::getPriority));
 
+            // Optional cloudlet-to-VM binding heuristic (-Dcloudsim.binding=MCT|MIN_MIN|MAX_MIN|SUFFERAGE)
+            CloudletBinder binder = HeuristicCloudletBinder.fromSystemProperty();
+            if (binder != null) {
+                binder.bind(cloudletList, vmlist);
+            }
+
             // Submit the sorted cloudlets list to the broker
             broker.submitCloudletList(new ArrayList<>(cloudletList));
 
             // Simulate CloudSim
+            long simulationStart = System.nanoTime();
+            SimulationMonitor.get().setLabel("Priority"); // live progress over JMX
             CloudSim.startSimulation();
 
             List<Cloudlet> finishedCloudlets = broker.getCloudletReceivedList();
             CloudSim.stopSimulation();
+            long wallTimeMillis = (System.nanoTime() - simulationStart) / 1_000_000;
 
-            // Calculate performance metrics
-            double startTime = Double.MAX_VALUE;
-            double finishTime = 0;
-            int totalCloudlets = finishedCloudlets.size();
-            long totalLength = 0;
-            double totalWaitTime = 0;
-            double totalResponseTime = 0;
-            double totalTurnaroundTime = 0;
-            double totalThroughput = 0; // Add total throughput calculation
-
+            // Calculate performance metrics in a single pass
+            MetricsAccumulator metrics = new MetricsAccumulator();
             for (Cloudlet cloudlet : finishedCloudlets) {
-                PriorityCloudlet priorityCloudlet = (PriorityCloudlet) cloudlet; // Cast to PriorityCloudlet
-                long arrivalTime = priorityCloudlet.getArrivalTime();
-                double execStartTime = cloudlet.getExecStartTime();
-                double finishTimeForCloudlet = cloudlet.getFinishTime();
-
-                // Calculate the wait time, response time, turnaround time, and throughput
-                double waitTime = Math.max(execStartTime - arrivalTime, 0);
-                double responseTime = Math.max(finishTimeForCloudlet - arrivalTime, 0);
-                double turnaroundTime = Math.max(finishTimeForCloudlet - arrivalTime, 0);
-                double throughput = (cloudlet.getCloudletLength() / Math.max(finishTime - startTime, 0));// Throughput in cloudlets per second
-
-                totalWaitTime += waitTime;
-                totalResponseTime += responseTime;
-                totalTurnaroundTime += turnaroundTime;
-                totalThroughput += throughput; // Accumulate throughput
-
-                // Update start and finish times
-                startTime = Math.min(startTime, execStartTime);
-                finishTime = Math.max(finishTime, finishTimeForCloudlet);
-
-                totalLength += cloudlet.getCloudletLength();
+                metrics.accept(cloudlet);
             }
-
-            double makeSpan = Math.max(finishTime - startTime, 0);
-            double avgWaitTime = totalWaitTime / totalCloudlets;
-            double avgResponseTime = totalResponseTime / totalCloudlets;
-            double avgTurnaroundTime = totalTurnaroundTime / totalCloudlets;
-            double avgThroughput = totalThroughput / totalCloudlets; // Calculate average throughput
+            int totalCloudlets = metrics.getCount();
+            double makeSpan = metrics.getMakeSpan();
+            long totalLength = metrics.getTotalLength();
+            double avgWaitTime = metrics.getWaitTime().getMean();
+            double avgResponseTime = metrics.getResponseTime().getMean();
+            double avgTurnaroundTime = metrics.getTurnaroundTime().getMean();
+            double avgThroughput = metrics.getThroughput();
 
             // Output the performance metrics to console
             System.out.println("Cloudlet ID | VM ID | Arrival Time | Priority | Status  | Start Time | Finish Time | Length  | File Size | Output Size | Throughput");
@@ -168,14 +149,22 @@ public class PrioritySchedulingExample {
             System.out.println("Average Wait Time: " + avgWaitTime);
             System.out.println("Average Response Time: " + avgResponseTime);
             System.out.println("Average Turnaround Time: " + avgTurnaroundTime);
+            System.out.println("Wait Time: " + MetricsAccumulator.summary(metrics.getWaitTime()));
+            System.out.println("Response Time: " + MetricsAccumulator.summary(metrics.getResponseTime()));
+            System.out.println("Turnaround Time: " + MetricsAccumulator.summary(metrics.getTurnaroundTime()));
+            System.out.println("Slowdown: " + MetricsAccumulator.summary(metrics.getSlowdown()));
             System.out.println("Throughput: " + throughput);
 
-            // Save results to CSV
-            String priorityFilePath = "priority_results.csv";
-            savePriorityResultsToCSV(priorityFilePath, totalCloudlets, finishedCloudlets, makeSpan, totalLength, avgWaitTime, avgResponseTime, avgTurnaroundTime, avgThroughput);
+            // Save results to CSV (per-cloudlet results in binary with -Dcloudsim.results=binary)
+            if (CloudletResultWriter.isEnabled()) {
+                CloudletResultWriter.saveCloudletResults(finishedCloudlets, "priority_results.clr", true);
+            } else {
+                String priorityFilePath = "priority_results.csv";
+                savePriorityResultsToCSV(priorityFilePath, totalCloudlets, finishedCloudlets, makeSpan, totalLength, avgWaitTime, avgResponseTime, avgTurnaroundTime, avgThroughput);
+            }
 
-            String algorithmFilePath = "algorithm_results.csv";
-            saveAlgorithmResultsToCSV(algorithmFilePath, "Priority", makeSpan, totalLength, avgWaitTime, avgResponseTime, avgTurnaroundTime, totalCloudlets);
+            // Record the run in the ledger (-Dcloudsim.ledger, default run_ledger.csv)
+            RunLedger.recordRun("Priority", "", metrics, wallTimeMillis, vmlist, cloudletList);
 
         } catch (Exception e) {
             e.printStackTrace();
@@ -232,58 +221,4 @@ public class PrioritySchedulingExample {
             e.printStackTrace();
         }
     }
-
-    private static void saveAlgorithmResultsToCSV(String filePath, String algorithmName, double makeSpan,
-                                                  long totalLength, double avgWaitTime, double avgResponseTime,
-                                                  double avgTurnaroundTime, int cloudletCount) {
-        try {
-            File file = new File(filePath);
-            BufferedWriter writer = new BufferedWriter(new FileWriter(file, true));
-
-            // Write the header if the file is empty
-            if (file.length() == 0) {
-                writer.write("Algorithm Name, MakeSpan, Throughput, Avg Wait Time, Avg Response Time, Avg Turnaround Time, Cloudlet Count\n");
-            }
-
-            // Calculate throughput
-            double throughput = cloudletCount / makeSpan; // Throughput = totalLength / MakeSpan
-
-            // Write the performance metrics to CSV
-            writer.write(String.format("%s, %.2f, %.2f, %.2f, %.2f, %.2f, %d\n",
-                    algorithmName,
-                    makeSpan,
-                    throughput,
-                    avgWaitTime,
-                    avgResponseTime,
-                    avgTurnaroundTime,
-                    cloudletCount));
-
-            writer.close();
-            System.out.println("Algorithm results saved to " + filePath);
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
-    }
-
-    private static Datacenter createDatacenter(String name) throws Exception {
-        List<Host> hostList = new ArrayList<>();
-
-        int mips = 5000;
-        int ram = 16384; // 16 GB
-        long storage = 1_000_000; // 1 TB
-        int bw = 10_000; // 10 GBps
-
-        List<Pe> peList = new ArrayList<>();
-        peList.add(new Pe(0, new PeProvisionerSimple(mips)));
-
-        Host host = new Host(0, new RamProvisionerSimple(ram), new BwProvisionerSimple(bw), storage, peList,
-                new VmSchedulerTimeShared(peList));
-        hostList.add(host);
-
-        DatacenterCharacteristics characteristics = new DatacenterCharacteristics(
-                "x86", "Linux", "Xen", hostList, 10, 1, 1, 1, 1);
-        Datacenter datacenter = new Datacenter(name, characteristics, new VmAllocationPolicySimple(hostList), null, 0);
-
-        return datacenter;
-    }
 }
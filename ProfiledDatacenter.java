@@ -0,0 +1,129 @@
+package org.cloudbus.cloudsim.examples;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.CloudletScheduler;
+import org.cloudbus.cloudsim.Datacenter;
+import org.cloudbus.cloudsim.DatacenterCharacteristics;
+import org.cloudbus.cloudsim.Host;
+import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.Storage;
+import org.cloudbus.cloudsim.Vm;
+import org.cloudbus.cloudsim.VmAllocationPolicy;
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.core.CloudSimTags;
+import org.cloudbus.cloudsim.core.SimEvent;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Datacenter that reports the wall-clock time it spends handling events to SimulationEvents
+ * while a flight recording asks for it, and counts its events for SimulationMonitor.
+ *
+ * It also accepts CLOUDLET_SUBMIT_BATCH events, handling each cloudlet of the batch exactly as
+ * a CLOUDLET_SUBMIT of its own. A user that has submitted a batch gets its finished cloudlets
+ * back as one CLOUDLET_RETURN_BATCH per completion check instead of one CLOUDLET_RETURN each;
+ * every other user, and every other event, is handled exactly like Datacenter does.
+ */
+public class ProfiledDatacenter extends Datacenter {
+
+    private final SimulationEvents.EntityProfile profile;
+    private final Set<Integer> batchUsers = new HashSet<>();
+
+    public ProfiledDatacenter(String name, DatacenterCharacteristics characteristics, VmAllocationPolicy vmAllocationPolicy,
+                              List<Storage> storageList, double schedulingInterval) throws Exception {
+        super(name, characteristics, vmAllocationPolicy, storageList, schedulingInterval);
+        profile = SimulationEvents.profile(name);
+    }
+
+    @Override
+    public void processEvent(SimEvent ev) {
+        SimulationMonitor.get().eventHandled();
+        if (!SimulationEvents.isProfiling()) {
+            super.processEvent(ev);
+            return;
+        }
+        long start = System.nanoTime();
+        super.processEvent(ev);
+        profile.record(System.nanoTime() - start);
+    }
+
+    @Override
+    protected void processOtherEvent(SimEvent ev) {
+        if (ev != null && ev.getTag() == SimulationTags.CLOUDLET_SUBMIT_BATCH) {
+            processCloudletSubmitBatch(ev);
+        } else {
+            super.processOtherEvent(ev);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    protected void processCloudletSubmitBatch(SimEvent ev) {
+        List<Cloudlet> batch = (List<Cloudlet>) ev.getData();
+        for (Cloudlet cloudlet : batch) {
+            batchUsers.add(cloudlet.getUserId());
+            // A no-op after the first cloudlet unless the clock is still below CloudSim's start-up window
+            updateCloudletProcessing();
+            submitCloudlet(cloudlet);
+        }
+        // Submitting never finishes a cloudlet, so checking once finds what checking after each would
+        checkCloudletCompletion();
+    }
+
+    // The body of Datacenter.processCloudletSubmit() for one cloudlet, without an ack
+    private void submitCloudlet(Cloudlet cloudlet) {
+        try {
+            if (cloudlet.isFinished()) {
+                Log.printLine(getName() + ": Warning - Cloudlet #" + cloudlet.getCloudletId() + " owned by "
+                        + CloudSim.getEntityName(cloudlet.getUserId()) + " is already completed/finished.");
+                Log.printLine("Therefore, it is not being executed again");
+                sendNow(cloudlet.getUserId(), CloudSimTags.CLOUDLET_RETURN, cloudlet);
+                return;
+            }
+            cloudlet.setResourceParameter(getId(), getCharacteristics().getCostPerSecond(), getCharacteristics().getCostPerBw());
+            double fileTransferTime = predictFileTransferTime(cloudlet.getRequiredFiles());
+            Host host = getVmAllocationPolicy().getHost(cloudlet.getVmId(), cloudlet.getUserId());
+            CloudletScheduler scheduler = host.getVm(cloudlet.getVmId(), cloudlet.getUserId()).getCloudletScheduler();
+            double estimatedFinishTime = scheduler.cloudletSubmit(cloudlet, fileTransferTime);
+            if (estimatedFinishTime > 0.0 && !Double.isInfinite(estimatedFinishTime)) {
+                send(getId(), estimatedFinishTime + fileTransferTime, CloudSimTags.VM_DATACENTER_EVENT);
+            }
+        } catch (Exception e) {
+            Log.printLine(getName() + ".processCloudletSubmitBatch(): Exception error.");
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    protected void checkCloudletCompletion() {
+        if (batchUsers.isEmpty()) {
+            super.checkCloudletCompletion();
+            return;
+        }
+        Map<Integer, List<Cloudlet>> returns = new LinkedHashMap<>();
+        List<? extends Host> hosts = getVmAllocationPolicy().getHostList();
+        for (Host host : hosts) {
+            for (Vm vm : host.getVmList()) {
+                CloudletScheduler scheduler = vm.getCloudletScheduler();
+                while (scheduler.isFinishedCloudlets()) {
+                    Cloudlet cloudlet = scheduler.getNextFinishedCloudlet();
+                    if (cloudlet == null) {
+                        continue;
+                    }
+                    if (batchUsers.contains(cloudlet.getUserId())) {
+                        returns.computeIfAbsent(cloudlet.getUserId(), u -> new ArrayList<>()).add(cloudlet);
+                    } else {
+                        sendNow(cloudlet.getUserId(), CloudSimTags.CLOUDLET_RETURN, cloudlet);
+                    }
+                }
+            }
+        }
+        for (Map.Entry<Integer, List<Cloudlet>> batch : returns.entrySet()) {
+            sendNow(batch.getKey(), SimulationTags.CLOUDLET_RETURN_BATCH, batch.getValue());
+        }
+    }
+}
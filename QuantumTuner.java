@@ -0,0 +1,342 @@
+package org.cloudbus.cloudsim.examples;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Tunes the Round Robin quantum for one workload and VM set instead of having it typed in.
+ * Every trial is a full CloudSim run of the scenario in an isolated copy of CloudSim, as in
+ * ParameterSweep, with -Dcloudsim.tuner.threads trials running at a time (all cores by
+ * default). A log-spaced scan over the quantum range brackets the best quantum, then the
+ * bracket between the best trial's neighbours is narrowed in log space: golden-section on one
+ * thread, keeping the best trial and running one new one per round, and one evenly spaced point
+ * per thread and round on more.
+ *
+ * -Dcloudsim.tuner.objective picks what is minimized: mean (response time, the default), p99
+ * (response time), makespan or switches (context switches). The tuner keeps to its
+ * -Dcloudsim.tuner.budget in ms: no round is started that the slowest trial so far would not
+ * finish in, and trials still running at the deadline are stopped and left out. Every trial
+ * is part of the printed response curve, which is also saved to quantum_tuning.csv.
+ *
+ * Usage: QuantumTuner [tracePath [maxRecords]]. VMs and cloudlets are read as by PolicyRunner;
+ * -Dcloudsim.tuner.range=min:max sets the quantum range in ms (1:10000 by default).
+ */
+public class QuantumTuner {
+
+    private static final String WORKER_CLASS = TuningWorker.class.getName();
+
+    public static final long DEFAULT_BUDGET_MILLIS = 60_000;
+    private static final int SCAN_POINTS = 9;
+    // Stops narrowing once the bracket is within 1% of the quantum
+    private static final double LOG_TOLERANCE = Math.log(1.01);
+    private static final double GOLDEN = (3 - Math.sqrt(5)) / 2;
+
+    public enum Objective {
+        MEAN_RESPONSE("mean"),
+        P99_RESPONSE("p99"),
+        MAKESPAN("makespan"),
+        CONTEXT_SWITCHES("switches");
+
+        private final String key;
+
+        Objective(String key) {
+            this.key = key;
+        }
+
+        public static Objective parse(String key) {
+            for (Objective objective : values()) {
+                if (objective.key.equalsIgnoreCase(key.trim())) {
+                    return objective;
+                }
+            }
+            throw new IllegalArgumentException("Expected objective mean, p99, makespan or switches: " + key);
+        }
+
+        double of(Trial trial) {
+            switch (this) {
+                case P99_RESPONSE:
+                    return trial.p99Response;
+                case MAKESPAN:
+                    return trial.makeSpan;
+                case CONTEXT_SWITCHES:
+                    return trial.contextSwitches;
+                default:
+                    return trial.meanResponse;
+            }
+        }
+    }
+
+    // One Round Robin run of the scenario
+    public static final class Trial {
+        final double quantumMs;
+        final double makeSpan;
+        final double meanResponse;
+        final double p99Response;
+        final long contextSwitches;
+        final int cloudletCount;
+        final long wallTimeMillis;
+
+        Trial(double quantumMs, String line, long wallTimeMillis) {
+            String[] fields = line.split(",");
+            this.quantumMs = quantumMs;
+            this.makeSpan = Double.parseDouble(fields[0].trim());
+            this.meanResponse = Double.parseDouble(fields[1].trim());
+            this.p99Response = Double.parseDouble(fields[2].trim());
+            this.contextSwitches = Long.parseLong(fields[3].trim());
+            this.cloudletCount = Integer.parseInt(fields[4].trim());
+            this.wallTimeMillis = wallTimeMillis;
+        }
+
+        public double getQuantumMs() {
+            return quantumMs;
+        }
+    }
+
+    // A private CloudSim holding the scenario, driven through TuningWorker's static methods
+    private static final class Worker implements Closeable {
+        private final IsolatedWorker worker;
+        private final Method run;
+        private final Method stop;
+
+        Worker(URL[] classPath, String encodedScenario, String topologySpec) throws Exception {
+            worker = new IsolatedWorker(classPath, WORKER_CLASS);
+            run = worker.method("run", double.class);
+            stop = worker.method("stop");
+            IsolatedWorker.invoke(worker.method("load", String.class, String.class), encodedScenario, topologySpec);
+        }
+
+        String run(double quantumMs) throws Exception {
+            return (String) IsolatedWorker.invoke(run, quantumMs);
+        }
+
+        void stop() throws Exception {
+            IsolatedWorker.invoke(stop);
+        }
+
+        @Override
+        public void close() throws IOException {
+            worker.close();
+        }
+    }
+
+    private final Scenario scenario;
+    private final TopologyBuilder topology;
+    private final Objective objective;
+    private final double minQuantumMs;
+    private final double maxQuantumMs;
+    private final int threads;
+    private final long budgetMillis;
+
+    // Trials by quantum in microseconds, the resolution candidates are rounded to
+    private final TreeMap<Long, Trial> trials = new TreeMap<>();
+    private long slowestTrialNanos;
+    private long deadline;
+
+    public QuantumTuner(Scenario scenario, TopologyBuilder topology, Objective objective,
+                        double minQuantumMs, double maxQuantumMs, int threads, long budgetMillis) {
+        if (minQuantumMs <= 0 || maxQuantumMs <= minQuantumMs || threads < 1) {
+            throw new IllegalArgumentException("Expected 0 < min < max quantum and at least 1 thread");
+        }
+        this.scenario = scenario;
+        this.topology = topology;
+        this.objective = objective;
+        this.minQuantumMs = minQuantumMs;
+        this.maxQuantumMs = maxQuantumMs;
+        this.threads = threads;
+        this.budgetMillis = budgetMillis;
+    }
+
+    public static void main(String[] args) {
+        try {
+            Scenario scenario = Scenario.read(args, new Scanner(System.in));
+            Objective objective = Objective.parse(System.getProperty("cloudsim.tuner.objective", "mean"));
+            String[] range = System.getProperty("cloudsim.tuner.range", "1:10000").split(":");
+            int threads = Integer.getInteger("cloudsim.tuner.threads", Runtime.getRuntime().availableProcessors());
+            long budget = Long.getLong("cloudsim.tuner.budget", DEFAULT_BUDGET_MILLIS);
+            QuantumTuner tuner = new QuantumTuner(scenario, TopologyBuilder.fromSystemProperty(), objective,
+                    Double.parseDouble(range[0].trim()), Double.parseDouble(range[1].trim()), threads, budget);
+
+            System.out.println("Tuning the Round Robin quantum of " + scenario + " for " + objective + " on " + threads
+                    + " threads within " + budget + " ms");
+            long wallStart = System.nanoTime();
+            Trial best = tuner.tune();
+            tuner.printCurve(best);
+            tuner.saveCurveToCSV("quantum_tuning.csv");
+            if (best == null) {
+                System.out.println("No trial finished within the budget");
+            } else {
+                System.out.printf("Best quantum for %s: %.3f ms (%s %.2f) after %d trials in %.1f s\n", objective, best.quantumMs,
+                        objective, objective.of(best), tuner.trials.size(), (System.nanoTime() - wallStart) / 1e9);
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Searches the quantum range within the budget and returns the best trial, or null if no
+     * trial finished in time.
+     */
+    public Trial tune() throws Exception {
+        deadline = System.nanoTime() + budgetMillis * 1_000_000;
+        URL[] classPath = ParameterSweep.classPathUrls();
+        String encodedScenario = scenario.encode();
+        String topologySpec = topology.toSpec();
+        List<Worker> workers = Collections.synchronizedList(new ArrayList<>());
+        ThreadLocal<Worker> workerOfThread = new ThreadLocal<>();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            double low = Math.log(minQuantumMs);
+            double high = Math.log(maxQuantumMs);
+            List<Double> candidates = new ArrayList<>();
+            int scanPoints = Math.max(SCAN_POINTS, threads);
+            for (int j = 0; j < scanPoints; j++) {
+                candidates.add(low + j * (high - low) / (scanPoints - 1));
+            }
+
+            while (!candidates.isEmpty() && evaluate(candidates, pool, classPath, encodedScenario, topologySpec, workers, workerOfThread)) {
+                // The best trial and its neighbours bracket the optimum
+                Map.Entry<Long, Trial> best = bestEntry();
+                if (best == null) {
+                    break;
+                }
+                Long below = trials.lowerKey(best.getKey());
+                Long above = trials.higherKey(best.getKey());
+                double at = Math.log(best.getKey() / 1000.0);
+                double from = below != null ? Math.log(below / 1000.0) : at;
+                double to = above != null ? Math.log(above / 1000.0) : at;
+                candidates.clear();
+                if (to - from < LOG_TOLERANCE) {
+                    break;
+                }
+                if (threads == 1) {
+                    // The best trial is the surviving interior point; one new point goes into the
+                    // larger side, which after the first round puts both at the golden sections
+                    candidates.add(at - from >= to - at ? at - GOLDEN * (at - from) : at + GOLDEN * (to - at));
+                } else {
+                    for (int j = 1; j <= threads; j++) {
+                        candidates.add(from + j * (to - from) / (threads + 1));
+                    }
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+            synchronized (workers) {
+                for (Worker worker : workers) {
+                    worker.close();
+                }
+            }
+        }
+        Map.Entry<Long, Trial> best = bestEntry();
+        return best != null ? best.getValue() : null;
+    }
+
+    /**
+     * Runs the trials of one round (log quanta) that have not been run yet. Returns false when
+     * the budget ran out before or during the round, or no new trial was left to run.
+     */
+    private boolean evaluate(List<Double> logQuanta, ExecutorService pool, URL[] classPath, String encodedScenario,
+                             String topologySpec, List<Worker> workers, ThreadLocal<Worker> workerOfThread) throws Exception {
+        Set<Long> quanta = new LinkedHashSet<>();
+        for (double logQuantum : logQuanta) {
+            long micros = Math.max(1, Math.round(Math.exp(logQuantum) * 1000));
+            if (!trials.containsKey(micros)) {
+                quanta.add(micros);
+            }
+        }
+        if (quanta.isEmpty() || (slowestTrialNanos > 0 && System.nanoTime() + slowestTrialNanos > deadline)) {
+            return false;
+        }
+
+        Map<Long, Future<Trial>> round = new LinkedHashMap<>();
+        for (long micros : quanta) {
+            double quantumMs = micros / 1000.0;
+            round.put(micros, pool.submit(() -> {
+                if (System.nanoTime() > deadline) {
+                    return null; // queued behind trials that used up the budget
+                }
+                Worker worker = workerOfThread.get();
+                if (worker == null) {
+                    worker = new Worker(classPath, encodedScenario, topologySpec);
+                    workers.add(worker);
+                    workerOfThread.set(worker);
+                }
+                long trialStart = System.nanoTime();
+                String line = worker.run(quantumMs);
+                long elapsed = System.nanoTime() - trialStart;
+                return line == null ? null : new Trial(quantumMs, line, elapsed / 1_000_000);
+            }));
+        }
+
+        boolean inTime = true;
+        for (Map.Entry<Long, Future<Trial>> entry : round.entrySet()) {
+            Trial trial;
+            while (true) {
+                try {
+                    trial = entry.getValue().get(Math.max(deadline - System.nanoTime(), 10_000_000), TimeUnit.NANOSECONDS);
+                    break;
+                } catch (TimeoutException e) {
+                    // Out of budget: keep asking the workers to stop until the trial returns, as
+                    // a request made before a run has begun is not seen by it
+                    inTime = false;
+                    synchronized (workers) {
+                        for (Worker worker : workers) {
+                            worker.stop();
+                        }
+                    }
+                }
+            }
+            if (trial != null) {
+                trials.put(entry.getKey(), trial);
+                slowestTrialNanos = Math.max(slowestTrialNanos, trial.wallTimeMillis * 1_000_000);
+                System.out.printf("quantum %10.3f ms: makespan %.2f, mean response %.2f, p99 response %.2f, %d context switches (%d ms)\n",
+                        trial.quantumMs, trial.makeSpan, trial.meanResponse, trial.p99Response, trial.contextSwitches, trial.wallTimeMillis);
+            }
+        }
+        return inTime && System.nanoTime() < deadline;
+    }
+
+    // Lowest objective; ties go to the larger quantum, which switches less
+    private Map.Entry<Long, Trial> bestEntry() {
+        Map.Entry<Long, Trial> best = null;
+        for (Map.Entry<Long, Trial> entry : trials.entrySet()) {
+            if (best == null || objective.of(entry.getValue()) <= objective.of(best.getValue())) {
+                best = entry;
+            }
+        }
+        return best;
+    }
+
+    public List<Trial> getTrials() {
+        return new ArrayList<>(trials.values());
+    }
+
+    private void printCurve(Trial best) {
+        System.out.println("\nRound Robin response curve, by quantum:");
+        System.out.printf("%-14s | %-10s | %-18s | %-17s | %-16s\n",
+                "Quantum (ms)", "MakeSpan", "Mean Response Time", "P99 Response Time", "Context Switches");
+        for (Trial trial : trials.values()) {
+            System.out.printf("%-14.3f | %-10.2f | %-18.2f | %-17.2f | %-16d%s\n", trial.quantumMs, trial.makeSpan,
+                    trial.meanResponse, trial.p99Response, trial.contextSwitches, trial == best ? " <- best" : "");
+        }
+    }
+
+    private void saveCurveToCSV(String filePath) {
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(filePath))) {
+            writer.write("Quantum (ms), MakeSpan, Mean Response Time, P99 Response Time, Context Switches, Cloudlet Count, Wall Time (ms)\n");
+            for (Trial trial : trials.values()) {
+                writer.write(String.format("%.3f, %.2f, %.2f, %.2f, %d, %d, %d\n", trial.quantumMs, trial.makeSpan,
+                        trial.meanResponse, trial.p99Response, trial.contextSwitches, trial.cloudletCount, trial.wallTimeMillis));
+            }
+            System.out.println("Response curve saved to " + filePath);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package org.cloudbus.cloudsim.examples;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.ResCloudlet;
+
+/**
+ * ResCloudlet with the bookkeeping the preemptive schedulers need while a cloudlet moves
+ * between their ready queue and a PE.
+ */
+public class QueuedResCloudlet extends ResCloudlet {
+
+    // Time the cloudlet first got a PE; ResCloudlet overwrites the exec start time on every resume
+    private double firstStartTime = -1;
+
+    // End of the current time slice, for time-sliced schedulers
+    private double sliceEnd = Double.MAX_VALUE;
+
+    // Time the cloudlet last entered the ready queue
+    private double queuedSince;
+
+    // Feedback-queue level and the CPU time already used at that level
+    private int feedbackLevel;
+    private double levelTimeUsed;
+
+    // Position and ordering key inside a CloudletHeap
+    private int heapIndex = -1;
+    private double heapKey;
+    private long heapSequence;
+
+    public QueuedResCloudlet(Cloudlet cloudlet) {
+        super(cloudlet);
+    }
+
+    public double getFirstStartTime() {
+        return firstStartTime;
+    }
+
+    public void setFirstStartTime(double firstStartTime) {
+        this.firstStartTime = firstStartTime;
+    }
+
+    public double getSliceEnd() {
+        return sliceEnd;
+    }
+
+    public void setSliceEnd(double sliceEnd) {
+        this.sliceEnd = sliceEnd;
+    }
+
+    public double getQueuedSince() {
+        return queuedSince;
+    }
+
+    public void setQueuedSince(double queuedSince) {
+        this.queuedSince = queuedSince;
+    }
+
+    int getFeedbackLevel() {
+        return feedbackLevel;
+    }
+
+    void setFeedbackLevel(int feedbackLevel) {
+        this.feedbackLevel = feedbackLevel;
+    }
+
+    double getLevelTimeUsed() {
+        return levelTimeUsed;
+    }
+
+    void setLevelTimeUsed(double levelTimeUsed) {
+        this.levelTimeUsed = levelTimeUsed;
+    }
+
+    int getHeapIndex() {
+        return heapIndex;
+    }
+
+    void setHeapIndex(int heapIndex) {
+        this.heapIndex = heapIndex;
+    }
+
+    double getHeapKey() {
+        return heapKey;
+    }
+
+    void setHeapKey(double heapKey) {
+        this.heapKey = heapKey;
+    }
+
+    long getHeapSequence() {
+        return heapSequence;
+    }
+
+    void setHeapSequence(long heapSequence) {
+        this.heapSequence = heapSequence;
+    }
+
+    // Mirrors the remaining length (MI) into CustomCloudlet so it can be inspected outside the scheduler
+    public void syncRemainingLength() {
+        if (getCloudlet() instanceof CustomCloudlet) {
+            ((CustomCloudlet) getCloudlet()).setRemainingLength(getRemainingCloudletLength());
+        }
+    }
+}
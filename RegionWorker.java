@@ -0,0 +1,313 @@
+package org.cloudbus.cloudsim.examples;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.Vm;
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.core.SimEntity;
+import org.cloudbus.cloudsim.core.SimEvent;
+
+import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.SplittableRandom;
+import java.util.TreeSet;
+
+/**
+ * One datacenter region of a ParallelSimulation, inside its own isolated copy of CloudSim.
+ * Like SweepWorker, only JDK types cross the class loader boundary: the region is set up from
+ * an encoded SweepPoint, and messages to and from the other regions are flat double arrays of
+ * (time, destination region, cloudlet id) triples.
+ *
+ * Every region derives the same global binding of the point's cloudlets to its VMs (the
+ * policy's binding, round robin for the rest) and runs the VMs with id % regions == region
+ * in its own datacenter. A cloudlet is issued by its home region, which is the region that
+ * runs it unless a seeded draw (probability remoteFraction) picks another one. A cloudlet
+ * issued elsewhere is sent over when it arrives and reaches the region that runs it latency
+ * seconds later, so its wait and response times include the latency.
+ *
+ * The region's CloudSim is stepped one clock tick at a time by advance(), which stops one
+ * clock step short of the horizon it is given, so messages for the horizon and later can still
+ * be scheduled before any event of their time is taken from the queue. A delivered cloudlet
+ * takes the serial its region reserved at the instant the cloudlet was sent, which is the
+ * serial the Router of ParallelSimulation.runReference() gives it: both are taken after the
+ * events scheduled before that instant were handled, and before those scheduled at it.
+ */
+public final class RegionWorker {
+
+    private static int region;
+    private static double latency;
+    private static LadderFutureQueue queue;
+    private static ArrivalAwareBroker broker;
+    private static Gateway gateway;
+    private static final Map<Integer, Cloudlet> inbound = new HashMap<>();
+    private static Constructor<SimEvent> eventConstructor;
+    // Whether the last tick moved events at the current clock to the deferred queue
+    private static boolean pending;
+    private static double[] outbox = new double[48];
+    private static int outboxSize;
+
+    // Sends the region's remote cloudlets at their arrival instants, reserves the serials of the
+    // cloudlets sent to it at theirs and takes the window barriers
+    private static final class Gateway extends SimEntity {
+        private final long[] arrival; // ascending
+        private final int[] destination;
+        private final int[] cloudletId;
+        private int next;
+        // By instant a cloudlet is sent to this region: the serial of its delivery, -1 until reached
+        private final Map<Long, Long> reserved = new HashMap<>();
+
+        Gateway(String name, long[] arrival, int[] destination, int[] cloudletId, Iterable<Cloudlet> inbound) {
+            super(name);
+            this.arrival = arrival;
+            this.destination = destination;
+            this.cloudletId = cloudletId;
+            for (Cloudlet cloudlet : inbound) {
+                reserved.put(((CustomCloudlet) cloudlet).getArrivalTime(), -1L);
+            }
+        }
+
+        @Override
+        public void startEntity() {
+            // Created after the datacenter and broker, so like the Router this handles an instant after their first events of it
+            SortedSet<Long> instants = new TreeSet<>(reserved.keySet());
+            for (long time : arrival) {
+                instants.add(time);
+            }
+            for (long time : instants) {
+                schedule(getId(), time, SimulationTags.REGION_SEND);
+            }
+        }
+
+        @Override
+        public void processEvent(SimEvent ev) {
+            if (ev.getTag() != SimulationTags.REGION_SEND) {
+                return;
+            }
+            double now = CloudSim.clock();
+            reserved.computeIfPresent((long) now, (time, serial) -> queue.reserveSerial());
+            while (next < arrival.length && arrival[next] <= now) {
+                post(now + latency, destination[next], cloudletId[next]);
+                next++;
+            }
+        }
+
+        // Serial reserved for the cloudlets sent to this region at the given instant
+        long reservedSerial(long time) {
+            Long serial = reserved.get(time);
+            if (serial == null || serial < 0) {
+                throw new IllegalStateException("Region " + region + " has not reached instant " + time + " of a cloudlet sent to it");
+            }
+            return serial;
+        }
+
+        // When the next message leaves plus the latency, +Infinity once everything is sent
+        double nextOutputTime() {
+            return next < arrival.length ? arrival[next] + latency : Double.POSITIVE_INFINITY;
+        }
+
+        @Override
+        public void shutdownEntity() {
+        }
+    }
+
+    private RegionWorker() {
+    }
+
+    /**
+     * Builds the region's datacenter, broker and gateway on a fresh CloudSim and starts its
+     * entities. No event is handled before the first advance().
+     */
+    public static void init(String encodedPoint, int region, int regions, double latency, double remoteFraction) throws Exception {
+        SweepPoint point = SweepPoint.decode(encodedPoint);
+        SchedulingPolicy policy = SchedulingPolicies.defaults(point.getQuantumMs() / 1000.0).get(point.getPolicy());
+        if (policy == null) {
+            throw new IllegalArgumentException("Unknown policy: " + point.getPolicy());
+        }
+        RegionWorker.region = region;
+        RegionWorker.latency = latency;
+        // CloudSim keeps this constructor package private; deliveries and barriers need exact times
+        eventConstructor = SimEvent.class.getDeclaredConstructor(int.class, double.class, int.class, int.class, int.class, Object.class);
+        eventConstructor.setAccessible(true);
+
+        Log.disable();
+        CloudSim.init(1, null, false);
+        // Stepping needs the time of the next event, which only the ladder queue gives cheaply
+        queue = LadderFutureQueue.install();
+        SimulationMonitor.get().setLabel("region " + region + "/" + regions + " " + encodedPoint);
+        PolicyRunner.createDatacenter("Datacenter_" + region, point.toTopology());
+        broker = new ArrivalAwareBroker("Broker_" + region);
+
+        Scenario scenario = point.toScenario();
+        List<Vm> vms = scenario.createVms(broker.getId(), policy);
+        List<CustomCloudlet> cloudlets = scenario.createCloudlets(broker.getId());
+        int[][] placement = place(policy, cloudlets, vms, regions, remoteFraction, point.getSeed());
+        int[] runs = placement[0];
+        int[] home = placement[1];
+
+        List<Vm> localVms = new ArrayList<>();
+        for (Vm vm : vms) {
+            if (vm.getId() % regions == region) {
+                localVms.add(vm);
+            }
+        }
+        List<CustomCloudlet> local = new ArrayList<>();
+        List<CustomCloudlet> outbound = new ArrayList<>();
+        inbound.clear();
+        for (CustomCloudlet cloudlet : cloudlets) {
+            int id = cloudlet.getCloudletId();
+            if (runs[id] == region && home[id] == region) {
+                local.add(cloudlet);
+            } else if (runs[id] == region) {
+                inbound.put(id, cloudlet);
+            } else if (home[id] == region) {
+                outbound.add(cloudlet);
+            }
+        }
+        outbound.sort((a, b) -> a.getArrivalTime() != b.getArrivalTime()
+                ? Long.compare(a.getArrivalTime(), b.getArrivalTime()) : Integer.compare(a.getCloudletId(), b.getCloudletId()));
+        long[] arrival = new long[outbound.size()];
+        int[] destination = new int[outbound.size()];
+        int[] cloudletId = new int[outbound.size()];
+        for (int i = 0; i < arrival.length; i++) {
+            CustomCloudlet cloudlet = outbound.get(i);
+            arrival[i] = cloudlet.getArrivalTime();
+            destination[i] = runs[cloudlet.getCloudletId()];
+            cloudletId[i] = cloudlet.getCloudletId();
+        }
+        gateway = new Gateway("Gateway_" + region, arrival, destination, cloudletId, inbound.values());
+
+        broker.submitVmList(localVms);
+        broker.submitCloudletList(local);
+        broker.expectCloudlets(inbound.size());
+        outboxSize = 0;
+        pending = false;
+        CloudSim.runStart();
+    }
+
+    /**
+     * Binds the cloudlets to the VMs like every region does (the policy's binding, round robin
+     * for the rest) and returns, by cloudlet id, the region that runs each and the region that
+     * issues it.
+     */
+    static int[][] place(SchedulingPolicy policy, List<CustomCloudlet> cloudlets, List<Vm> vms, int regions,
+                         double remoteFraction, long seed) {
+        policy.prepare(cloudlets, vms);
+        int vmIndex = 0;
+        for (CustomCloudlet cloudlet : cloudlets) {
+            if (cloudlet.getVmId() == -1) {
+                cloudlet.setVmId(vms.get(vmIndex).getId());
+                vmIndex = (vmIndex + 1) % vms.size();
+            }
+        }
+
+        // Home regions are drawn in id order, so every region draws the same ones
+        int[] home = new int[cloudlets.size()];
+        int[] runs = new int[cloudlets.size()];
+        for (CustomCloudlet cloudlet : cloudlets) {
+            runs[cloudlet.getCloudletId()] = cloudlet.getVmId() % regions;
+        }
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int id = 0; id < home.length; id++) {
+            boolean remote = regions > 1 && random.nextDouble() < remoteFraction;
+            home[id] = remote ? (runs[id] + 1 + random.nextInt(regions - 1)) % regions : runs[id];
+        }
+        return new int[][]{runs, home};
+    }
+
+    // Time of the next event the region will handle, +Infinity when it has none
+    public static double nextEventTime() {
+        return pending ? CloudSim.clock() : queue.peekTime();
+    }
+
+    // Earliest time any message this region may still send can arrive, +Infinity if none
+    public static double nextOutputTime() {
+        return gateway.nextOutputTime();
+    }
+
+    /**
+     * Handles the events before the horizon and returns the messages sent meanwhile, each
+     * stamped at the horizon or later when the horizon came from nextOutputTime(). Events one
+     * clock step short of the horizon are left pending, and nothing at the horizon is taken
+     * from the queue yet.
+     */
+    public static double[] advance(double horizon) throws Exception {
+        outboxSize = 0;
+        if (nextEventTime() < horizon) {
+            double barrier = Math.nextDown(horizon);
+            if (horizon != Double.POSITIVE_INFINITY) {
+                // Stops the tick that reaches the barrier from moving the clock any further
+                queue.addEvent(event(barrier, gateway.getId(), SimulationTags.REGION_BARRIER, null));
+            }
+            while (nextEventTime() < horizon && !(pending && CloudSim.clock() == barrier)) {
+                pending = !CloudSim.runClockTick();
+            }
+        }
+        return Arrays.copyOf(outbox, outboxSize);
+    }
+
+    /**
+     * Schedules the arrival of messages for this region, given in (time, region, id) triples
+     * ordered by time. Messages of the same time reach the broker as one batch, in the place the
+     * serial reserved at their sending instant gives it.
+     */
+    public static void deliver(double[] messages) throws Exception {
+        List<Cloudlet> batch = new ArrayList<>();
+        for (int i = 0; i < messages.length; i += 3) {
+            Cloudlet cloudlet = inbound.remove((int) messages[i + 2]);
+            if ((int) messages[i + 1] != region || cloudlet == null) {
+                throw new IllegalArgumentException("Region " + region + " does not run cloudlet " + (int) messages[i + 2]);
+            }
+            batch.add(cloudlet);
+            if (i + 3 >= messages.length || messages[i + 3] != messages[i]) {
+                long sent = ((CustomCloudlet) cloudlet).getArrivalTime();
+                queue.addEvent(event(messages[i], broker.getId(), SimulationTags.CLOUDLET_ARRIVAL, batch), gateway.reservedSerial(sent));
+                batch = new ArrayList<>();
+            }
+        }
+    }
+
+    /**
+     * Ends the region's simulation and returns its finished cloudlets as columns: arrival
+     * times (long[]), exec start and finish times (double[]), lengths (long[]), VM ids (int[]),
+     * cloudlet ids (int[]).
+     */
+    public static Object[] finish() {
+        CloudSim.finishSimulation();
+        List<Cloudlet> finished = broker.getCloudletReceivedList();
+        long[] arrival = new long[finished.size()];
+        double[] start = new double[finished.size()];
+        double[] finish = new double[finished.size()];
+        long[] length = new long[finished.size()];
+        int[] vmId = new int[finished.size()];
+        int[] id = new int[finished.size()];
+        for (int i = 0; i < arrival.length; i++) {
+            Cloudlet cloudlet = finished.get(i);
+            arrival[i] = ((CustomCloudlet) cloudlet).getArrivalTime();
+            start[i] = cloudlet.getExecStartTime();
+            finish[i] = cloudlet.getFinishTime();
+            length[i] = cloudlet.getCloudletLength();
+            vmId[i] = cloudlet.getVmId();
+            id[i] = cloudlet.getCloudletId();
+        }
+        return new Object[]{arrival, start, finish, length, vmId, id};
+    }
+
+    // A SEND event from the gateway at exactly the given time, which CloudSim.send() cannot promise
+    private static SimEvent event(double time, int destination, int tag, Object data) throws Exception {
+        return eventConstructor.newInstance(SimEvent.SEND, time, gateway.getId(), destination, tag, data);
+    }
+
+    private static void post(double time, int destination, int cloudletId) {
+        if (outboxSize + 3 > outbox.length) {
+            outbox = Arrays.copyOf(outbox, outbox.length * 2);
+        }
+        outbox[outboxSize++] = time;
+        outbox[outboxSize++] = destination;
+        outbox[outboxSize++] = cloudletId;
+    }
+}
@@ -0,0 +1,56 @@
+package org.cloudbus.cloudsim.examples;
+
+import java.util.ArrayDeque;
+
+/**
+ * Preemptive Round-Robin scheduler: every cloudlet runs for at most one quantum of simulated
+ * time before it goes back to the tail of the VM's ready ring, provided someone else is
+ * waiting. The ring is an ArrayDeque, so rotating a cloudlet is O(1) no matter how many are
+ * queued.
+ */
+public class RoundRobinCloudletScheduler extends PreemptiveCloudletScheduler {
+
+    private final double quantum; // seconds of simulated time
+    private final ArrayDeque<QueuedResCloudlet> readyRing = new ArrayDeque<>();
+
+    public RoundRobinCloudletScheduler(double quantum) {
+        if (quantum <= 0) {
+            throw new IllegalArgumentException("Quantum must be positive: " + quantum);
+        }
+        this.quantum = quantum;
+    }
+
+    public double getQuantum() {
+        return quantum;
+    }
+
+    @Override
+    protected void enqueue(QueuedResCloudlet rcl, double currentTime) {
+        readyRing.addLast(rcl);
+    }
+
+    @Override
+    protected QueuedResCloudlet poll(double currentTime) {
+        return readyRing.pollFirst();
+    }
+
+    @Override
+    protected QueuedResCloudlet peek() {
+        return readyRing.peekFirst();
+    }
+
+    @Override
+    protected boolean removeQueued(QueuedResCloudlet rcl) {
+        return readyRing.remove(rcl); // linear, only used on cancellation
+    }
+
+    @Override
+    protected void onStart(QueuedResCloudlet rcl, double currentTime) {
+        rcl.setSliceEnd(currentTime + quantum);
+    }
+
+    @Override
+    protected double preemptionTime(QueuedResCloudlet rcl) {
+        return rcl.getSliceEnd();
+    }
+}
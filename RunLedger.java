@@ -0,0 +1,337 @@
+package org.cloudbus.cloudsim.examples;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.Vm;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Append-only ledger of simulation runs, one CSV row per run with a fixed schema. Appends
+ * hold an exclusive FileChannel lock, so runners, sweep workers and other JVMs can record
+ * into the same file concurrently without interleaving rows or duplicating the header.
+ *
+ * The config hash identifies the workload and topology, so runs of different policies on
+ * the same input can be grouped and compared. main() summarises a ledger:
+ *   RunLedger summary [ledger]             every config/policy combination
+ *   RunLedger compare configHash [ledger]  the policies run on one config, best p99 wait first
+ */
+public class RunLedger {
+
+    public static final String DEFAULT_PATH = "run_ledger.csv";
+
+    public static final String HEADER = "Run ID, Timestamp, Policy, Parameters, Config Hash, Cloudlet Count, MakeSpan, "
+            + "Throughput, Avg Wait Time, Avg Response Time, Avg Turnaround Time, P50 Wait Time, P90 Wait Time, "
+            + "P99 Wait Time, Max Wait Time, Wall Time (ms)";
+
+    private final Path path;
+
+    public RunLedger(Path path) {
+        this.path = path;
+    }
+
+    // Ledger named by -Dcloudsim.ledger, or run_ledger.csv
+    public static RunLedger fromSystemProperty() {
+        return new RunLedger(Paths.get(System.getProperty("cloudsim.ledger", DEFAULT_PATH)));
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * Appends one run and returns its id.
+     */
+    public String record(RunResult result, String parameters, String configHash) throws IOException {
+        String runId = UUID.randomUUID().toString();
+        String row = String.format(Locale.ROOT, "%s, %s, %s, %s, %s, %d, %.4f, %.6f, %.4f, %.4f, %.4f, %.4f, %.4f, %.4f, %.4f, %d\n",
+                runId,
+                Instant.now(),
+                field(result.getPolicyName()),
+                field(parameters),
+                configHash,
+                result.getCloudletCount(),
+                result.getMakeSpan(),
+                result.getThroughput(),
+                result.getAvgWaitTime(),
+                result.getAvgResponseTime(),
+                result.getAvgTurnaroundTime(),
+                result.getP50WaitTime(),
+                result.getP90WaitTime(),
+                result.getP99WaitTime(),
+                result.getMaxWaitTime(),
+                result.getWallTimeMillis());
+        append(row);
+        return runId;
+    }
+
+    private static String field(String text) {
+        return text == null ? "" : text.replace(',', ';').replace('\n', ' ').replace('\r', ' ').trim();
+    }
+
+    private void append(String row) throws IOException {
+        // The monitor covers this JVM, sweep workers' class loaders included (interned strings are
+        // shared by all of them), so channel.lock() never overlaps; the file lock covers other JVMs
+        synchronized (path.toAbsolutePath().normalize().toString().intern()) {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                FileLock lock = channel.lock();
+                try {
+                    // Only decided under the lock, so exactly one writer puts the header in
+                    String text = channel.size() == 0 ? HEADER + "\n" + row : row;
+                    ByteBuffer bytes = ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8));
+                    while (bytes.hasRemaining()) {
+                        channel.write(bytes);
+                    }
+                } finally {
+                    lock.release();
+                }
+            }
+        }
+    }
+
+    // The parameters of a run that was just simulated, marked partial when it was stopped over JMX
+    static String markIfStopped(String parameters) {
+        if (!SimulationMonitor.get().wasStopped()) {
+            return parameters;
+        }
+        return parameters.isEmpty() ? "partial" : parameters + " partial";
+    }
+
+    /**
+     * Records a run of one of the runners, printing instead of failing when the ledger can't be written.
+     */
+    public static void recordRun(String policy, String parameters, MetricsAccumulator metrics, long wallTimeMillis,
+                                 List<? extends Vm> vms, List<? extends Cloudlet> cloudlets) {
+        String binding = System.getProperty("cloudsim.binding");
+        if (binding != null && !binding.trim().isEmpty()) {
+            parameters = (parameters.isEmpty() ? "" : parameters + " ") + "binding=" + binding.trim().toUpperCase();
+        }
+        parameters = markIfStopped(parameters);
+        RunLedger ledger = fromSystemProperty();
+        try {
+            String configHash = configHash(vms, cloudlets, TopologyBuilder.fromSystemProperty());
+            String runId = ledger.record(RunResult.of(policy, metrics, wallTimeMillis), parameters, configHash);
+            System.out.println("Run " + runId + " recorded in " + ledger.getPath());
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    public static String configHash(List<? extends Vm> vms, List<? extends Cloudlet> cloudlets, TopologyBuilder topology) {
+        ConfigHash hash = new ConfigHash();
+        for (Vm vm : vms) {
+            hash.addVm(vm.getMips(), vm.getRam(), vm.getBw(), vm.getSize());
+        }
+        for (Cloudlet cloudlet : cloudlets) {
+            CustomCloudlet custom = cloudlet instanceof CustomCloudlet ? (CustomCloudlet) cloudlet : null;
+            hash.addCloudlet(custom != null ? custom.getArrivalTime() : 0, cloudlet.getCloudletLength(),
+                    cloudlet.getCloudletFileSize(), cloudlet.getCloudletOutputSize(), custom != null ? custom.getPriority() : 0);
+        }
+        hash.addTopology(topology.toSpec());
+        return hash.toString();
+    }
+
+    /**
+     * 64-bit fingerprint of a workload and topology. VMs are hashed in order (their ids
+     * matter), cloudlets as a set, so the hash doesn't depend on how a policy sorted them.
+     */
+    public static final class ConfigHash {
+        private long vms = 0x9E3779B97F4A7C15L;
+        private long cloudlets;
+        private long cloudletCount;
+        private long topology;
+
+        public void addVm(double mips, int ram, long bw, long size) {
+            vms = mix(vms ^ Double.doubleToLongBits(mips));
+            vms = mix(vms ^ ram);
+            vms = mix(vms ^ bw);
+            vms = mix(vms ^ size);
+        }
+
+        public void addCloudlet(long arrival, long length, long fileSize, long outputSize, int priority) {
+            long h = mix(arrival);
+            h = mix(h ^ length);
+            h = mix(h ^ fileSize);
+            h = mix(h ^ outputSize);
+            h = mix(h ^ priority);
+            cloudlets += h;
+            cloudletCount++;
+        }
+
+        public void addTopology(String spec) {
+            topology = mix(topology ^ spec.hashCode());
+        }
+
+        @Override
+        public String toString() {
+            long h = mix(vms ^ mix(cloudlets ^ mix(cloudletCount ^ mix(topology))));
+            return String.format("%016x", h);
+        }
+
+        // SplitMix64 finalizer
+        private static long mix(long z) {
+            z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+            z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+            return z ^ (z >>> 31);
+        }
+    }
+
+    // One parsed ledger row
+    public static final class Entry {
+        public final String runId;
+        public final String timestamp;
+        public final String policy;
+        public final String parameters;
+        public final String configHash;
+        public final int cloudletCount;
+        public final double makeSpan;
+        public final double throughput;
+        public final double avgWaitTime;
+        public final double avgResponseTime;
+        public final double avgTurnaroundTime;
+        public final double p50WaitTime;
+        public final double p90WaitTime;
+        public final double p99WaitTime;
+        public final double maxWaitTime;
+        public final long wallTimeMillis;
+
+        private Entry(String[] f) {
+            runId = f[0];
+            timestamp = f[1];
+            policy = f[2];
+            parameters = f[3];
+            configHash = f[4];
+            cloudletCount = Integer.parseInt(f[5]);
+            makeSpan = Double.parseDouble(f[6]);
+            throughput = Double.parseDouble(f[7]);
+            avgWaitTime = Double.parseDouble(f[8]);
+            avgResponseTime = Double.parseDouble(f[9]);
+            avgTurnaroundTime = Double.parseDouble(f[10]);
+            p50WaitTime = Double.parseDouble(f[11]);
+            p90WaitTime = Double.parseDouble(f[12]);
+            p99WaitTime = Double.parseDouble(f[13]);
+            maxWaitTime = Double.parseDouble(f[14]);
+            wallTimeMillis = Long.parseLong(f[15]);
+        }
+    }
+
+    // Streams every row of the ledger, skipping the header and rows that don't parse
+    public void forEach(Consumer<Entry> consumer) throws IOException {
+        if (!Files.exists(path)) {
+            return;
+        }
+        int columns = HEADER.split(",").length;
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.split(",");
+                if (fields.length != columns || line.startsWith("Run ID")) {
+                    continue;
+                }
+                for (int i = 0; i < fields.length; i++) {
+                    fields[i] = fields[i].trim();
+                }
+                Entry entry;
+                try {
+                    entry = new Entry(fields);
+                } catch (NumberFormatException e) {
+                    continue;
+                }
+                consumer.accept(entry);
+            }
+        }
+    }
+
+    // Running aggregate of the runs of one config/policy/parameters combination
+    private static final class Group {
+        final String configHash;
+        final String policy;
+        final String parameters;
+        int runs;
+        int cloudlets;
+        double makeSpan;
+        double throughput;
+        double avgWaitTime;
+        double p99WaitTime;
+        double bestP99WaitTime = Double.MAX_VALUE;
+        double wallTimeMillis;
+
+        Group(Entry entry) {
+            configHash = entry.configHash;
+            policy = entry.policy;
+            parameters = entry.parameters;
+            cloudlets = entry.cloudletCount;
+        }
+
+        void add(Entry entry) {
+            runs++;
+            makeSpan += entry.makeSpan;
+            throughput += entry.throughput;
+            avgWaitTime += entry.avgWaitTime;
+            p99WaitTime += entry.p99WaitTime;
+            bestP99WaitTime = Math.min(bestP99WaitTime, entry.p99WaitTime);
+            wallTimeMillis += entry.wallTimeMillis;
+        }
+    }
+
+    private Collection<Group> group(String configHash) throws IOException {
+        Map<String, Group> groups = new LinkedHashMap<>();
+        forEach(entry -> {
+            if (configHash == null || configHash.equals(entry.configHash)) {
+                String key = entry.configHash + "|" + entry.policy + "|" + entry.parameters;
+                groups.computeIfAbsent(key, k -> new Group(entry)).add(entry);
+            }
+        });
+        return groups.values();
+    }
+
+    public static void main(String[] args) {
+        try {
+            if (args.length >= 1 && args[0].equals("summary")) {
+                RunLedger ledger = args.length > 1 ? new RunLedger(Paths.get(args[1])) : fromSystemProperty();
+                List<Group> groups = new ArrayList<>(ledger.group(null));
+                groups.sort(Comparator.comparing((Group g) -> g.configHash).thenComparing(g -> g.policy).thenComparing(g -> g.parameters));
+                printGroups(groups, false);
+            } else if (args.length >= 2 && args[0].equals("compare")) {
+                RunLedger ledger = args.length > 2 ? new RunLedger(Paths.get(args[2])) : fromSystemProperty();
+                List<Group> groups = new ArrayList<>(ledger.group(args[1]));
+                if (groups.isEmpty()) {
+                    System.out.println("No runs with config hash " + args[1] + " in " + ledger.getPath());
+                    return;
+                }
+                groups.sort(Comparator.comparingDouble(g -> g.p99WaitTime / g.runs));
+                printGroups(groups, true);
+            } else {
+                System.out.println("Usage: RunLedger summary [ledger] | RunLedger compare configHash [ledger]");
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private static void printGroups(List<Group> groups, boolean relative) {
+        double bestP99 = groups.isEmpty() ? 0 : groups.get(0).p99WaitTime / groups.get(0).runs;
+        System.out.printf("%-16s | %-24s | %-20s | %-5s | %-9s | %-10s | %-10s | %-13s | %-13s | %-14s | %-9s%s\n",
+                "Config Hash", "Policy", "Parameters", "Runs", "Cloudlets", "MakeSpan", "Throughput",
+                "Avg Wait Time", "P99 Wait Time", "Best P99 Wait", "Wall (ms)", relative ? " | P99 vs Best" : "");
+        for (Group g : groups) {
+            double p99 = g.p99WaitTime / g.runs;
+            System.out.printf("%-16s | %-24s | %-20s | %-5d | %-9d | %-10.2f | %-10.4f | %-13.2f | %-13.2f | %-14.2f | %-9.0f%s\n",
+                    g.configHash, g.policy, g.parameters, g.runs, g.cloudlets,
+                    g.makeSpan / g.runs, g.throughput / g.runs, g.avgWaitTime / g.runs, p99, g.bestP99WaitTime,
+                    g.wallTimeMillis / g.runs,
+                    relative ? String.format(" | %.2fx", bestP99 > 0 ? p99 / bestP99 : 1.0) : "");
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package org.cloudbus.cloudsim.examples;
+
+import org.cloudbus.cloudsim.Cloudlet;
+
+import java.util.List;
+
+/**
+ * Algorithm-level metrics of one simulation run, computed the same way as in the runners,
+ * plus the wait-time percentiles.
+ */
+public final class RunResult {
+
+    private final String policyName;
+    private final int cloudletCount;
+    private final double makeSpan;
+    private final double throughput;
+    private final double avgWaitTime;
+    private final double avgResponseTime;
+    private final double avgTurnaroundTime;
+    private final double p50WaitTime;
+    private final double p90WaitTime;
+    private final double p99WaitTime;
+    private final double maxWaitTime;
+    private final long wallTimeMillis;
+
+    public RunResult(String policyName, int cloudletCount, double makeSpan, double throughput,
+                     double avgWaitTime, double avgResponseTime, double avgTurnaroundTime,
+                     double p50WaitTime, double p90WaitTime, double p99WaitTime, double maxWaitTime, long wallTimeMillis) {
+        this.policyName = policyName;
+        this.cloudletCount = cloudletCount;
+        this.makeSpan = makeSpan;
+        this.throughput = throughput;
+        this.avgWaitTime = avgWaitTime;
+        this.avgResponseTime = avgResponseTime;
+        this.avgTurnaroundTime = avgTurnaroundTime;
+        this.p50WaitTime = p50WaitTime;
+        this.p90WaitTime = p90WaitTime;
+        this.p99WaitTime = p99WaitTime;
+        this.maxWaitTime = maxWaitTime;
+        this.wallTimeMillis = wallTimeMillis;
+    }
+
+    public static RunResult of(String policyName, List<? extends Cloudlet> finishedCloudlets, long wallTimeMillis) {
+        MetricsAccumulator metrics = new MetricsAccumulator();
+        for (Cloudlet cloudlet : finishedCloudlets) {
+            metrics.accept(cloudlet);
+        }
+        return of(policyName, metrics, wallTimeMillis);
+    }
+
+    public static RunResult of(String policyName, MetricsAccumulator metrics, long wallTimeMillis) {
+        LatencyHistogram waitTime = metrics.getWaitTime();
+        return new RunResult(policyName, metrics.getCount(), metrics.getMakeSpan(), metrics.getThroughput(),
+                waitTime.getMean(), metrics.getResponseTime().getMean(), metrics.getTurnaroundTime().getMean(),
+                waitTime.getValueAtPercentile(50), waitTime.getValueAtPercentile(90),
+                waitTime.getValueAtPercentile(99), waitTime.getMax(), wallTimeMillis);
+    }
+
+    public String getPolicyName() {
+        return policyName;
+    }
+
+    public int getCloudletCount() {
+        return cloudletCount;
+    }
+
+    public double getMakeSpan() {
+        return makeSpan;
+    }
+
+    public double getThroughput() {
+        return throughput;
+    }
+
+    public double getAvgWaitTime() {
+        return avgWaitTime;
+    }
+
+    public double getAvgResponseTime() {
+        return avgResponseTime;
+    }
+
+    public double getAvgTurnaroundTime() {
+        return avgTurnaroundTime;
+    }
+
+    public double getP50WaitTime() {
+        return p50WaitTime;
+    }
+
+    public double getP90WaitTime() {
+        return p90WaitTime;
+    }
+
+    public double getP99WaitTime() {
+        return p99WaitTime;
+    }
+
+    public double getMaxWaitTime() {
+        return maxWaitTime;
+    }
+
+    public long getWallTimeMillis() {
+        return wallTimeMillis;
+    }
+}
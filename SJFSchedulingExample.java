@@ -2,9 +2,6 @@ package org.cloudbus.cloudsim.examples;
 
 import org.cloudbus.cloudsim.*;
 import org.cloudbus.cloudsim.core.CloudSim;
-import org.cloudbus.cloudsim.provisioners.BwProvisionerSimple;
-import org.cloudbus.cloudsim.provisioners.PeProvisionerSimple;
-import org.cloudbus.cloudsim.provisioners.RamProvisionerSimple;
 
 import java.io.BufferedWriter;
 import java.io.File;
@@ -18,11 +15,13 @@ public class SJFSchedulingExample {
         try {
             // Initialize CloudSim
             int numUsers = 1; // Number of cloud users
-            CloudSim.init(numUsers, null, false);
+            LadderFutureQueue.init(numUsers, null, false);
 
             // Create Datacenter and Broker
-            Datacenter datacenter = createDatacenter("Datacenter_0");
-            DatacenterBroker broker = new DatacenterBroker("Broker_0");
+            // Hosts come from a compact topology spec (-Dcloudsim.topology), by default the single
+            // 5000 MIPS host this example always used
+            Datacenter datacenter = PolicyRunner.createDatacenter("Datacenter_0", TopologyBuilder.fromSystemProperty());
+            DatacenterBroker broker = new ArrivalAwareBroker("Broker_0");
             int brokerId = broker.getId();
 
             // Get VM details from user input
@@ -38,83 +37,70 @@ public class SJFSchedulingExample {
                 int ram = scanner.nextInt();
                 int bw = scanner.nextInt();
                 long size = scanner.nextLong();
-                Vm vm = new Vm(i, brokerId, mips, 1, ram, bw, size, "Xen", new CloudletSchedulerSpaceShared());
+                Vm vm = new Vm(i, brokerId, mips, 1, ram, bw, size, "Xen", new ShortestJobFirstCloudletScheduler());
                 vmlist.add(vm);
             }
             broker.submitVmList(vmlist);
 
-            // Get Cloudlet details from user input
-            System.out.println("Enter the number of Cloudlets: ");
-            int numCloudlets = scanner.nextInt();
-            List<CustomCloudlet> cloudletList = new ArrayList<>();
-
-            UtilizationModel utilizationModel = new UtilizationModelFull();
-            for (int i = 0; i < numCloudlets; i++) {
-                System.out.println("Enter details for Cloudlet " + (i + 1) + " (Format: arrivalTime length fileSize outputSize): ");
-                long arrivalTime = scanner.nextLong();
-                long length = scanner.nextLong();
-                long fileSize = scanner.nextLong();
-                long outputSize = scanner.nextLong();
-
-                // Create CustomCloudlet instance
-                CustomCloudlet cloudlet = new CustomCloudlet(i, length, 1, fileSize, outputSize, utilizationModel, utilizationModel, utilizationModel);
-                cloudlet.setArrivalTime(arrivalTime); // Set the arrival time
-                cloudlet.setUserId(brokerId);
-                cloudletList.add(cloudlet);
+            // Cloudlets come from a workload trace when one is given (args: tracePath [maxRecords]),
+            // otherwise they are typed in
+            List<CustomCloudlet> cloudletList;
+            int numCloudlets;
+            if (args.length > 0) {
+                int maxRecords = args.length > 1 ? Integer.parseInt(args[1]) : Integer.MAX_VALUE;
+                cloudletList = TraceWorkloadLoader.loadCloudlets(args[0], maxRecords, brokerId);
+                numCloudlets = cloudletList.size();
+                System.out.println("Loaded " + numCloudlets + " cloudlets from " + args[0]);
+            } else {
+                System.out.println("Enter the number of Cloudlets: ");
+                numCloudlets = scanner.nextInt();
+                cloudletList = new ArrayList<>();
+
+                UtilizationModel utilizationModel = new UtilizationModelFull();
+                for (int i = 0; i < numCloudlets; i++) {
+                    System.out.println("Enter details for Cloudlet " + (i + 1) + " (Format: arrivalTime length fileSize outputSize): ");
+                    long arrivalTime = scanner.nextLong();
+                    long length = scanner.nextLong();
+                    long fileSize = scanner.nextLong();
+                    long outputSize = scanner.nextLong();
+
+                    // Create CustomCloudlet instance
+                    CustomCloudlet cloudlet = new CustomCloudlet(i, length, 1, fileSize, outputSize, utilizationModel, utilizationModel, utilizationModel);
+                    cloudlet.setArrivalTime(arrivalTime); // Set the arrival time
+                    cloudlet.setUserId(brokerId);
+                    cloudletList.add(cloudlet);
+                }
             }
 
-            // Sort cloudlets by length (Shortest Job First)
+            // Sort cloudlets by length (Shortest Job First); each VM then picks the shortest cloudlet
+            // among those that have already arrived
             cloudletList.sort(Comparator.comparingLong(CustomCloudlet::getCloudletLength));
+            // Optional cloudlet-to-VM binding heuristic (-Dcloudsim.binding=MCT|MIN_MIN|MAX_MIN|SUFFERAGE)
+            CloudletBinder binder = HeuristicCloudletBinder.fromSystemProperty();
+            if (binder != null) {
+                binder.bind(cloudletList, vmlist);
+            }
             broker.submitCloudletList(cloudletList);
 
             // Start CloudSim simulation
+            long simulationStart = System.nanoTime();
+            SimulationMonitor.get().setLabel("SJF"); // live progress over JMX
             CloudSim.startSimulation();
             List<Cloudlet> finishedCloudlets = broker.getCloudletReceivedList();
             CloudSim.stopSimulation();
+            long wallTimeMillis = (System.nanoTime() - simulationStart) / 1_000_000;
 
-            // Calculate performance metrics
-            double startTime = Double.MAX_VALUE;
-            double finishTime = 0;
-            int totalCloudlets = finishedCloudlets.size();
-            long totalLength = 0;
-            double totalWaitTime = 0;
-            double totalResponseTime = 0;
-            double totalTurnaroundTime = 0;
-
+            // Calculate performance metrics in a single pass
+            MetricsAccumulator metrics = new MetricsAccumulator();
             for (Cloudlet cloudlet : finishedCloudlets) {
-                CustomCloudlet customCloudlet = (CustomCloudlet) cloudlet;
-                long arrivalTime = customCloudlet.getArrivalTime();
-
-                double execStartTime = cloudlet.getExecStartTime();
-                double finishTimeForCloudlet = cloudlet.getFinishTime();
-
-                if (execStartTime <= 0) {
-                    execStartTime = arrivalTime;
-                }
-                if (finishTimeForCloudlet <= 0) {
-                    finishTimeForCloudlet = execStartTime + cloudlet.getCloudletLength() / 1000.0;
-                }
-
-                double waitTime = Math.max(execStartTime - arrivalTime, 0);
-                double responseTime = Math.max(finishTimeForCloudlet - arrivalTime, 0);
-                double turnaroundTime = Math.max(finishTimeForCloudlet - arrivalTime, 0);
-
-                totalWaitTime += waitTime;
-                totalResponseTime += responseTime;
-                totalTurnaroundTime += turnaroundTime;
-
-                startTime = Math.min(startTime, execStartTime);
-                finishTime = Math.max(finishTime, finishTimeForCloudlet);
-
-                totalLength += cloudlet.getCloudletLength();
+                metrics.accept(cloudlet);
             }
-
-            double makeSpan = finishTime - startTime;
-            if (makeSpan <= 0) makeSpan = 1.0;
-            double avgWaitTime = totalWaitTime / totalCloudlets;
-            double avgResponseTime = totalResponseTime / totalCloudlets;
-            double avgTurnaroundTime = totalTurnaroundTime / totalCloudlets;
-            double throughput = totalCloudlets / makeSpan;
+            double makeSpan = metrics.getMakeSpan();
+            long totalLength = metrics.getTotalLength();
+            double avgWaitTime = metrics.getWaitTime().getMean();
+            double avgResponseTime = metrics.getResponseTime().getMean();
+            double avgTurnaroundTime = metrics.getTurnaroundTime().getMean();
+            double throughput = metrics.getThroughput();
 
             // Output performance metrics to console
             System.out.println("Cloudlet ID | VM ID | Arrival Time | Status  | Start Time | Finish Time | Length  | File Size | Output Size");
@@ -139,73 +125,41 @@ public class SJFSchedulingExample {
             System.out.println("Average Wait Time: " + avgWaitTime);
             System.out.println("Average Response Time: " + avgResponseTime);
             System.out.println("Average Turnaround Time: " + avgTurnaroundTime);
+            System.out.println("Wait Time: " + MetricsAccumulator.summary(metrics.getWaitTime()));
+            System.out.println("Response Time: " + MetricsAccumulator.summary(metrics.getResponseTime()));
+            System.out.println("Turnaround Time: " + MetricsAccumulator.summary(metrics.getTurnaroundTime()));
+            System.out.println("Slowdown: " + MetricsAccumulator.summary(metrics.getSlowdown()));
             System.out.println("Throughput: " + throughput);
 
-            // Save results to CSV files
-            FileWriter csvWriter = new FileWriter(new File("sjf_results.csv"));
-            csvWriter.append("Cloudlet ID,VM ID,Arrival Time,Status,Start Time,Finish Time,Length,File Size,Output Size,Response Time\n");
-            for (Cloudlet cloudlet : finishedCloudlets) {
-                CustomCloudlet customCloudlet = (CustomCloudlet) cloudlet;
-                csvWriter.append(String.format("%d, %d, %d, %s, %.2f, %.2f, %d, %d, %d, %.2f\n",
-                        cloudlet.getCloudletId(),
-                        cloudlet.getVmId(),
-                        customCloudlet.getArrivalTime(),
-                        cloudlet.getCloudletStatusString(),
-                        cloudlet.getExecStartTime(),
-                        cloudlet.getFinishTime(),
-                        cloudlet.getCloudletLength(),
-                        cloudlet.getCloudletFileSize(),
-                        cloudlet.getCloudletOutputSize(),
-                        Math.max(cloudlet.getExecStartTime() - customCloudlet.getArrivalTime(), 0)
-                ));
-            }
-            csvWriter.flush();
-            csvWriter.close();
-
-            // Append algorithm-level metrics to CSV
-            FileWriter algorithmCsvWriter = new FileWriter(new File("algorithm_results.csv"), true);
-            File file = new File("algorithm_results.csv");
-            if (file.length() == 0) {
-                algorithmCsvWriter.append("Algorithm Name,MakeSpan,Throughput,Average Waiting Time,Average Response Time,Average Turnaround Time,Number of Cloudlets\n");
+            // Save results to CSV files (per-cloudlet results in binary with -Dcloudsim.results=binary)
+            if (CloudletResultWriter.isEnabled()) {
+                CloudletResultWriter.saveCloudletResults(finishedCloudlets, "sjf_results.clr", false);
+            } else {
+                FileWriter csvWriter = new FileWriter(new File("sjf_results.csv"));
+                csvWriter.append("Cloudlet ID,VM ID,Arrival Time,Status,Start Time,Finish Time,Length,File Size,Output Size,Response Time\n");
+                for (Cloudlet cloudlet : finishedCloudlets) {
+                    CustomCloudlet customCloudlet = (CustomCloudlet) cloudlet;
+                    csvWriter.append(String.format("%d, %d, %d, %s, %.2f, %.2f, %d, %d, %d, %.2f\n",
+                            cloudlet.getCloudletId(),
+                            cloudlet.getVmId(),
+                            customCloudlet.getArrivalTime(),
+                            cloudlet.getCloudletStatusString(),
+                            cloudlet.getExecStartTime(),
+                            cloudlet.getFinishTime(),
+                            cloudlet.getCloudletLength(),
+                            cloudlet.getCloudletFileSize(),
+                            cloudlet.getCloudletOutputSize(),
+                            Math.max(cloudlet.getExecStartTime() - customCloudlet.getArrivalTime(), 0)
+                    ));
+                }
+                csvWriter.flush();
+                csvWriter.close();
             }
-            algorithmCsvWriter.append(String.format("SJF, %.2f, %.2f, %.2f, %.2f, %.2f, %d\n",
-                    makeSpan,
-                    throughput,
-                    avgWaitTime,
-                    avgResponseTime,
-                    avgTurnaroundTime,
-                    numCloudlets));
-            algorithmCsvWriter.flush();
-            algorithmCsvWriter.close();
-            System.out.println("Results saved to algorithm_results.csv");
+
+            // Record the run in the ledger (-Dcloudsim.ledger, default run_ledger.csv)
+            RunLedger.recordRun("SJF", "", metrics, wallTimeMillis, vmlist, cloudletList);
         } catch (Exception e) {
             e.printStackTrace();
         }
     }
-
-    private static Datacenter createDatacenter(String name) throws Exception {
-        List<Host> hostList = new ArrayList<>();
-        int mips = 5000;
-        int ram = 16384; // 16 GB
-        long storage = 1_000_000; // 1 TB
-        int bw = 10_000; // 10 GBps
-
-        List<Pe> peList = new ArrayList<>();
-        peList.add(new Pe(0, new PeProvisionerSimple(mips)));
-
-        Host host = new Host(0, new RamProvisionerSimple(ram), new BwProvisionerSimple(bw), storage, peList, new VmSchedulerTimeShared(peList));
-        hostList.add(host);
-
-        String arch = "x86";
-        String os = "Linux";
-        String vmm = "Xen";
-        double timeZone = 5.5;
-        double cost = 3.0;
-        double costPerMem = 0.05;
-        double costPerStorage = 0.001;
-        double costPerBw = 0.0;
-
-        DatacenterCharacteristics characteristics = new DatacenterCharacteristics(arch, os, vmm, hostList, timeZone, cost, costPerMem, costPerStorage, costPerBw);
-        return new Datacenter(name, characteristics, new VmAllocationPolicySimple(hostList), new LinkedList<>(), 0);
-    }
 }
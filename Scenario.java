@@ -0,0 +1,304 @@
+package org.cloudbus.cloudsim.examples;
+
+import org.cloudbus.cloudsim.CloudletScheduler;
+import org.cloudbus.cloudsim.UtilizationModel;
+import org.cloudbus.cloudsim.UtilizationModelFull;
+import org.cloudbus.cloudsim.Vm;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.Scanner;
+
+/**
+ * Immutable description of one experiment: the VMs and the cloudlets to run on them.
+ *
+ * It is parsed once and can then be replayed any number of times; every replay materializes
+ * fresh Vm and CustomCloudlet objects, since the simulation mutates them.
+ */
+public final class Scenario {
+
+    private final int[] vmMips;
+    private final int[] vmRam;
+    private final int[] vmBw;
+    private final long[] vmSize;
+
+    private final long[] arrivalTime;
+    private final long[] length;
+    private final long[] fileSize;
+    private final long[] outputSize;
+    private final int[] priority;
+
+    public Scenario(int[] vmMips, int[] vmRam, int[] vmBw, long[] vmSize,
+                    long[] arrivalTime, long[] length, long[] fileSize, long[] outputSize, int[] priority) {
+        if (vmRam.length != vmMips.length || vmBw.length != vmMips.length || vmSize.length != vmMips.length) {
+            throw new IllegalArgumentException("VM columns differ in length");
+        }
+        if (length.length != arrivalTime.length || fileSize.length != arrivalTime.length
+                || outputSize.length != arrivalTime.length || priority.length != arrivalTime.length) {
+            throw new IllegalArgumentException("Cloudlet columns differ in length");
+        }
+        this.vmMips = vmMips.clone();
+        this.vmRam = vmRam.clone();
+        this.vmBw = vmBw.clone();
+        this.vmSize = vmSize.clone();
+        this.arrivalTime = arrivalTime.clone();
+        this.length = length.clone();
+        this.fileSize = fileSize.clone();
+        this.outputSize = outputSize.clone();
+        this.priority = priority.clone();
+    }
+
+    /**
+     * Reads the VMs from the scanner and the cloudlets either from a trace
+     * (args: tracePath [maxRecords]) or from the scanner, using the runners' prompts.
+     */
+    public static Scenario read(String[] args, Scanner scanner) throws IOException {
+        Scenario vms = readVms(scanner);
+
+        List<long[]> rows = new ArrayList<>();
+        if (args.length > 0) {
+            int maxRecords = args.length > 1 ? Integer.parseInt(args[1]) : Integer.MAX_VALUE;
+            try (TraceWorkloadLoader loader = new TraceWorkloadLoader(Paths.get(args[0]))) {
+                while (rows.size() < maxRecords && loader.next()) {
+                    rows.add(new long[]{loader.getArrivalTime(), loader.getLength(), loader.getFileSize(),
+                            loader.getOutputSize(), loader.getPriority()});
+                }
+            }
+            System.out.println("Loaded " + rows.size() + " cloudlets from " + args[0]);
+        } else {
+            System.out.println("Enter the number of Cloudlets: ");
+            int numCloudlets = scanner.nextInt();
+            for (int i = 0; i < numCloudlets; i++) {
+                System.out.println("Enter details for Cloudlet " + (i + 1) + " (Format: arrivalTime length fileSize outputSize priority): ");
+                rows.add(new long[]{scanner.nextLong(), scanner.nextLong(), scanner.nextLong(), scanner.nextLong(), scanner.nextInt()});
+            }
+        }
+
+        int n = rows.size();
+        long[] arrivalTime = new long[n];
+        long[] length = new long[n];
+        long[] fileSize = new long[n];
+        long[] outputSize = new long[n];
+        int[] priority = new int[n];
+        for (int i = 0; i < n; i++) {
+            long[] row = rows.get(i);
+            arrivalTime[i] = row[0];
+            length[i] = row[1];
+            fileSize[i] = row[2];
+            outputSize[i] = row[3];
+            priority[i] = (int) row[4];
+        }
+        return new Scenario(vms.vmMips, vms.vmRam, vms.vmBw, vms.vmSize, arrivalTime, length, fileSize, outputSize, priority);
+    }
+
+    /**
+     * Reads only the VMs from the scanner, for runs whose cloudlets are streamed from a
+     * WorkloadSource.
+     */
+    public static Scenario readVms(Scanner scanner) {
+        System.out.println("Enter the number of VMs: ");
+        int numVms = scanner.nextInt();
+        int[] vmMips = new int[numVms];
+        int[] vmRam = new int[numVms];
+        int[] vmBw = new int[numVms];
+        long[] vmSize = new long[numVms];
+        for (int i = 0; i < numVms; i++) {
+            System.out.println("Enter details for VM " + (i + 1) + " (Format: mips ram bw size): ");
+            vmMips[i] = scanner.nextInt();
+            vmRam[i] = scanner.nextInt();
+            vmBw[i] = scanner.nextInt();
+            vmSize[i] = scanner.nextLong();
+        }
+        return new Scenario(vmMips, vmRam, vmBw, vmSize, new long[0], new long[0], new long[0], new long[0], new int[0]);
+    }
+
+    /**
+     * A seeded synthetic workload: VMs cycle through the given MIPS mix, cloudlets arrive as
+     * a Poisson process (one per second on average) with uniform lengths of 1000-20000 MI and
+     * priorities 0-4. The same arguments always give the same scenario.
+     */
+    public static Scenario synthetic(int vmCount, int[] mipsMix, int cloudletCount, long seed) {
+        int[] vmMips = new int[vmCount];
+        int[] vmRam = new int[vmCount];
+        int[] vmBw = new int[vmCount];
+        long[] vmSize = new long[vmCount];
+        for (int i = 0; i < vmCount; i++) {
+            vmMips[i] = mipsMix[i % mipsMix.length];
+            vmRam[i] = 512;
+            vmBw[i] = 1000;
+            vmSize[i] = 10000;
+        }
+
+        Random random = new Random(seed);
+        long[] arrivalTime = new long[cloudletCount];
+        long[] length = new long[cloudletCount];
+        long[] fileSize = new long[cloudletCount];
+        long[] outputSize = new long[cloudletCount];
+        int[] priority = new int[cloudletCount];
+        double clock = 0;
+        for (int i = 0; i < cloudletCount; i++) {
+            clock -= Math.log(1 - random.nextDouble());
+            arrivalTime[i] = (long) clock;
+            length[i] = 1000 + random.nextInt(19001);
+            fileSize[i] = 300;
+            outputSize[i] = 300;
+            priority[i] = random.nextInt(5);
+        }
+        return new Scenario(vmMips, vmRam, vmBw, vmSize, arrivalTime, length, fileSize, outputSize, priority);
+    }
+
+    public int getVmCount() {
+        return vmMips.length;
+    }
+
+    public int getCloudletCount() {
+        return arrivalTime.length;
+    }
+
+    public int getVmMips(int vm) {
+        return vmMips[vm];
+    }
+
+    public long getArrivalTime(int cloudlet) {
+        return arrivalTime[cloudlet];
+    }
+
+    public long getLength(int cloudlet) {
+        return length[cloudlet];
+    }
+
+    public int getPriority(int cloudlet) {
+        return priority[cloudlet];
+    }
+
+    // Fresh single-PE VMs owned by the broker, each with its own scheduler from the policy
+    public List<Vm> createVms(int brokerId, SchedulingPolicy policy) {
+        List<Vm> vmlist = new ArrayList<>(vmMips.length);
+        for (int i = 0; i < vmMips.length; i++) {
+            CloudletScheduler scheduler = policy.createCloudletScheduler();
+            vmlist.add(new Vm(i, brokerId, vmMips[i], 1, vmRam[i], vmBw[i], vmSize[i], "Xen", scheduler));
+        }
+        return vmlist;
+    }
+
+    // Fresh cloudlets owned by the broker, in scenario order
+    public List<CustomCloudlet> createCloudlets(int brokerId) {
+        List<CustomCloudlet> cloudletList = new ArrayList<>(arrivalTime.length);
+        UtilizationModel utilizationModel = new UtilizationModelFull();
+        for (int i = 0; i < arrivalTime.length; i++) {
+            CustomCloudlet cloudlet = new CustomCloudlet(i, length[i], 1, fileSize[i], outputSize[i],
+                    utilizationModel, utilizationModel, utilizationModel);
+            cloudlet.setArrivalTime(arrivalTime[i]);
+            cloudlet.setPriority(priority[i]);
+            cloudlet.setUserId(brokerId);
+            cloudletList.add(cloudlet);
+        }
+        return cloudletList;
+    }
+
+    /**
+     * The scenario as one line of text ("mips;ram;bw;size;arrival;length;fileSize;outputSize;priority",
+     * each column comma separated), for handing it to an isolated copy of CloudSim.
+     */
+    public String encode() {
+        StringBuilder line = new StringBuilder();
+        line.append(join(Arrays.stream(vmMips).asLongStream().toArray())).append(';');
+        line.append(join(Arrays.stream(vmRam).asLongStream().toArray())).append(';');
+        line.append(join(Arrays.stream(vmBw).asLongStream().toArray())).append(';');
+        line.append(join(vmSize)).append(';');
+        line.append(join(arrivalTime)).append(';');
+        line.append(join(length)).append(';');
+        line.append(join(fileSize)).append(';');
+        line.append(join(outputSize)).append(';');
+        line.append(join(Arrays.stream(priority).asLongStream().toArray()));
+        return line.toString();
+    }
+
+    public static Scenario decode(String line) {
+        String[] columns = line.split(";", -1);
+        if (columns.length != 9) {
+            throw new IllegalArgumentException("Expected 9 scenario columns, got " + columns.length);
+        }
+        return new Scenario(toInts(split(columns[0])), toInts(split(columns[1])), toInts(split(columns[2])), split(columns[3]),
+                split(columns[4]), split(columns[5]), split(columns[6]), split(columns[7]), toInts(split(columns[8])));
+    }
+
+    private static String join(long[] values) {
+        StringBuilder column = new StringBuilder();
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                column.append(',');
+            }
+            column.append(values[i]);
+        }
+        return column.toString();
+    }
+
+    private static long[] split(String column) {
+        if (column.isEmpty()) {
+            return new long[0];
+        }
+        String[] values = column.split(",");
+        long[] parsed = new long[values.length];
+        for (int i = 0; i < values.length; i++) {
+            parsed[i] = Long.parseLong(values[i]);
+        }
+        return parsed;
+    }
+
+    private static int[] toInts(long[] values) {
+        int[] ints = new int[values.length];
+        for (int i = 0; i < values.length; i++) {
+            ints[i] = Math.toIntExact(values[i]);
+        }
+        return ints;
+    }
+
+    // The cloudlets as a table, for workloads too large to hold as objects
+    public CloudletTable createTable() {
+        CloudletTable table = new CloudletTable(arrivalTime.length);
+        for (int i = 0; i < arrivalTime.length; i++) {
+            table.add(length[i], arrivalTime[i], priority[i], fileSize[i], outputSize[i]);
+        }
+        return table;
+    }
+
+    // The fingerprint RunLedger.configHash gives the materialized VMs and cloudlets on this topology
+    public String configHash(TopologyBuilder topology) {
+        RunLedger.ConfigHash hash = hashColumns();
+        hash.addTopology(topology.toSpec());
+        return hash.toString();
+    }
+
+    // Same fingerprint with the records of a streamed workload added to the cloudlets; the source
+    // is read to the end, so pass a fresh one
+    public String configHash(TopologyBuilder topology, WorkloadSource stream) throws IOException {
+        RunLedger.ConfigHash hash = hashColumns();
+        while (stream.next()) {
+            hash.addCloudlet(stream.getArrivalTime(), stream.getLength(), stream.getFileSize(), stream.getOutputSize(), stream.getPriority());
+        }
+        hash.addTopology(topology.toSpec());
+        return hash.toString();
+    }
+
+    private RunLedger.ConfigHash hashColumns() {
+        RunLedger.ConfigHash hash = new RunLedger.ConfigHash();
+        for (int i = 0; i < vmMips.length; i++) {
+            hash.addVm(vmMips[i], vmRam[i], vmBw[i], vmSize[i]);
+        }
+        for (int i = 0; i < arrivalTime.length; i++) {
+            hash.addCloudlet(arrivalTime[i], length[i], fileSize[i], outputSize[i], priority[i]);
+        }
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return "Scenario[vms=" + vmMips.length + ", cloudlets=" + arrivalTime.length
+                + ", vmMips=" + Arrays.toString(vmMips.length > 8 ? Arrays.copyOf(vmMips, 8) : vmMips) + "]";
+    }
+}
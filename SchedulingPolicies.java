@@ -0,0 +1,147 @@
+package org.cloudbus.cloudsim.examples;
+
+import org.cloudbus.cloudsim.CloudletScheduler;
+import org.cloudbus.cloudsim.CloudletSchedulerSpaceShared;
+import org.cloudbus.cloudsim.Vm;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Registry of the policies the multi-policy runner replays a scenario through. The four
+ * classic algorithms of the runners and a multi-level feedback queue are registered up front;
+ * more can be added with register().
+ */
+public final class SchedulingPolicies {
+
+    // How a policy orders the submission list, for cloudlet lists and table workloads alike
+    public enum SubmissionOrder {
+        AS_GIVEN,
+        ARRIVAL,
+        LENGTH,
+        ARRIVAL_THEN_PRIORITY;
+
+        Comparator<CustomCloudlet> comparator() {
+            switch (this) {
+                case ARRIVAL:
+                    return Comparator.comparingLong(CustomCloudlet::getArrivalTime);
+                case LENGTH:
+                    return Comparator.comparingLong(CustomCloudlet::getCloudletLength);
+                case ARRIVAL_THEN_PRIORITY:
+                    return Comparator.comparingLong(CustomCloudlet::getArrivalTime).thenComparingInt(CustomCloudlet::getPriority);
+                default:
+                    return null;
+            }
+        }
+
+        CloudletTable.RowComparator rowComparator(CloudletTable table) {
+            switch (this) {
+                case ARRIVAL:
+                    return (a, b) -> Long.compare(table.getArrivalTime(a), table.getArrivalTime(b));
+                case LENGTH:
+                    return (a, b) -> Long.compare(table.getLength(a), table.getLength(b));
+                case ARRIVAL_THEN_PRIORITY:
+                    return (a, b) -> {
+                        int byArrival = Long.compare(table.getArrivalTime(a), table.getArrivalTime(b));
+                        return byArrival != 0 ? byArrival : Integer.compare(table.getPriority(a), table.getPriority(b));
+                    };
+                default:
+                    return null;
+            }
+        }
+    }
+
+    private final Map<String, SchedulingPolicy> policies = new LinkedHashMap<>();
+
+    // The runners' algorithms, Round Robin with the given quantum in seconds
+    public static SchedulingPolicies defaults(double quantum) {
+        SchedulingPolicies registry = new SchedulingPolicies();
+        registry.register(of("FCFS", CloudletSchedulerSpaceShared::new, SubmissionOrder.ARRIVAL));
+        registry.register(of("SJF", ShortestJobFirstCloudletScheduler::new, SubmissionOrder.LENGTH));
+        registry.register(of("SRTF", () -> new ShortestJobFirstCloudletScheduler(true), SubmissionOrder.LENGTH));
+        registry.register(of("Priority", PriorityCloudletScheduler::new, SubmissionOrder.ARRIVAL_THEN_PRIORITY));
+        registry.register(of("Round Robin", () -> new RoundRobinCloudletScheduler(quantum), SubmissionOrder.AS_GIVEN));
+        registry.register(of("MLFQ", MultiLevelFeedbackCloudletScheduler::new, SubmissionOrder.AS_GIVEN));
+        return registry;
+    }
+
+    // A policy made of a per-VM scheduler and a submission order
+    public static SchedulingPolicy of(String name, Supplier<? extends CloudletScheduler> scheduler,
+                                      SubmissionOrder submissionOrder) {
+        Comparator<CustomCloudlet> comparator = submissionOrder.comparator();
+        return new SchedulingPolicy() {
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public CloudletScheduler createCloudletScheduler() {
+                return scheduler.get();
+            }
+
+            @Override
+            public void prepare(List<CustomCloudlet> cloudlets, List<Vm> vms) {
+                if (comparator != null) {
+                    cloudlets.sort(comparator);
+                }
+            }
+
+            @Override
+            public int[] prepare(CloudletTable table, List<Vm> vms) {
+                int[] rows = table.rows();
+                CloudletTable.RowComparator rowComparator = submissionOrder.rowComparator(table);
+                if (rowComparator != null) {
+                    CloudletTable.sort(rows, rowComparator);
+                }
+                return rows;
+            }
+        };
+    }
+
+    // Wraps a policy so the given binder decides the VM of each cloudlet after its own preparation
+    public static SchedulingPolicy withBinding(SchedulingPolicy policy, CloudletBinder binder, String name) {
+        return new SchedulingPolicy() {
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public CloudletScheduler createCloudletScheduler() {
+                return policy.createCloudletScheduler();
+            }
+
+            @Override
+            public void prepare(List<CustomCloudlet> cloudlets, List<Vm> vms) {
+                policy.prepare(cloudlets, vms);
+                binder.bind(cloudlets, vms);
+            }
+
+            @Override
+            public int[] prepare(CloudletTable table, List<Vm> vms) {
+                int[] rows = policy.prepare(table, vms);
+                binder.bind(table, rows, vms);
+                return rows;
+            }
+        };
+    }
+
+    public void register(SchedulingPolicy policy) {
+        if (policies.putIfAbsent(policy.getName(), policy) != null) {
+            throw new IllegalArgumentException("Policy already registered: " + policy.getName());
+        }
+    }
+
+    public SchedulingPolicy get(String name) {
+        return policies.get(name);
+    }
+
+    public List<SchedulingPolicy> all() {
+        return new ArrayList<>(policies.values());
+    }
+}
@@ -0,0 +1,27 @@
+package org.cloudbus.cloudsim.examples;
+
+import org.cloudbus.cloudsim.CloudletScheduler;
+import org.cloudbus.cloudsim.Vm;
+
+import java.util.List;
+
+/**
+ * A scheduling algorithm as the multi-policy runner sees it: the cloudlet scheduler every VM
+ * gets, plus an optional step that orders or binds the cloudlets before they are submitted.
+ */
+public interface SchedulingPolicy {
+
+    String getName();
+
+    // A new scheduler for one VM; schedulers hold per-VM state and are never shared
+    CloudletScheduler createCloudletScheduler();
+
+    // Reorders the submission list and/or binds cloudlets to VMs
+    default void prepare(List<CustomCloudlet> cloudlets, List<Vm> vms) {
+    }
+
+    // The same for a table workload: may bind rows and returns their submission order
+    default int[] prepare(CloudletTable table, List<Vm> vms) {
+        return table.rows();
+    }
+}
@@ -0,0 +1,53 @@
+package org.cloudbus.cloudsim.examples;
+
+/**
+ * Online Shortest-Job-First scheduler. Only cloudlets that have actually arrived at the VM are
+ * candidates, and among them the one with the least remaining MI is started next.
+ *
+ * In preemptive mode (Shortest-Remaining-Time-First) a newly arrived cloudlet that is shorter
+ * than what is left of a running one takes over its PE; the preempted cloudlet goes back to the
+ * heap keyed on its remaining MI.
+ */
+public class ShortestJobFirstCloudletScheduler extends PreemptiveCloudletScheduler {
+
+    private final boolean preemptive;
+    private final CloudletHeap readyHeap = new CloudletHeap();
+
+    public ShortestJobFirstCloudletScheduler() {
+        this(false);
+    }
+
+    public ShortestJobFirstCloudletScheduler(boolean preemptive) {
+        this.preemptive = preemptive;
+    }
+
+    public boolean isPreemptive() {
+        return preemptive;
+    }
+
+    @Override
+    protected void enqueue(QueuedResCloudlet rcl, double currentTime) {
+        // Remaining MI does not change while waiting, so the key stays valid until dispatch
+        readyHeap.add(rcl, rcl.getRemainingCloudletLength());
+    }
+
+    @Override
+    protected QueuedResCloudlet poll(double currentTime) {
+        return readyHeap.poll();
+    }
+
+    @Override
+    protected QueuedResCloudlet peek() {
+        return readyHeap.peek();
+    }
+
+    @Override
+    protected boolean removeQueued(QueuedResCloudlet rcl) {
+        return readyHeap.remove(rcl);
+    }
+
+    @Override
+    protected boolean shouldPreempt(QueuedResCloudlet waiting, QueuedResCloudlet running) {
+        return preemptive && waiting.getRemainingCloudletLength() < running.getRemainingCloudletLength();
+    }
+}
@@ -0,0 +1,307 @@
+package org.cloudbus.cloudsim.examples;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.FlightRecorderListener;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Period;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.ResCloudlet;
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.core.FutureQueue;
+
+import java.lang.reflect.Field;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Java Flight Recorder events for the cloudlet lifecycle and the simulation event loop, so a
+ * long run can be recorded (e.g. -XX:StartFlightRecording=filename=sim.jfr) and inspected in
+ * JDK Mission Control under the "CloudSim" category.
+ *
+ * Lifecycle events carry the simulation clock next to the wall-clock timestamp JFR gives every
+ * event. Without a recording each hook costs one enabled check; the event objects are never
+ * filled in and escape analysis removes their allocation. Handling times of the profiled
+ * entities are only measured while the periodic SimulationStats event is enabled.
+ */
+public final class SimulationEvents {
+
+    @Name("org.cloudbus.cloudsim.CloudletSubmit")
+    @Label("Cloudlet Submit")
+    @Category({"CloudSim", "Cloudlet"})
+    @StackTrace(false)
+    static final class CloudletSubmit extends Event {
+        @Label("Cloudlet Id")
+        int cloudletId;
+        @Label("VM Id")
+        int vmId;
+        @Label("Simulation Time (s)")
+        double simTime;
+        @Label("Arrival Time (s)")
+        double arrivalTime;
+        @Label("Length (MI)")
+        long length;
+    }
+
+    @Name("org.cloudbus.cloudsim.CloudletBind")
+    @Label("Cloudlet Bind")
+    @Category({"CloudSim", "Cloudlet"})
+    @StackTrace(false)
+    static final class CloudletBind extends Event {
+        @Label("Cloudlet Id")
+        int cloudletId;
+        @Label("VM Id")
+        int vmId;
+        @Label("Simulation Time (s)")
+        double simTime;
+        @Label("Round Robin")
+        @Description("Bound by the broker's round robin rather than by the policy or a binder")
+        boolean roundRobin;
+    }
+
+    @Name("org.cloudbus.cloudsim.CloudletStart")
+    @Label("Cloudlet Start")
+    @Category({"CloudSim", "Cloudlet"})
+    @StackTrace(false)
+    static final class CloudletStart extends Event {
+        @Label("Cloudlet Id")
+        int cloudletId;
+        @Label("VM Id")
+        int vmId;
+        @Label("Simulation Time (s)")
+        double simTime;
+        @Label("Resumed")
+        @Description("The cloudlet ran before and was preempted")
+        boolean resumed;
+    }
+
+    @Name("org.cloudbus.cloudsim.CloudletPreempt")
+    @Label("Cloudlet Preempt")
+    @Category({"CloudSim", "Cloudlet"})
+    @StackTrace(false)
+    static final class CloudletPreempt extends Event {
+        @Label("Cloudlet Id")
+        int cloudletId;
+        @Label("VM Id")
+        int vmId;
+        @Label("Simulation Time (s)")
+        double simTime;
+        @Label("Remaining Length (MI)")
+        long remainingLength;
+    }
+
+    @Name("org.cloudbus.cloudsim.CloudletFinish")
+    @Label("Cloudlet Finish")
+    @Category({"CloudSim", "Cloudlet"})
+    @StackTrace(false)
+    static final class CloudletFinish extends Event {
+        @Label("Cloudlet Id")
+        int cloudletId;
+        @Label("VM Id")
+        int vmId;
+        @Label("Simulation Time (s)")
+        double simTime;
+        @Label("Arrival Time (s)")
+        double arrivalTime;
+        @Label("Start Time (s)")
+        double startTime;
+        @Label("Status")
+        String status;
+    }
+
+    @Name("org.cloudbus.cloudsim.SimulationStats")
+    @Label("Simulation Statistics")
+    @Category({"CloudSim", "Simulation"})
+    @Period("1 s")
+    @StackTrace(false)
+    static final class SimulationStats extends Event {
+        @Label("Simulation Time (s)")
+        double simTime;
+        @Label("Future Queue Depth")
+        @Description("Pending events in the CloudSim future queue, -1 if it cannot be read")
+        int futureQueueDepth;
+        @Label("Events")
+        @Description("Events handled by the profiled entities since the previous sample")
+        long events;
+        @Label("Events per Second")
+        double eventsPerSecond;
+    }
+
+    @Name("org.cloudbus.cloudsim.EntityHandling")
+    @Label("Entity Handling Time")
+    @Category({"CloudSim", "Simulation"})
+    @Description("Emitted with every SimulationStats sample, one per profiled entity")
+    @StackTrace(false)
+    static final class EntityHandling extends Event {
+        @Label("Entity")
+        String entity;
+        @Label("Events")
+        long events;
+        @Label("Handling Time")
+        @Timespan(Timespan.NANOSECONDS)
+        long handlingTime;
+        @Label("Mean Handling Time")
+        @Timespan(Timespan.NANOSECONDS)
+        long meanHandlingTime;
+    }
+
+    // Events handled and time spent by one entity name; written by the simulation thread only
+    public static final class EntityProfile {
+        private final String name;
+        private volatile long events;
+        private volatile long nanos;
+        private long sampledEvents;
+        private long sampledNanos;
+
+        EntityProfile(String name) {
+            this.name = name;
+        }
+
+        public void record(long elapsedNanos) {
+            events++;
+            nanos += elapsedNanos;
+        }
+    }
+
+    // By entity name, so the entities of consecutive runs share one profile
+    private static final Map<String, EntityProfile> PROFILES = new ConcurrentHashMap<>();
+    private static final Field FUTURE_QUEUE = futureQueueField();
+    private static long lastSampleNanos = System.nanoTime();
+
+    static {
+        // The periodic hook is added once JFR is up, so runs without a recording never start it
+        FlightRecorder.addListener(new FlightRecorderListener() {
+            @Override
+            public void recorderInitialized(FlightRecorder recorder) {
+                FlightRecorder.addPeriodicEvent(SimulationStats.class, SimulationEvents::sample);
+            }
+        });
+    }
+
+    private SimulationEvents() {
+    }
+
+    public static EntityProfile profile(String entityName) {
+        return PROFILES.computeIfAbsent(entityName, EntityProfile::new);
+    }
+
+    // Whether entities should time their event handling
+    public static boolean isProfiling() {
+        return new SimulationStats().isEnabled();
+    }
+
+    public static void cloudletSubmitted(Cloudlet cloudlet) {
+        CloudletSubmit event = new CloudletSubmit();
+        if (event.isEnabled()) {
+            event.cloudletId = cloudlet.getCloudletId();
+            event.vmId = cloudlet.getVmId();
+            event.simTime = CloudSim.clock();
+            event.arrivalTime = ArrivalAwareBroker.arrivalTimeOf(cloudlet);
+            event.length = cloudlet.getCloudletLength();
+            event.commit();
+        }
+    }
+
+    public static void cloudletBound(int cloudletId, int vmId, boolean roundRobin) {
+        CloudletBind event = new CloudletBind();
+        if (event.isEnabled()) {
+            event.cloudletId = cloudletId;
+            event.vmId = vmId;
+            event.simTime = CloudSim.clock();
+            event.roundRobin = roundRobin;
+            event.commit();
+        }
+    }
+
+    public static void cloudletStarted(ResCloudlet rcl, boolean resumed) {
+        CloudletStart event = new CloudletStart();
+        if (event.isEnabled()) {
+            event.cloudletId = rcl.getCloudletId();
+            event.vmId = rcl.getCloudlet().getVmId();
+            event.simTime = CloudSim.clock();
+            event.resumed = resumed;
+            event.commit();
+        }
+    }
+
+    public static void cloudletPreempted(ResCloudlet rcl) {
+        CloudletPreempt event = new CloudletPreempt();
+        if (event.isEnabled()) {
+            event.cloudletId = rcl.getCloudletId();
+            event.vmId = rcl.getCloudlet().getVmId();
+            event.simTime = CloudSim.clock();
+            event.remainingLength = rcl.getRemainingCloudletLength();
+            event.commit();
+        }
+    }
+
+    public static void cloudletFinished(Cloudlet cloudlet) {
+        CloudletFinish event = new CloudletFinish();
+        if (event.isEnabled()) {
+            event.cloudletId = cloudlet.getCloudletId();
+            event.vmId = cloudlet.getVmId();
+            event.simTime = CloudSim.clock();
+            event.arrivalTime = ArrivalAwareBroker.arrivalTimeOf(cloudlet);
+            event.startTime = cloudlet.getExecStartTime();
+            event.status = cloudlet.getCloudletStatusString();
+            event.commit();
+        }
+    }
+
+    // Periodic hook, runs on a JFR thread
+    private static synchronized void sample() {
+        long now = System.nanoTime();
+        double seconds = Math.max(now - lastSampleNanos, 1) / 1e9;
+        lastSampleNanos = now;
+
+        long total = 0;
+        for (EntityProfile profile : PROFILES.values()) {
+            long events = profile.events;
+            long nanos = profile.nanos;
+            long deltaEvents = events - profile.sampledEvents;
+            long deltaNanos = nanos - profile.sampledNanos;
+            profile.sampledEvents = events;
+            profile.sampledNanos = nanos;
+            total += deltaEvents;
+
+            EntityHandling handling = new EntityHandling();
+            handling.entity = profile.name;
+            handling.events = deltaEvents;
+            handling.handlingTime = deltaNanos;
+            handling.meanHandlingTime = deltaEvents == 0 ? 0 : deltaNanos / deltaEvents;
+            handling.commit();
+        }
+
+        SimulationStats stats = new SimulationStats();
+        stats.simTime = CloudSim.clock();
+        stats.futureQueueDepth = futureQueueDepth();
+        stats.events = total;
+        stats.eventsPerSecond = total / seconds;
+        stats.commit();
+    }
+
+    // CloudSim has no accessor for its future queue; read racily, a sample only needs a rough size
+    private static int futureQueueDepth() {
+        try {
+            Object queue = FUTURE_QUEUE == null ? null : FUTURE_QUEUE.get(null);
+            return queue instanceof FutureQueue ? ((FutureQueue) queue).size() : -1;
+        } catch (IllegalAccessException | RuntimeException e) {
+            return -1;
+        }
+    }
+
+    private static Field futureQueueField() {
+        try {
+            Field field = CloudSim.class.getDeclaredField("future");
+            field.setAccessible(true);
+            return field;
+        } catch (NoSuchFieldException | RuntimeException e) {
+            return null;
+        }
+    }
+}
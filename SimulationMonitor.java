@@ -0,0 +1,287 @@
+package org.cloudbus.cloudsim.examples;
+
+import org.cloudbus.cloudsim.Vm;
+import org.cloudbus.cloudsim.core.CloudSim;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Platform MBean with the live progress of the simulation running in this class loader, so
+ * long runs and sweeps can be watched and cut off with JConsole, VisualVM or jmc instead of
+ * waiting for CloudSim.stopSimulation() to return.
+ *
+ * CloudSim keeps its state in statics, so there is one monitor per class loader; the sweep's
+ * isolated workers therefore each show up as their own MBean under
+ * "org.cloudbus.cloudsim.examples:type=SimulationMonitor,name=...", until IsolatedWorker
+ * unregisters it on close, as the MBean server would otherwise pin the worker's class loader.
+ * ArrivalAwareBroker reports submissions and returns, and the broker and ProfiledDatacenter
+ * count their events.
+ * Counters are written by the simulation thread only; the MBean reads them without locking.
+ */
+public final class SimulationMonitor implements SimulationMonitorMBean {
+
+    private static final SimulationMonitor INSTANCE = new SimulationMonitor();
+    private static volatile ObjectName registeredName; // null once unregistered, or if registering failed
+
+    private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+
+    private volatile String label = "";
+    private volatile boolean active;
+    private volatile boolean stopRequested;
+    private volatile boolean stopped;
+    private volatile long startNanos = System.nanoTime();
+    private volatile long endNanos;
+    private volatile long expected = -1;
+    private volatile long submitted;
+    private volatile long finished;
+    private volatile long events;
+
+    // Per VM slot; slots follow the VM list given to begin()
+    private volatile int[] vmIds = new int[0];
+    private volatile int[] slotOfId = new int[0];
+    private volatile AtomicLongArray submittedPerVm = new AtomicLongArray(0);
+    private volatile AtomicLongArray finishedPerVm = new AtomicLongArray(0);
+
+    // Last read of getEventsPerSecond()
+    private long rateNanos;
+    private long rateEvents;
+
+    static {
+        try {
+            ObjectName name = new ObjectName(
+                    "org.cloudbus.cloudsim.examples:type=SimulationMonitor,name=" + Integer.toHexString(System.identityHashCode(INSTANCE)));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(INSTANCE, name);
+            registeredName = name;
+        } catch (JMException | SecurityException e) {
+            System.err.println("Simulation monitor not available over JMX: " + e);
+        }
+    }
+
+    private SimulationMonitor() {
+    }
+
+    public static SimulationMonitor get() {
+        return INSTANCE;
+    }
+
+    // Takes this class loader's monitor off the platform MBean server, for loaders about to be dropped
+    public static synchronized void unregister() {
+        if (registeredName == null) {
+            return;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(registeredName);
+        } catch (JMException | SecurityException e) {
+            System.err.println("Simulation monitor could not be unregistered: " + e);
+        }
+        registeredName = null;
+    }
+
+    public void setLabel(String label) {
+        this.label = label;
+    }
+
+    /**
+     * Starts tracking a run on the given VMs; expectedCloudlets may be -1 when the workload
+     * size is not known up front.
+     */
+    public void begin(List<? extends Vm> vms, long expectedCloudlets) {
+        int maxId = -1;
+        int[] ids = new int[vms.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = vms.get(i).getId();
+            maxId = Math.max(maxId, ids[i]);
+        }
+        int[] slots = new int[maxId + 1];
+        Arrays.fill(slots, -1);
+        for (int i = 0; i < ids.length; i++) {
+            slots[ids[i]] = i;
+        }
+        submittedPerVm = new AtomicLongArray(ids.length);
+        finishedPerVm = new AtomicLongArray(ids.length);
+        slotOfId = slots;
+        vmIds = ids;
+        expected = expectedCloudlets;
+        submitted = 0;
+        finished = 0;
+        events = 0;
+        synchronized (this) {
+            rateNanos = 0;
+            rateEvents = 0;
+        }
+        stopRequested = false;
+        stopped = false;
+        endNanos = 0;
+        startNanos = System.nanoTime();
+        active = true;
+    }
+
+    // Marks the run as over; its counters stay readable until the next begin()
+    public void end() {
+        if (active) {
+            endNanos = System.nanoTime();
+            active = false;
+        }
+    }
+
+    public void cloudletSubmitted(int vmId) {
+        submitted++;
+        int slot = slot(vmId);
+        if (slot >= 0) {
+            submittedPerVm.incrementAndGet(slot);
+        }
+    }
+
+    public void cloudletFinished(int vmId) {
+        finished++;
+        int slot = slot(vmId);
+        if (slot >= 0) {
+            finishedPerVm.incrementAndGet(slot);
+        }
+    }
+
+    /**
+     * Counts one handled event and, on the simulation thread, acts on a pending stop request.
+     */
+    public void eventHandled() {
+        events++;
+        if (stopRequested && active) {
+            // Ends the run loop once the clock moves past the current instant
+            CloudSim.terminateSimulation(CloudSim.clock() + CloudSim.getMinTimeBetweenEvents());
+            stopped = true;
+            end();
+        }
+    }
+
+    // Whether the last run was ended by requestStop() rather than by running out of work
+    public boolean wasStopped() {
+        return stopped;
+    }
+
+    private int slot(int vmId) {
+        int[] slots = slotOfId;
+        return vmId >= 0 && vmId < slots.length ? slots[vmId] : -1;
+    }
+
+    @Override
+    public String getLabel() {
+        return label;
+    }
+
+    @Override
+    public boolean isActive() {
+        return active;
+    }
+
+    @Override
+    public double getSimulatedClock() {
+        return CloudSim.clock();
+    }
+
+    @Override
+    public long getCloudletsExpected() {
+        return expected;
+    }
+
+    @Override
+    public long getCloudletsSubmitted() {
+        return submitted;
+    }
+
+    @Override
+    public long getCloudletsRunning() {
+        return Math.max(submitted - finished, 0);
+    }
+
+    @Override
+    public long getCloudletsFinished() {
+        return finished;
+    }
+
+    @Override
+    public int[] getVmIds() {
+        return vmIds.clone();
+    }
+
+    @Override
+    public long[] getSubmittedPerVm() {
+        return toArray(submittedPerVm);
+    }
+
+    @Override
+    public long[] getRunningPerVm() {
+        AtomicLongArray done = finishedPerVm;
+        long[] running = toArray(submittedPerVm);
+        for (int i = 0; i < running.length && i < done.length(); i++) {
+            running[i] = Math.max(running[i] - done.get(i), 0);
+        }
+        return running;
+    }
+
+    @Override
+    public long[] getFinishedPerVm() {
+        return toArray(finishedPerVm);
+    }
+
+    private static long[] toArray(AtomicLongArray counters) {
+        long[] values = new long[counters.length()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = counters.get(i);
+        }
+        return values;
+    }
+
+    @Override
+    public long getEventsProcessed() {
+        return events;
+    }
+
+    @Override
+    public synchronized double getEventsPerSecond() {
+        long now = active ? System.nanoTime() : Math.max(endNanos, startNanos);
+        long count = events;
+        long since = rateNanos == 0 ? startNanos : rateNanos;
+        double rate = now > since ? (count - rateEvents) / ((now - since) / 1e9) : 0;
+        rateNanos = now;
+        rateEvents = count;
+        return rate;
+    }
+
+    @Override
+    public long getHeapUsedBytes() {
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    @Override
+    public double getElapsedSeconds() {
+        return ((active ? System.nanoTime() : Math.max(endNanos, startNanos)) - startNanos) / 1e9;
+    }
+
+    @Override
+    public double getEtaSeconds() {
+        long done = finished;
+        if (!active) {
+            return 0;
+        }
+        if (expected < 0 || done == 0) {
+            return -1;
+        }
+        return (expected - done) * getElapsedSeconds() / done;
+    }
+
+    @Override
+    public boolean isStopRequested() {
+        return stopRequested;
+    }
+
+    @Override
+    public void requestStop() {
+        stopRequested = true;
+    }
+}
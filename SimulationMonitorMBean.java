@@ -0,0 +1,51 @@
+package org.cloudbus.cloudsim.examples;
+
+/**
+ * Management interface of SimulationMonitor, as seen from JConsole, VisualVM or jmc.
+ */
+public interface SimulationMonitorMBean {
+
+    // Label of the current run, e.g. the policy name
+    String getLabel();
+
+    boolean isActive();
+
+    double getSimulatedClock();
+
+    long getCloudletsExpected();
+
+    long getCloudletsSubmitted();
+
+    // Submitted to a VM and not yet returned, queued or executing
+    long getCloudletsRunning();
+
+    long getCloudletsFinished();
+
+    int[] getVmIds();
+
+    long[] getSubmittedPerVm();
+
+    long[] getRunningPerVm();
+
+    long[] getFinishedPerVm();
+
+    long getEventsProcessed();
+
+    // Rate since the previous read of this attribute (or since the start of the run)
+    double getEventsPerSecond();
+
+    long getHeapUsedBytes();
+
+    double getElapsedSeconds();
+
+    // Wall-clock seconds until every expected cloudlet has finished, -1 if unknown
+    double getEtaSeconds();
+
+    boolean isStopRequested();
+
+    /**
+     * Ends the current simulation at the next instant after the broker or datacenter handles an
+     * event. The run returns normally with the cloudlets that had finished by then.
+     */
+    void requestStop();
+}
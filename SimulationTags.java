@@ -0,0 +1,34 @@
+package org.cloudbus.cloudsim.examples;
+
+/**
+ * Event tags used by the entities in this package. They start well above the range used by
+ * CloudSimTags so the core entities never mistake them for their own events.
+ */
+public final class SimulationTags {
+
+    private static final int BASE = 9600;
+
+    // A batch of cloudlets reaching their arrival instant at the broker
+    public static final int CLOUDLET_ARRIVAL = BASE + 1;
+
+    // The next arrival instant of a table workload at the broker
+    public static final int TABLE_ARRIVAL = BASE + 2;
+
+    // The next record of a streamed workload reaching its arrival time at the broker
+    public static final int STREAM_ARRIVAL = BASE + 3;
+
+    // A List<Cloudlet> submitted to a ProfiledDatacenter in one event, in submission order
+    public static final int CLOUDLET_SUBMIT_BATCH = BASE + 4;
+
+    // A List<Cloudlet> returned to a batching broker in one event, in completion order
+    public static final int CLOUDLET_RETURN_BATCH = BASE + 5;
+
+    // An arrival instant at which a region sends cloudlets to the regions that run them
+    public static final int REGION_SEND = BASE + 6;
+
+    // The end of a region's synchronization window; carries nothing and is ignored
+    public static final int REGION_BARRIER = BASE + 7;
+
+    private SimulationTags() {
+    }
+}
@@ -0,0 +1,193 @@
+package org.cloudbus.cloudsim.examples;
+
+import java.util.Arrays;
+
+/**
+ * Computes what a CloudSim run of single-PE CloudletSchedulerSpaceShared VMs (the FCFS policy)
+ * would produce, without CloudSim. ArrivalAwareBroker releases cloudlets at their arrival
+ * instants in submission order, and each VM runs its cloudlets one at a time in the order they
+ * reach it, so per VM
+ *
+ *     start = max(release, finish of the previous cloudlet), finish = start + length / mips
+ *
+ * where release is the arrival time, or the instant the VMs are up for earlier arrivals. One
+ * evaluation sorts n primitive keys and makes one pass, O(n log n) (O(n) when the submission
+ * order already follows the arrival times), and fills in the per-cloudlet start and finish
+ * times together with the metrics of algorithm_results.csv. Scratch arrays are kept between
+ * evaluations, so an instance is meant for one thread evaluating many candidates.
+ *
+ * CloudSim only notices a finished cloudlet at the datacenter's next processing update, so its
+ * finish times, and the start times of the cloudlets queued behind, can be later than these;
+ * never earlier. "Validation evaluator" runs CloudSim on sampled scenarios and checks every
+ * cloudlet against the lateness that update spacing allows (SpaceSharedEvaluatorCheck).
+ */
+public final class SpaceSharedEvaluator {
+
+    // When the broker first submits: CloudSim acknowledges VM creation after the minimum time between events
+    public static final double VM_READY_TIME = 0.1;
+
+    private final double[] vmMips;
+    private final double readyTime;
+    private final long[] arrival;
+    private final long[] length;
+    private final int[] arrivalRank; // rank of each cloudlet's arrival time, ties share a rank
+
+    private long[] keys = new long[0];
+    private double[] vmFree;
+    private int[] vmQueued; // cloudlets run so far in the VM's current busy period
+
+    private double makeSpan;
+    private double avgWaitTime;
+    private double avgTurnaroundTime;
+
+    /**
+     * An evaluator for the given cloudlets (arrival times in seconds, lengths in MI) on VMs of
+     * the given MIPS, whose VMs are up at VM_READY_TIME.
+     */
+    public SpaceSharedEvaluator(long[] arrival, long[] length, double[] vmMips) {
+        this(arrival, length, vmMips, VM_READY_TIME);
+    }
+
+    public SpaceSharedEvaluator(long[] arrival, long[] length, double[] vmMips, double readyTime) {
+        if (length.length != arrival.length) {
+            throw new IllegalArgumentException("Cloudlet columns differ in length");
+        }
+        this.arrival = arrival.clone();
+        this.length = length.clone();
+        this.vmMips = vmMips.clone();
+        this.readyTime = readyTime;
+        this.vmFree = new double[vmMips.length];
+        this.vmQueued = new int[vmMips.length];
+
+        int n = arrival.length;
+        Integer[] byArrival = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            byArrival[i] = i;
+        }
+        Arrays.sort(byArrival, (a, b) -> Long.compare(arrival[a], arrival[b]));
+        arrivalRank = new int[n];
+        for (int i = 0, rank = -1; i < n; i++) {
+            if (i == 0 || arrival[byArrival[i]] != arrival[byArrival[i - 1]]) {
+                rank++;
+            }
+            arrivalRank[byArrival[i]] = rank;
+        }
+    }
+
+    // The columns of a scenario on its VMs
+    public static SpaceSharedEvaluator of(Scenario scenario) {
+        int n = scenario.getCloudletCount();
+        long[] arrival = new long[n];
+        long[] length = new long[n];
+        for (int i = 0; i < n; i++) {
+            arrival[i] = scenario.getArrivalTime(i);
+            length[i] = scenario.getLength(i);
+        }
+        double[] mips = new double[scenario.getVmCount()];
+        for (int v = 0; v < mips.length; v++) {
+            mips[v] = scenario.getVmMips(v);
+        }
+        return new SpaceSharedEvaluator(arrival, length, mips);
+    }
+
+    public int getCloudletCount() {
+        return arrival.length;
+    }
+
+    public int getVmCount() {
+        return vmMips.length;
+    }
+
+    /**
+     * Evaluates one schedule: vm[i] is the VM index of cloudlet i and order lists the cloudlets
+     * in submission order. Start and finish times are written to the given arrays (either may
+     * be null) and the metrics are available from the getters until the next evaluation.
+     * Returns the makespan.
+     */
+    public double evaluate(int[] vm, int[] order, double[] start, double[] finish) {
+        int n = arrival.length;
+        if (order.length != n || vm.length != n) {
+            throw new IllegalArgumentException("Expected a VM and a position for each of the " + n + " cloudlets");
+        }
+        if (keys.length < n) {
+            keys = new long[n];
+        }
+        // Queue order on every VM: by arrival instant, then by submission position
+        boolean sorted = true;
+        for (int position = 0; position < n; position++) {
+            keys[position] = (long) arrivalRank[order[position]] * n + position;
+            sorted &= position == 0 || keys[position] > keys[position - 1];
+        }
+        if (!sorted) {
+            Arrays.sort(keys, 0, n);
+        }
+
+        Arrays.fill(vmFree, 0);
+        Arrays.fill(vmQueued, 0);
+        double firstStart = Double.MAX_VALUE;
+        double lastFinish = 0;
+        double totalWait = 0;
+        double totalTurnaround = 0;
+        for (int k = 0; k < n; k++) {
+            int i = sorted ? order[k] : order[(int) (keys[k] % n)];
+            int v = vm[i];
+            double release = Math.max(arrival[i], readyTime);
+            double begin = Math.max(release, vmFree[v]);
+            double end = begin + length[i] / vmMips[v];
+            vmFree[v] = end;
+            if (start != null) {
+                start[i] = begin;
+            }
+            if (finish != null) {
+                finish[i] = end;
+            }
+            firstStart = Math.min(firstStart, begin);
+            lastFinish = Math.max(lastFinish, end);
+            totalWait += begin - arrival[i];
+            totalTurnaround += end - arrival[i];
+        }
+        // Same definitions as MetricsAccumulator
+        makeSpan = n > 0 && lastFinish > firstStart ? lastFinish - firstStart : 1.0;
+        avgWaitTime = n > 0 ? totalWait / n : 0;
+        avgTurnaroundTime = n > 0 ? totalTurnaround / n : 0;
+        return makeSpan;
+    }
+
+    public double getMakeSpan() {
+        return makeSpan;
+    }
+
+    public double getThroughput() {
+        return arrival.length / makeSpan;
+    }
+
+    public double getAvgWaitTime() {
+        return avgWaitTime;
+    }
+
+    // Response and turnaround time are the same thing for these runs, as in MetricsAccumulator
+    public double getAvgResponseTime() {
+        return avgTurnaroundTime;
+    }
+
+    public double getAvgTurnaroundTime() {
+        return avgTurnaroundTime;
+    }
+
+    /**
+     * Every metric of a CloudSim run of the schedule, percentiles included, as the runners
+     * record it. Costs a histogram pass on top of the evaluation.
+     */
+    public RunResult result(String policyName, int[] vm, int[] order) {
+        long wallStart = System.nanoTime();
+        int n = arrival.length;
+        double[] start = new double[n];
+        double[] finish = new double[n];
+        evaluate(vm, order, start, finish);
+        MetricsAccumulator metrics = new MetricsAccumulator(v -> vmMips[v]);
+        for (int i = 0; i < n; i++) {
+            metrics.accept(arrival[i], start[i], finish[i], length[i], vm[i]);
+        }
+        return RunResult.of(policyName, metrics, (System.nanoTime() - wallStart) / 1_000_000);
+    }
+}
@@ -0,0 +1,137 @@
+package org.cloudbus.cloudsim.examples;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.CloudletSchedulerSpaceShared;
+import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.Vm;
+import org.cloudbus.cloudsim.core.CloudSim;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Runs random FCFS scenarios, with random submission orders and bindings, through CloudSim and
+ * through SpaceSharedEvaluator, and checks every cloudlet's CloudSim start and finish time
+ * against the lateness that CloudSim's update spacing allows:
+ *
+ *  - CloudSim notices a finished cloudlet at the first datacenter update at or after its
+ *    finish. Datacenter.updateCloudletProcessing() schedules the next update at its earliest
+ *    finish estimate but at least getMinTimeBetweenEvents() + UPDATE_SLACK ahead, and drops
+ *    updates closer than getMinTimeBetweenEvents() to the last one; either way the update that
+ *    notices a finish comes at most SPACING = getMinTimeBetweenEvents() + UPDATE_SLACK after it.
+ *    A cloudlet left with a sliver of length, as the scheduler counts progress in whole
+ *    millionths of an MI, is noticed at that same next update.
+ *  - The next cloudlet on the VM starts at the update that noticed the finish, so it starts as
+ *    late as its predecessor finished, less any idle time between them in the model, and ends
+ *    up to SPACING later again.
+ *
+ * That gives, per VM in queue order, startLate <= max(0, previous finishLate - idle gap) and
+ * finishLate <= startLate + SPACING. CloudSim is never early; ROUNDING absorbs rounding of the
+ * summed times on either side.
+ */
+final class SpaceSharedEvaluatorCheck implements Validation.Check {
+
+    // Datacenter.updateCloudletProcessing()'s extra spacing on top of getMinTimeBetweenEvents()
+    static final double UPDATE_SLACK = 0.01;
+    static final double ROUNDING = 1e-6;
+
+    private static final int[] MIPS_CHOICES = {500, 1000, 2000, 2500};
+
+    private double worstLateness;
+    private double worstShare; // of the allowed lateness, over all cloudlets with any allowed
+
+    @Override
+    public String sample(SplittableRandom random) throws Exception {
+        SchedulingPolicies.SubmissionOrder[] orders = SchedulingPolicies.SubmissionOrder.values();
+        HeuristicCloudletBinder.Heuristic[] heuristics = HeuristicCloudletBinder.Heuristic.values();
+        int vmCount = 1 + random.nextInt(8);
+        int[] mix = new int[1 + random.nextInt(3)];
+        for (int m = 0; m < mix.length; m++) {
+            mix[m] = MIPS_CHOICES[random.nextInt(MIPS_CHOICES.length)];
+        }
+        Scenario scenario = Scenario.synthetic(vmCount, mix, 1 + random.nextInt(300), random.nextLong());
+        SchedulingPolicy policy = SchedulingPolicies.of("FCFS", CloudletSchedulerSpaceShared::new,
+                orders[random.nextInt(orders.length)]);
+        int binding = random.nextInt(heuristics.length + 1);
+        if (binding < heuristics.length) {
+            policy = SchedulingPolicies.withBinding(policy, new HeuristicCloudletBinder(heuristics[binding]),
+                    "FCFS + " + heuristics[binding]);
+        }
+
+        // CloudSim, keeping the submission order and the VMs the broker ends up using
+        Log.disable();
+        LadderFutureQueue.init(1, null, false);
+        int maxMips = Arrays.stream(mix).max().getAsInt();
+        PolicyRunner.createDatacenter("Datacenter_0", TopologyBuilder.parse(vmCount + "x1x" + maxMips + "x16384x10000"));
+        ArrivalAwareBroker broker = new ArrivalAwareBroker("Broker_0");
+        List<Vm> vms = scenario.createVms(broker.getId(), policy);
+        List<CustomCloudlet> cloudlets = scenario.createCloudlets(broker.getId());
+        policy.prepare(cloudlets, vms);
+        int[] order = new int[cloudlets.size()];
+        for (int position = 0; position < order.length; position++) {
+            order[position] = cloudlets.get(position).getCloudletId();
+        }
+        broker.submitVmList(vms);
+        broker.submitCloudletList(new ArrayList<>(cloudlets));
+        CloudSim.startSimulation();
+        List<Cloudlet> finished = broker.getCloudletReceivedList();
+        CloudSim.stopSimulation();
+
+        int n = order.length;
+        int[] vm = new int[n];
+        Map<Integer, Cloudlet> byId = new HashMap<>();
+        for (Cloudlet cloudlet : finished) {
+            byId.put(cloudlet.getCloudletId(), cloudlet);
+            vm[cloudlet.getCloudletId()] = cloudlet.getVmId();
+        }
+        String where = vmCount + " VMs, " + n + " cloudlets, " + policy.getName();
+        if (byId.size() != n) {
+            return where + ": CloudSim finished " + byId.size() + " of " + n + " cloudlets";
+        }
+
+        double[] start = new double[n];
+        double[] finish = new double[n];
+        SpaceSharedEvaluator.of(scenario).evaluate(vm, order, start, finish);
+
+        // Queue order on each VM: by model start, then submission position
+        Integer[] queueOrder = new Integer[n];
+        int[] position = new int[n];
+        for (int p = 0; p < n; p++) {
+            position[order[p]] = p;
+            queueOrder[p] = p;
+        }
+        Arrays.sort(queueOrder, (a, b) -> start[a] != start[b] ? Double.compare(start[a], start[b]) : Integer.compare(position[a], position[b]));
+        double spacing = CloudSim.getMinTimeBetweenEvents() + UPDATE_SLACK;
+        double[] previousFinish = new double[vmCount];
+        double[] previousLate = new double[vmCount];
+        for (int i : queueOrder) {
+            int v = vm[i];
+            double allowedStart = Math.max(0, previousFinish[v] + previousLate[v] - start[i]);
+            double allowedFinish = allowedStart + spacing;
+            previousFinish[v] = finish[i];
+            previousLate[v] = allowedFinish;
+
+            Cloudlet actual = byId.get(i);
+            double startLate = actual.getExecStartTime() - start[i];
+            double finishLate = actual.getFinishTime() - finish[i];
+            if (startLate < -ROUNDING || finishLate < -ROUNDING
+                    || startLate > allowedStart + ROUNDING || finishLate > allowedFinish + ROUNDING) {
+                return String.format("%s: cloudlet %d on VM %d ran %.6f-%.6f in CloudSim, %.6f-%.6f in the model, "
+                                + "allowed lateness %.6f and %.6f", where, i, v, actual.getExecStartTime(), actual.getFinishTime(),
+                        start[i], finish[i], allowedStart, allowedFinish);
+            }
+            worstLateness = Math.max(worstLateness, Math.max(startLate, finishLate));
+            worstShare = Math.max(worstShare, finishLate / allowedFinish);
+        }
+        return null;
+    }
+
+    @Override
+    public String summary() {
+        return String.format("CloudSim at most %.4f s late, at most %.0f%% of the allowed lateness", worstLateness, 100 * worstShare);
+    }
+}
@@ -0,0 +1,129 @@
+package org.cloudbus.cloudsim.examples;
+
+import java.util.Arrays;
+
+/**
+ * One point of a parameter sweep. Points cross class loader and process boundaries as a
+ * single line of text ("vms=4;mips=1000:2000;quantum=100;cloudlets=1000;policy=FCFS;seed=42;topology=auto"),
+ * so only the encoded form is ever shared between isolated simulations.
+ */
+public final class SweepPoint {
+
+    // Topology value that sizes one single-PE host per VM from the fastest VM of the mix
+    public static final String AUTO_TOPOLOGY = "auto";
+
+    private final int vmCount;
+    private final int[] mipsMix;
+    private final int quantumMs;
+    private final int cloudletCount;
+    private final String policy;
+    private final long seed;
+    private final String topology;
+
+    public SweepPoint(int vmCount, int[] mipsMix, int quantumMs, int cloudletCount, String policy, long seed, String topology) {
+        if (vmCount <= 0 || mipsMix.length == 0 || quantumMs <= 0 || cloudletCount < 0) {
+            throw new IllegalArgumentException("Invalid sweep point: vms=" + vmCount + ", quantum=" + quantumMs + ", cloudlets=" + cloudletCount);
+        }
+        this.vmCount = vmCount;
+        this.mipsMix = mipsMix.clone();
+        this.quantumMs = quantumMs;
+        this.cloudletCount = cloudletCount;
+        this.policy = policy;
+        this.seed = seed;
+        this.topology = topology;
+    }
+
+    public static SweepPoint decode(String line) {
+        int vmCount = 0;
+        int[] mipsMix = null;
+        int quantumMs = 0;
+        int cloudletCount = 0;
+        String policy = null;
+        long seed = 0;
+        String topology = AUTO_TOPOLOGY;
+        for (String field : line.split(";")) {
+            int eq = field.indexOf('=');
+            if (eq < 0) {
+                throw new IllegalArgumentException("Malformed sweep point: " + line);
+            }
+            String value = field.substring(eq + 1);
+            switch (field.substring(0, eq)) {
+                case "vms": vmCount = Integer.parseInt(value); break;
+                case "mips": mipsMix = parseMix(value); break;
+                case "quantum": quantumMs = Integer.parseInt(value); break;
+                case "cloudlets": cloudletCount = Integer.parseInt(value); break;
+                case "policy": policy = value; break;
+                case "seed": seed = Long.parseLong(value); break;
+                case "topology": topology = value; break;
+                default: throw new IllegalArgumentException("Unknown sweep parameter in: " + line);
+            }
+        }
+        if (mipsMix == null || policy == null) {
+            throw new IllegalArgumentException("Incomplete sweep point: " + line);
+        }
+        return new SweepPoint(vmCount, mipsMix, quantumMs, cloudletCount, policy, seed, topology);
+    }
+
+    // "1000:2000:2000" -> {1000, 2000, 2000}
+    public static int[] parseMix(String mix) {
+        String[] parts = mix.split(":");
+        int[] mips = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            mips[i] = Integer.parseInt(parts[i].trim());
+        }
+        return mips;
+    }
+
+    public String encode() {
+        return "vms=" + vmCount + ";mips=" + getMixString() + ";quantum=" + quantumMs + ";cloudlets=" + cloudletCount
+                + ";policy=" + policy + ";seed=" + seed + ";topology=" + topology;
+    }
+
+    public Scenario toScenario() {
+        return Scenario.synthetic(vmCount, mipsMix, cloudletCount, seed);
+    }
+
+    public TopologyBuilder toTopology() {
+        if (!AUTO_TOPOLOGY.equals(topology)) {
+            return TopologyBuilder.parse(topology);
+        }
+        int maxMips = Arrays.stream(mipsMix).max().getAsInt();
+        return TopologyBuilder.parse(vmCount + "x1x" + maxMips + "x16384x10000");
+    }
+
+    public int getVmCount() {
+        return vmCount;
+    }
+
+    public String getMixString() {
+        StringBuilder mix = new StringBuilder();
+        for (int i = 0; i < mipsMix.length; i++) {
+            if (i > 0) {
+                mix.append(':');
+            }
+            mix.append(mipsMix[i]);
+        }
+        return mix.toString();
+    }
+
+    public int getQuantumMs() {
+        return quantumMs;
+    }
+
+    public int getCloudletCount() {
+        return cloudletCount;
+    }
+
+    public String getPolicy() {
+        return policy;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    @Override
+    public String toString() {
+        return encode();
+    }
+}
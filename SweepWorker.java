@@ -0,0 +1,65 @@
+package org.cloudbus.cloudsim.examples;
+
+import org.cloudbus.cloudsim.Log;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+
+/**
+ * Runs sweep points inside an isolated copy of CloudSim, either loaded by its own class
+ * loader (run) or as a forked JVM reading points from stdin (main). Everything crossing the
+ * boundary is text: an encoded SweepPoint in, a result line out.
+ */
+public class SweepWorker {
+
+    // Fields of the result line, in order
+    public static final String RESULT_HEADER = "MakeSpan, Throughput, Avg Wait Time, Avg Response Time, Avg Turnaround Time, P99 Wait Time, Cloudlet Count, Wall Time (ms)";
+
+    // Marks result lines on stdout, so anything else CloudSim prints there is ignored
+    static final String RESULT_PREFIX = "RESULT ";
+    static final String ERROR_PREFIX = "ERROR ";
+
+    public static String run(String encodedPoint) throws Exception {
+        SweepPoint point = SweepPoint.decode(encodedPoint);
+        SchedulingPolicy policy = SchedulingPolicies.defaults(point.getQuantumMs() / 1000.0).get(point.getPolicy());
+        if (policy == null) {
+            throw new IllegalArgumentException("Unknown policy: " + point.getPolicy());
+        }
+
+        Log.disable();
+        Scenario scenario = point.toScenario();
+        TopologyBuilder topology = point.toTopology();
+        SimulationMonitor.get().setLabel(encodedPoint);
+        RunResult result = PolicyRunner.run(scenario, policy, topology);
+        RunLedger.fromSystemProperty().record(result,
+                RunLedger.markIfStopped(policy.getName().equals("Round Robin") ? "quantum=" + point.getQuantumMs() + "ms" : ""),
+                scenario.configHash(topology));
+        return String.format("%.2f, %.4f, %.2f, %.2f, %.2f, %.2f, %d, %d",
+                result.getMakeSpan(),
+                result.getThroughput(),
+                result.getAvgWaitTime(),
+                result.getAvgResponseTime(),
+                result.getAvgTurnaroundTime(),
+                result.getP99WaitTime(),
+                result.getCloudletCount(),
+                result.getWallTimeMillis());
+    }
+
+    public static void main(String[] args) throws Exception {
+        BufferedReader in = new BufferedReader(new InputStreamReader(System.in));
+        String line;
+        while ((line = in.readLine()) != null) {
+            if (line.isEmpty()) {
+                continue;
+            }
+            String reply;
+            try {
+                reply = RESULT_PREFIX + run(line);
+            } catch (Exception e) {
+                reply = ERROR_PREFIX + e;
+            }
+            System.out.println(reply.replace('\n', ' '));
+            System.out.flush();
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package org.cloudbus.cloudsim.examples;
+
+import org.cloudbus.cloudsim.Host;
+import org.cloudbus.cloudsim.Pe;
+import org.cloudbus.cloudsim.VmSchedulerTimeShared;
+import org.cloudbus.cloudsim.provisioners.BwProvisionerSimple;
+import org.cloudbus.cloudsim.provisioners.PeProvisionerSimple;
+import org.cloudbus.cloudsim.provisioners.RamProvisionerSimple;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Builds the host list of a datacenter from a compact spec, so large heterogeneous clusters
+ * don't have to be written out host by host.
+ *
+ * The spec is a comma separated list of host groups, each "count x pes x mips x ram x bw"
+ * with an optional "x storage" (defaults to 1 TB), e.g.
+ * "8000x16x2500x65536x10000,2000x32x3000x131072x40000" for 10k hosts of two kinds.
+ */
+public class TopologyBuilder {
+
+    // What the runners used to hard-code: one host with a single 5000 MIPS PE
+    public static final String DEFAULT_SPEC = "1x1x5000x16384x10000";
+
+    private static final long DEFAULT_STORAGE = 1_000_000; // 1 TB
+
+    // One group of identical hosts
+    public static final class HostGroup {
+        final int count;
+        final int pes;
+        final double mips;
+        final int ram;
+        final long bw;
+        final long storage;
+
+        public HostGroup(int count, int pes, double mips, int ram, long bw, long storage) {
+            if (count < 0 || pes <= 0 || mips <= 0 || ram <= 0 || bw <= 0 || storage <= 0) {
+                throw new IllegalArgumentException("Invalid host group: " + count + "x" + pes + "x" + mips + "x" + ram + "x" + bw);
+            }
+            this.count = count;
+            this.pes = pes;
+            this.mips = mips;
+            this.ram = ram;
+            this.bw = bw;
+            this.storage = storage;
+        }
+    }
+
+    private final List<HostGroup> groups;
+
+    public TopologyBuilder(List<HostGroup> groups) {
+        this.groups = Collections.unmodifiableList(new ArrayList<>(groups));
+    }
+
+    public static TopologyBuilder parse(String spec) {
+        List<HostGroup> groups = new ArrayList<>();
+        for (String group : spec.split(",")) {
+            String[] parts = group.trim().toLowerCase().split("x");
+            if (parts.length < 5 || parts.length > 6) {
+                throw new IllegalArgumentException("Host group must be count x pes x mips x ram x bw [x storage]: " + group);
+            }
+            try {
+                groups.add(new HostGroup(
+                        Integer.parseInt(parts[0].trim()),
+                        Integer.parseInt(parts[1].trim()),
+                        Double.parseDouble(parts[2].trim()),
+                        Integer.parseInt(parts[3].trim()),
+                        Long.parseLong(parts[4].trim()),
+                        parts.length == 6 ? Long.parseLong(parts[5].trim()) : DEFAULT_STORAGE));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid number in host group: " + group, e);
+            }
+        }
+        return new TopologyBuilder(groups);
+    }
+
+    // Topology named by -Dcloudsim.topology, or the single default host
+    public static TopologyBuilder fromSystemProperty() {
+        return parse(System.getProperty("cloudsim.topology", DEFAULT_SPEC));
+    }
+
+    public List<HostGroup> getGroups() {
+        return groups;
+    }
+
+    public int getHostCount() {
+        int count = 0;
+        for (HostGroup group : groups) {
+            count += group.count;
+        }
+        return count;
+    }
+
+    // The spec this topology was (or could have been) parsed from
+    public String toSpec() {
+        StringBuilder spec = new StringBuilder();
+        for (HostGroup group : groups) {
+            if (spec.length() > 0) {
+                spec.append(',');
+            }
+            spec.append(group.count).append('x').append(group.pes).append('x').append(group.mips).append('x')
+                    .append(group.ram).append('x').append(group.bw).append('x').append(group.storage);
+        }
+        return spec.toString();
+    }
+
+    public List<Host> buildHosts() {
+        List<Host> hostList = new ArrayList<>(getHostCount());
+        int hostId = 0;
+        for (HostGroup group : groups) {
+            for (int h = 0; h < group.count; h++) {
+                List<Pe> peList = new ArrayList<>(group.pes);
+                for (int p = 0; p < group.pes; p++) {
+                    peList.add(new Pe(p, new PeProvisionerSimple(group.mips)));
+                }
+                hostList.add(new Host(hostId++, new RamProvisionerSimple(group.ram), new BwProvisionerSimple(group.bw),
+                        group.storage, peList, new VmSchedulerTimeShared(peList)));
+            }
+        }
+        return hostList;
+    }
+}
@@ -0,0 +1,398 @@
+package org.cloudbus.cloudsim.examples;
+
+import org.cloudbus.cloudsim.UtilizationModel;
+import org.cloudbus.cloudsim.UtilizationModelFull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streams job records out of a workload trace so the runners can replay real traces
+ * instead of typing every cloudlet in.
+ *
+ * Two formats are understood:
+ *  - SWF (Standard Workload Format): whitespace separated, ';' comment lines. Submit time
+ *    becomes the arrival time, run time x reference MIPS becomes the length and the queue
+ *    number becomes the priority.
+ *  - CSV (e.g. Google cluster exports): comma separated, one job per line, optional header.
+ *    By default the columns follow the runners' prompt order
+ *    (arrivalTime, length, fileSize, outputSize, priority) but they can be remapped.
+ *
+ * The file is mapped window by window and parsed straight from the mapped bytes, so the
+ * heap never holds more than the current record and startup cost only depends on how
+ * many records are actually consumed. As a WorkloadSource a loader can also be streamed
+ * straight into ArrivalAwareBroker.
+ */
+public class TraceWorkloadLoader implements Closeable, WorkloadSource {
+
+    public enum Format { SWF, CSV }
+
+    private static final long WINDOW_SIZE = 64L * 1024 * 1024; // 64 MB mapped at a time
+
+    // SWF field positions (0-based)
+    private static final int SWF_SUBMIT_TIME = 1;
+    private static final int SWF_RUN_TIME = 3;
+    private static final int SWF_QUEUE = 14;
+
+    private final FileChannel channel;
+    private final long size;
+    private final Format format;
+
+    private MappedByteBuffer window;
+    private long windowStart;
+    private long position;
+
+    // Conversion settings
+    private double referenceMips = 1000; // SWF run time (s) -> length (MI)
+    private double timeScale = 1.0; // trace time unit -> simulation seconds
+    private long defaultFileSize = 300;
+    private long defaultOutputSize = 300;
+    private int arrivalColumn = 0;
+    private int lengthColumn = 1;
+    private int fileSizeColumn = 2;
+    private int outputSizeColumn = 3;
+    private int priorityColumn = 4;
+
+    // Current record
+    private long arrivalTime;
+    private long length;
+    private long fileSize;
+    private long outputSize;
+    private int priority;
+    private int recordsRead;
+    private long lineNumber;
+
+    // Fields of the line being parsed; large enough for an SWF row (18 fields)
+    private final double[] fields = new double[32];
+
+    public TraceWorkloadLoader(Path path) throws IOException {
+        this(path, path.toString().toLowerCase().endsWith(".swf") ? Format.SWF : Format.CSV);
+    }
+
+    public TraceWorkloadLoader(Path path, Format format) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.size = channel.size();
+        this.format = format;
+    }
+
+    public void setReferenceMips(double referenceMips) {
+        this.referenceMips = referenceMips;
+    }
+
+    public void setTimeScale(double timeScale) {
+        this.timeScale = timeScale;
+    }
+
+    public void setDefaultFileSizes(long fileSize, long outputSize) {
+        this.defaultFileSize = fileSize;
+        this.defaultOutputSize = outputSize;
+    }
+
+    // Column indices for CSV traces, -1 means "not present, use the default"
+    public void setCsvColumns(int arrival, int length, int fileSize, int outputSize, int priority) {
+        this.arrivalColumn = arrival;
+        this.lengthColumn = length;
+        this.fileSizeColumn = fileSize;
+        this.outputSizeColumn = outputSize;
+        this.priorityColumn = priority;
+    }
+
+    /**
+     * Advances to the next usable job record. Comment, header and incomplete lines as well
+     * as SWF jobs without a run time are skipped.
+     *
+     * @return false once the end of the trace is reached
+     * @throws IOException on a malformed number such as 12abc, which would shift the columns after it
+     */
+    @Override
+    public boolean next() throws IOException {
+        while (position < size) {
+            int count = parseLine();
+            if (count < 0) {
+                continue; // comment, header or blank line
+            }
+            count = Math.min(count, fields.length);
+            if (format == Format.SWF ? acceptSwf(count) : acceptCsv(count)) {
+                recordsRead++;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean acceptSwf(int count) {
+        if (count <= SWF_RUN_TIME || fields[SWF_RUN_TIME] <= 0) {
+            return false; // cancelled or unknown run time
+        }
+        arrivalTime = (long) (Math.max(fields[SWF_SUBMIT_TIME], 0) * timeScale);
+        length = Math.max((long) (fields[SWF_RUN_TIME] * referenceMips), 1);
+        fileSize = defaultFileSize;
+        outputSize = defaultOutputSize;
+        priority = count > SWF_QUEUE ? (int) Math.max(fields[SWF_QUEUE], 0) : 0;
+        return true;
+    }
+
+    private boolean acceptCsv(int count) {
+        if (count <= arrivalColumn || count <= lengthColumn || fields[lengthColumn] <= 0) {
+            return false;
+        }
+        arrivalTime = (long) (Math.max(fields[arrivalColumn], 0) * timeScale);
+        length = (long) fields[lengthColumn];
+        fileSize = column(fileSizeColumn, count, defaultFileSize);
+        outputSize = column(outputSizeColumn, count, defaultOutputSize);
+        priority = (int) column(priorityColumn, count, 0);
+        return true;
+    }
+
+    private long column(int index, int count, long defaultValue) {
+        return index >= 0 && index < count && fields[index] >= 0 ? (long) fields[index] : defaultValue;
+    }
+
+    // Parses the numeric fields of the line at the current position into 'fields'.
+    // Returns the number of fields, or -1 for lines that hold no job. Empty or text CSV
+    // cells are stored as -1 so the remaining columns keep their positions.
+    private int parseLine() throws IOException {
+        lineNumber++;
+        byte first = skipBlanks();
+        if (first == ';' || first == '#' || first == '\n' || first == '\r') {
+            skipLine();
+            return -1;
+        }
+
+        int count = 0;
+        boolean expectingField = true;
+        while (position < size) {
+            byte b = byteAt(position);
+            if (b == '\n') {
+                position++;
+                break;
+            }
+            if (b == ',') {
+                if (expectingField) {
+                    count = store(count, -1);
+                }
+                expectingField = true;
+                position++;
+                continue;
+            }
+            if (b == ' ' || b == '\t' || b == '\r') {
+                position++;
+                continue;
+            }
+            if (b == '-' || b == '+' || b == '.' || (b >= '0' && b <= '9')) {
+                count = store(count, parseNumber());
+                if (!atFieldEnd()) {
+                    throw malformed();
+                }
+            } else if (format == Format.CSV) {
+                skipCell();
+                count = store(count, -1);
+            } else {
+                skipLine(); // free text in an SWF body
+                return -1;
+            }
+            expectingField = false;
+        }
+        return count;
+    }
+
+    private int store(int count, double value) {
+        if (count < fields.length) {
+            fields[count] = value;
+        }
+        return count + 1;
+    }
+
+    private double parseNumber() throws IOException {
+        boolean negative = false;
+        byte b = byteAt(position);
+        if (b == '-' || b == '+') {
+            negative = b == '-';
+            position++;
+        }
+        long integral = 0;
+        double fraction = 0;
+        double scale = 1;
+        boolean inFraction = false;
+        int digits = 0;
+        while (position < size) {
+            b = byteAt(position);
+            if (b >= '0' && b <= '9') {
+                digits++;
+                if (inFraction) {
+                    scale /= 10;
+                    fraction += (b - '0') * scale;
+                } else {
+                    integral = integral * 10 + (b - '0');
+                }
+            } else if (b == '.' && !inFraction) {
+                inFraction = true;
+            } else {
+                break;
+            }
+            position++;
+        }
+        if (digits == 0) {
+            throw malformed();
+        }
+        double value = integral + fraction;
+        if (position < size && (byteAt(position) == 'e' || byteAt(position) == 'E')) {
+            position++;
+            boolean negativeExponent = false;
+            if (position < size && (byteAt(position) == '-' || byteAt(position) == '+')) {
+                negativeExponent = byteAt(position) == '-';
+                position++;
+            }
+            int exponent = 0;
+            digits = 0;
+            while (position < size && byteAt(position) >= '0' && byteAt(position) <= '9') {
+                exponent = Math.min(exponent * 10 + (byteAt(position) - '0'), 1000);
+                digits++;
+                position++;
+            }
+            if (digits == 0) {
+                throw malformed();
+            }
+            value *= Math.pow(10, negativeExponent ? -exponent : exponent);
+        }
+        return negative ? -value : value;
+    }
+
+    // Whether the number just parsed ends its field: a CSV cell may only have blanks after it
+    private boolean atFieldEnd() throws IOException {
+        if (format == Format.CSV) {
+            while (position < size && (byteAt(position) == ' ' || byteAt(position) == '\t' || byteAt(position) == '\r')) {
+                position++;
+            }
+        }
+        if (position >= size) {
+            return true;
+        }
+        byte b = byteAt(position);
+        return b == ',' || b == '\n' || b == ' ' || b == '\t' || b == '\r';
+    }
+
+    private IOException malformed() throws IOException {
+        long start = position;
+        while (start > 0 && !isSeparator(byteAt(start - 1))) {
+            start--;
+        }
+        long end = position;
+        while (end < size && !isSeparator(byteAt(end)) && end - start < 40) {
+            end++;
+        }
+        byte[] token = new byte[(int) (end - start)];
+        for (int i = 0; i < token.length; i++) {
+            token[i] = byteAt(start + i);
+        }
+        return new IOException("Malformed number '" + new String(token, StandardCharsets.US_ASCII) + "' on line " + lineNumber + " of the trace");
+    }
+
+    // Whether the byte ends a field, which for CSV is the whole cell
+    private boolean isSeparator(byte b) {
+        return b == ',' || b == '\n' || b == '\r' || (format == Format.SWF && (b == ' ' || b == '\t'));
+    }
+
+    private void skipCell() throws IOException {
+        while (position < size) {
+            byte b = byteAt(position);
+            if (b == ',' || b == '\n') {
+                return;
+            }
+            position++;
+        }
+    }
+
+    private byte skipBlanks() throws IOException {
+        while (position < size) {
+            byte b = byteAt(position);
+            if (b != ' ' && b != '\t') {
+                return b;
+            }
+            position++;
+        }
+        return '\n';
+    }
+
+    private void skipLine() throws IOException {
+        while (position < size && byteAt(position++) != '\n') {
+            // keep going
+        }
+    }
+
+    private byte byteAt(long offset) throws IOException {
+        if (window == null || offset < windowStart || offset >= windowStart + window.limit()) {
+            windowStart = offset;
+            window = channel.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(WINDOW_SIZE, size - offset));
+        }
+        return window.get((int) (offset - windowStart));
+    }
+
+    @Override
+    public long getArrivalTime() {
+        return arrivalTime;
+    }
+
+    @Override
+    public long getLength() {
+        return length;
+    }
+
+    @Override
+    public long getFileSize() {
+        return fileSize;
+    }
+
+    @Override
+    public long getOutputSize() {
+        return outputSize;
+    }
+
+    @Override
+    public int getPriority() {
+        return priority;
+    }
+
+    public int getRecordsRead() {
+        return recordsRead;
+    }
+
+    // Builds a cloudlet from the current record
+    public CustomCloudlet toCloudlet(int cloudletId, UtilizationModel utilizationModel) {
+        CustomCloudlet cloudlet = new CustomCloudlet(cloudletId, length, 1, fileSize, outputSize,
+                utilizationModel, utilizationModel, utilizationModel);
+        cloudlet.setArrivalTime(arrivalTime);
+        cloudlet.setPriority(priority);
+        return cloudlet;
+    }
+
+    @Override
+    public void close() throws IOException {
+        window = null;
+        channel.close();
+    }
+
+    /**
+     * Reads up to maxRecords cloudlets from the given trace, owned by the given broker.
+     */
+    public static List<CustomCloudlet> loadCloudlets(String path, int maxRecords, int brokerId) throws IOException {
+        List<CustomCloudlet> cloudletList = new ArrayList<>();
+        UtilizationModel utilizationModel = new UtilizationModelFull();
+        try (TraceWorkloadLoader loader = new TraceWorkloadLoader(Paths.get(path))) {
+            while (cloudletList.size() < maxRecords && loader.next()) {
+                CustomCloudlet cloudlet = loader.toCloudlet(cloudletList.size(), utilizationModel);
+                cloudlet.setUserId(brokerId);
+                cloudletList.add(cloudlet);
+            }
+        }
+        return cloudletList;
+    }
+}
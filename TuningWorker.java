@@ -0,0 +1,72 @@
+package org.cloudbus.cloudsim.examples;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.Vm;
+import org.cloudbus.cloudsim.core.CloudSim;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs Round Robin trials for QuantumTuner inside an isolated copy of CloudSim, loaded by its
+ * own class loader. The scenario crosses the boundary once, encoded, in load(); after that
+ * each trial is a quantum in and a result line out.
+ */
+public class TuningWorker {
+
+    private static Scenario scenario;
+    private static TopologyBuilder topology;
+
+    public static void load(String encodedScenario, String topologySpec) {
+        Log.disable();
+        scenario = Scenario.decode(encodedScenario);
+        topology = TopologyBuilder.parse(topologySpec);
+    }
+
+    /**
+     * Runs the scenario under Round Robin with the given quantum and returns "makespan, mean
+     * response, p99 response, context switches, cloudlets", or null when stop() ended the run.
+     */
+    public static String run(double quantumMs) throws Exception {
+        List<PreemptiveCloudletScheduler> schedulers = new ArrayList<>();
+        SchedulingPolicy policy = SchedulingPolicies.of("Round Robin", () -> {
+            RoundRobinCloudletScheduler scheduler = new RoundRobinCloudletScheduler(quantumMs / 1000.0);
+            schedulers.add(scheduler);
+            return scheduler;
+        }, SchedulingPolicies.SubmissionOrder.AS_GIVEN);
+
+        SimulationMonitor monitor = SimulationMonitor.get();
+        monitor.setLabel("quantum=" + quantumMs + "ms");
+        LadderFutureQueue.init(1, null, false);
+        PolicyRunner.createDatacenter("Datacenter_0", topology);
+        ArrivalAwareBroker broker = new ArrivalAwareBroker("Broker_0");
+        List<Vm> vms = scenario.createVms(broker.getId(), policy);
+        List<CustomCloudlet> cloudlets = scenario.createCloudlets(broker.getId());
+        broker.submitVmList(vms);
+        broker.submitCloudletList(cloudlets);
+        CloudSim.startSimulation();
+        List<Cloudlet> finished = broker.getCloudletReceivedList();
+        CloudSim.stopSimulation();
+        if (monitor.wasStopped()) {
+            return null;
+        }
+
+        MetricsAccumulator metrics = new MetricsAccumulator(scenario::getVmMips);
+        for (Cloudlet cloudlet : finished) {
+            metrics.accept(cloudlet);
+        }
+        long switches = 0;
+        for (PreemptiveCloudletScheduler scheduler : schedulers) {
+            switches += scheduler.getPreemptionCount();
+        }
+        LatencyHistogram response = metrics.getResponseTime();
+        return metrics.getMakeSpan() + ", " + response.getMean() + ", " + response.getValueAtPercentile(99) + ", "
+                + switches + ", " + metrics.getCount();
+    }
+
+    // Asks the running trial, if any, to end; called from the tuner's thread
+    public static void stop() {
+        SimulationMonitor.get().requestStop();
+    }
+}
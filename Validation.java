@@ -0,0 +1,87 @@
+package org.cloudbus.cloudsim.examples;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.function.Supplier;
+
+/**
+ * Randomized checks of the package's fast paths against plain reference implementations,
+ * kept apart from the classes they check. A check runs seeded samples and reports where each
+ * failing sample first goes wrong; the seed and sample number reproduce it.
+ *
+ * Usage: Validation check [samples=200] [seed=1], where check is one of
+ *   binder     HeuristicCloudletBinder against the textbook O(n^2 m) rounds
+ *   ladder     LadderFutureQueue against a TreeSet ordered like FutureQueue
+ *   mlfq       MultiLevelFeedbackCloudletScheduler against a model of levels and allotments
+ *   evaluator  SpaceSharedEvaluator against CloudSim runs, within the lateness CloudSim's updates allow
+ */
+public final class Validation {
+
+    // One kind of randomized check; a fresh instance runs all the samples of a run
+    interface Check {
+
+        // Runs one sample; returns where it failed, or null when it passed
+        String sample(SplittableRandom random) throws Exception;
+
+        // Printed after the samples
+        default String summary() {
+            return "";
+        }
+    }
+
+    private static final Map<String, Supplier<Check>> CHECKS = new LinkedHashMap<>();
+
+    static {
+        CHECKS.put("binder", HeuristicBinderCheck::new);
+        CHECKS.put("ladder", LadderFutureQueueCheck::new);
+        CHECKS.put("mlfq", MultiLevelFeedbackCheck::new);
+        CHECKS.put("evaluator", SpaceSharedEvaluatorCheck::new);
+    }
+
+    private Validation() {
+    }
+
+    public static void main(String[] args) {
+        try {
+            if (args.length == 0 || !CHECKS.containsKey(args[0])) {
+                throw new IllegalArgumentException("Expected a check, one of " + String.join(", ", CHECKS.keySet()));
+            }
+            int samples = 200;
+            long seed = 1;
+            for (int i = 1; i < args.length; i++) {
+                String arg = args[i];
+                if (arg.startsWith("samples=")) {
+                    samples = Integer.parseInt(arg.substring("samples=".length()));
+                } else if (arg.startsWith("seed=")) {
+                    seed = Long.parseLong(arg.substring("seed=".length()));
+                } else {
+                    throw new IllegalArgumentException("Expected samples=<n> or seed=<n>: " + arg);
+                }
+            }
+            System.out.println(run(args[0], samples, seed) ? "All samples pass" : "Some samples fail");
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Runs the named check on the given number of samples, printing each failure and a
+     * summary line. Returns whether every sample passed.
+     */
+    public static boolean run(String name, int samples, long seed) throws Exception {
+        Check check = CHECKS.get(name).get();
+        SplittableRandom random = new SplittableRandom(seed);
+        int failed = 0;
+        for (int sample = 0; sample < samples; sample++) {
+            String failure = check.sample(random.split());
+            if (failure != null) {
+                System.out.printf("sample %d: %s\n", sample, failure);
+                failed++;
+            }
+        }
+        String summary = check.summary();
+        System.out.printf("%s: %d samples, %d failed%s\n", name, samples, failed, summary.isEmpty() ? "" : "; " + summary);
+        return failed == 0;
+    }
+}
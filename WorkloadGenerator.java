@@ -0,0 +1,301 @@
+package org.cloudbus.cloudsim.examples;
+
+import java.util.SplittableRandom;
+
+/**
+ * Seeded synthetic workload that produces its job records on demand, so arbitrarily large
+ * workloads can be streamed into ArrivalAwareBroker without ever being materialized.
+ *
+ * A generator is described by a spec of "key=value" fields separated by ';', e.g.
+ * "count=1000000;seed=7;arrivals=mmpp:5:60:0.2:600;length=pareto:1.5:1000:1000000;priority=1:2:7".
+ *
+ *  - count: number of jobs (default 1000), seed: random seed (default 1)
+ *  - arrivals: "poisson:rate" or "mmpp:rate:meanSeconds:rate:meanSeconds[:...]", a Markov
+ *    modulated Poisson process cycling through the given states (default poisson:1)
+ *  - length, filesize, outputsize: a distribution, one of "const:v", "uniform:min:max",
+ *    "exp:mean", "pareto:alpha:min[:max]" or "lognormal:median:sigma"
+ *    (defaults uniform:1000:20000, const:300 and const:300)
+ *  - priority: relative weights of priorities 0, 1, 2, ... (default 1:1:1:1:1)
+ *
+ * Every attribute draws from its own random stream split off the seed, so changing e.g. the
+ * length distribution leaves the arrival times of the same seed untouched. The same spec
+ * always yields the same records.
+ */
+public final class WorkloadGenerator implements WorkloadSource {
+
+    // Random variate in the unit of the attribute it is used for
+    public interface Distribution {
+        double sample(SplittableRandom random);
+    }
+
+    private final String spec;
+    private final long count;
+    private final double[] rates;
+    private final double[] meanSojourn;
+    private final Distribution lengths;
+    private final Distribution fileSizes;
+    private final Distribution outputSizes;
+    private final double[] priorityCdf;
+
+    private final SplittableRandom arrivalRandom;
+    private final SplittableRandom lengthRandom;
+    private final SplittableRandom fileSizeRandom;
+    private final SplittableRandom outputSizeRandom;
+    private final SplittableRandom priorityRandom;
+
+    // Arrival process state
+    private double clock;
+    private int state;
+    private double stateEnd;
+
+    // Current record
+    private long generated;
+    private long arrivalTime;
+    private long length;
+    private long fileSize;
+    private long outputSize;
+    private int priority;
+
+    private WorkloadGenerator(String spec, long count, long seed, double[] rates, double[] meanSojourn,
+                              Distribution lengths, Distribution fileSizes, Distribution outputSizes, double[] priorityWeights) {
+        this.spec = spec;
+        this.count = count;
+        this.rates = rates;
+        this.meanSojourn = meanSojourn;
+        this.lengths = lengths;
+        this.fileSizes = fileSizes;
+        this.outputSizes = outputSizes;
+        this.priorityCdf = new double[priorityWeights.length];
+        double total = 0;
+        for (int i = 0; i < priorityWeights.length; i++) {
+            total += priorityWeights[i];
+            priorityCdf[i] = total;
+        }
+
+        SplittableRandom root = new SplittableRandom(seed);
+        arrivalRandom = root.split();
+        lengthRandom = root.split();
+        fileSizeRandom = root.split();
+        outputSizeRandom = root.split();
+        priorityRandom = root.split();
+        stateEnd = exponential(arrivalRandom, meanSojourn[0]);
+    }
+
+    public static WorkloadGenerator parse(String spec) {
+        long count = 1000;
+        long seed = 1;
+        double[] rates = {1};
+        double[] meanSojourn = {Double.POSITIVE_INFINITY};
+        Distribution lengths = distribution("uniform:1000:20000");
+        Distribution fileSizes = distribution("const:300");
+        Distribution outputSizes = distribution("const:300");
+        double[] priorityWeights = {1, 1, 1, 1, 1};
+        for (String field : spec.split(";")) {
+            if (field.trim().isEmpty()) {
+                continue;
+            }
+            int eq = field.indexOf('=');
+            if (eq < 0) {
+                throw new IllegalArgumentException("Malformed workload field: " + field);
+            }
+            String value = field.substring(eq + 1).trim();
+            try {
+                switch (field.substring(0, eq).trim().toLowerCase()) {
+                    case "count": count = Long.parseLong(value); break;
+                    case "seed": seed = Long.parseLong(value); break;
+                    case "length": lengths = distribution(value); break;
+                    case "filesize": fileSizes = distribution(value); break;
+                    case "outputsize": outputSizes = distribution(value); break;
+                    case "priority": priorityWeights = numbers(value, 0); break;
+                    case "arrivals":
+                        String[] parts = value.toLowerCase().split(":");
+                        if (parts[0].equals("poisson") && parts.length == 2) {
+                            rates = new double[]{Double.parseDouble(parts[1])};
+                            meanSojourn = new double[]{Double.POSITIVE_INFINITY};
+                        } else if (parts[0].equals("mmpp") && parts.length >= 5 && parts.length % 2 == 1) {
+                            double[] states = numbers(value, 1);
+                            rates = new double[states.length / 2];
+                            meanSojourn = new double[states.length / 2];
+                            for (int i = 0; i < rates.length; i++) {
+                                rates[i] = states[2 * i];
+                                meanSojourn[i] = states[2 * i + 1];
+                            }
+                        } else {
+                            throw new IllegalArgumentException("Arrivals must be poisson:rate or mmpp:rate:mean:rate:mean[:...]: " + value);
+                        }
+                        break;
+                    default: throw new IllegalArgumentException("Unknown workload parameter: " + field);
+                }
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid number in workload field: " + field, e);
+            }
+        }
+
+        if (count < 0) {
+            throw new IllegalArgumentException("Negative job count: " + count);
+        }
+        double totalRate = 0;
+        for (int i = 0; i < rates.length; i++) {
+            if (rates[i] < 0 || !(meanSojourn[i] > 0) || (rates.length > 1 && Double.isInfinite(meanSojourn[i]))) {
+                throw new IllegalArgumentException("Invalid arrival state " + rates[i] + ":" + meanSojourn[i]);
+            }
+            totalRate += rates[i];
+        }
+        if (totalRate <= 0) {
+            throw new IllegalArgumentException("Arrival process never produces a job");
+        }
+        double totalWeight = 0;
+        for (double weight : priorityWeights) {
+            if (weight < 0) {
+                throw new IllegalArgumentException("Negative priority weight: " + weight);
+            }
+            totalWeight += weight;
+        }
+        if (totalWeight <= 0) {
+            throw new IllegalArgumentException("Priority weights are all zero");
+        }
+        return new WorkloadGenerator(spec, count, seed, rates, meanSojourn, lengths, fileSizes, outputSizes, priorityWeights);
+    }
+
+    // Generator described by -Dcloudsim.workload, or null when cloudlets come from elsewhere
+    public static WorkloadGenerator fromSystemProperty() {
+        String spec = System.getProperty("cloudsim.workload");
+        return spec == null || spec.trim().isEmpty() ? null : parse(spec.trim());
+    }
+
+    // "pareto:1.5:1000" -> Pareto distribution with shape 1.5 and scale 1000
+    public static Distribution distribution(String spec) {
+        String[] parts = spec.trim().toLowerCase().split(":");
+        double[] p = numbers(spec, 1);
+        switch (parts[0]) {
+            case "const":
+                expect(p.length == 1, spec);
+                return random -> p[0];
+            case "uniform":
+                expect(p.length == 2 && p[0] <= p[1], spec);
+                return random -> p[0] + (p[1] - p[0]) * random.nextDouble();
+            case "exp":
+                expect(p.length == 1 && p[0] > 0, spec);
+                return random -> exponential(random, p[0]);
+            case "pareto":
+                expect((p.length == 2 || p.length == 3) && p[0] > 0 && p[1] > 0, spec);
+                if (p.length == 2) {
+                    return random -> p[1] / Math.pow(1 - random.nextDouble(), 1 / p[0]);
+                }
+                // Bounded Pareto by inversion, so the tail is cut without rejection
+                expect(p[2] > p[1], spec);
+                double ratio = Math.pow(p[1] / p[2], p[0]);
+                return random -> p[1] / Math.pow(1 - random.nextDouble() * (1 - ratio), 1 / p[0]);
+            case "lognormal":
+                expect(p.length == 2 && p[0] > 0 && p[1] >= 0, spec);
+                return random -> p[0] * Math.exp(p[1] * gaussian(random));
+            default:
+                throw new IllegalArgumentException("Unknown distribution: " + spec);
+        }
+    }
+
+    private static void expect(boolean valid, String spec) {
+        if (!valid) {
+            throw new IllegalArgumentException("Invalid distribution parameters: " + spec);
+        }
+    }
+
+    // The ':' separated numbers of a value, starting at the given part
+    private static double[] numbers(String value, int from) {
+        String[] parts = value.split(":");
+        double[] numbers = new double[Math.max(parts.length - from, 0)];
+        for (int i = 0; i < numbers.length; i++) {
+            numbers[i] = Double.parseDouble(parts[from + i].trim());
+        }
+        if (numbers.length == 0) {
+            throw new IllegalArgumentException("Missing parameters in: " + value);
+        }
+        return numbers;
+    }
+
+    private static double exponential(SplittableRandom random, double mean) {
+        return mean == Double.POSITIVE_INFINITY ? mean : -mean * Math.log(1 - random.nextDouble());
+    }
+
+    // Standard normal variate (Box-Muller, one value per call so streams stay aligned)
+    private static double gaussian(SplittableRandom random) {
+        return Math.sqrt(-2 * Math.log(1 - random.nextDouble())) * Math.cos(2 * Math.PI * random.nextDouble());
+    }
+
+    @Override
+    public boolean next() {
+        if (generated >= count) {
+            return false;
+        }
+        generated++;
+        advanceClock();
+        arrivalTime = (long) clock;
+        length = Math.max(toLong(lengths.sample(lengthRandom)), 1);
+        fileSize = Math.max(toLong(fileSizes.sample(fileSizeRandom)), 1);
+        outputSize = Math.max(toLong(outputSizes.sample(outputSizeRandom)), 1);
+        double pick = priorityRandom.nextDouble() * priorityCdf[priorityCdf.length - 1];
+        priority = 0;
+        while (priority < priorityCdf.length - 1 && pick >= priorityCdf[priority]) {
+            priority++;
+        }
+        return true;
+    }
+
+    // Moves the clock to the next arrival. Within a state the inter-arrival time is exponential
+    // at the state's rate; memorylessness allows redrawing it after every state change.
+    private void advanceClock() {
+        while (true) {
+            double arrival = rates[state] > 0 ? clock + exponential(arrivalRandom, 1 / rates[state]) : Double.POSITIVE_INFINITY;
+            if (arrival < stateEnd) {
+                clock = arrival;
+                return;
+            }
+            clock = stateEnd;
+            state = (state + 1) % rates.length;
+            stateEnd = clock + exponential(arrivalRandom, meanSojourn[state]);
+        }
+    }
+
+    private static long toLong(double value) {
+        return value >= Long.MAX_VALUE ? Long.MAX_VALUE : Math.round(value);
+    }
+
+    // Number of records produced so far
+    public long getGenerated() {
+        return generated;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    @Override
+    public long getArrivalTime() {
+        return arrivalTime;
+    }
+
+    @Override
+    public long getLength() {
+        return length;
+    }
+
+    @Override
+    public long getFileSize() {
+        return fileSize;
+    }
+
+    @Override
+    public long getOutputSize() {
+        return outputSize;
+    }
+
+    @Override
+    public int getPriority() {
+        return priority;
+    }
+
+    @Override
+    public String toString() {
+        return spec;
+    }
+}
@@ -0,0 +1,28 @@
+package org.cloudbus.cloudsim.examples;
+
+import java.io.IOException;
+
+/**
+ * A workload read one job record at a time, in arrival order. ArrivalAwareBroker pulls from a
+ * source as simulated time advances, so a streamed workload never has to exist in memory as a
+ * whole.
+ */
+public interface WorkloadSource {
+
+    /**
+     * Advances to the next job record.
+     *
+     * @return false once the workload is exhausted
+     */
+    boolean next() throws IOException;
+
+    long getArrivalTime();
+
+    long getLength();
+
+    long getFileSize();
+
+    long getOutputSize();
+
+    int getPriority();
+}
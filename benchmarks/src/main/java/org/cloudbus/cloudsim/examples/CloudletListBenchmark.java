@@ -0,0 +1,53 @@
+package org.cloudbus.cloudsim.examples;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cloudlet list construction and the submission-order sorts of the SJF and Priority runners.
+ * The sorts work on a copy of a prebuilt list, so they include one list copy per operation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CloudletListBenchmark {
+
+    @Param({"1000", "100000"})
+    public int cloudlets;
+
+    private Scenario scenario;
+    private List<CustomCloudlet> cloudletList;
+
+    @Setup
+    public void setUp() {
+        scenario = Scenario.synthetic(8, new int[]{1000, 2000}, cloudlets, 42);
+        cloudletList = scenario.createCloudlets(0);
+    }
+
+    @Benchmark
+    public List<CustomCloudlet> construct() {
+        return scenario.createCloudlets(0);
+    }
+
+    @Benchmark
+    public List<CustomCloudlet> sortShortestJobFirst() {
+        List<CustomCloudlet> sorted = new ArrayList<>(cloudletList);
+        sorted.sort(Comparator.comparingLong(CustomCloudlet::getCloudletLength));
+        return sorted;
+    }
+
+    @Benchmark
+    public List<CustomCloudlet> sortPriority() {
+        List<CustomCloudlet> sorted = new ArrayList<>(cloudletList);
+        sorted.sort(Comparator.comparingLong(CustomCloudlet::getArrivalTime)
+                .thenComparingInt(CustomCloudlet::getPriority));
+        return sorted;
+    }
+}
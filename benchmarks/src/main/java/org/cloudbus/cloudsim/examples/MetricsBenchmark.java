@@ -0,0 +1,62 @@
+package org.cloudbus.cloudsim.examples;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.DatacenterBroker;
+import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.Vm;
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The single-pass metric accumulation (means plus histograms) over the finished cloudlets
+ * of one FCFS run.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MetricsBenchmark {
+
+    @Param({"1000", "100000"})
+    public int cloudlets;
+
+    private List<Cloudlet> finishedCloudlets;
+
+    @Setup
+    public void setUp() throws Exception {
+        Log.disable();
+        Scenario scenario = Scenario.synthetic(8, new int[]{1000, 2000}, cloudlets, 42);
+        SchedulingPolicy fcfs = SchedulingPolicies.defaults(0.1).get("FCFS");
+
+        CloudSim.init(1, null, false);
+        PolicyRunner.createDatacenter("Datacenter_0", TopologyBuilder.parse("8x1x2000x16384x10000"));
+        DatacenterBroker broker = new ArrivalAwareBroker("Broker_0");
+        List<Vm> vmlist = scenario.createVms(broker.getId(), fcfs);
+        List<CustomCloudlet> cloudletList = scenario.createCloudlets(broker.getId());
+        fcfs.prepare(cloudletList, vmlist);
+        broker.submitVmList(vmlist);
+        broker.submitCloudletList(cloudletList);
+        CloudSim.startSimulation();
+        finishedCloudlets = broker.getCloudletReceivedList();
+        CloudSim.stopSimulation();
+    }
+
+    @Benchmark
+    public RunResult aggregate() {
+        return RunResult.of("FCFS", finishedCloudlets, 0);
+    }
+
+    @Benchmark
+    public double waitTimeP99() {
+        MetricsAccumulator metrics = new MetricsAccumulator();
+        for (Cloudlet cloudlet : finishedCloudlets) {
+            metrics.accept(cloudlet);
+        }
+        return metrics.getWaitTime().getValueAtPercentile(99);
+    }
+}
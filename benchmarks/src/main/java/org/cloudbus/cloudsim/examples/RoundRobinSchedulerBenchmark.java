@@ -0,0 +1,68 @@
+package org.cloudbus.cloudsim.examples;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.Log;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Round Robin time slicing on one VM, driven directly without the event queue: every
+ * cloudlet is submitted at time 0 and the scheduler is stepped from event to event until
+ * the last one finishes. This is the loop that replaced distributeCloudletsRoundRobin.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RoundRobinSchedulerBenchmark {
+
+    @Param({"1000", "10000"})
+    public int cloudlets;
+
+    @Param({"0.1", "1.0"})
+    public double quantum;
+
+    private static final List<Double> MIPS_SHARE = Collections.singletonList(1000.0);
+
+    private Scenario scenario;
+    private List<CustomCloudlet> cloudletList;
+
+    @Setup(Level.Trial)
+    public void setUpScenario() {
+        Log.disable();
+        scenario = Scenario.synthetic(1, new int[]{1000}, cloudlets, 42);
+    }
+
+    // Cloudlets carry their progress, so each run needs fresh ones
+    @Setup(Level.Invocation)
+    public void setUpCloudlets() {
+        cloudletList = scenario.createCloudlets(0);
+        for (CustomCloudlet cloudlet : cloudletList) {
+            cloudlet.setResourceParameter(0, 0.0, 0.0);
+        }
+    }
+
+    @Benchmark
+    public long timeSlice(Blackhole blackhole) {
+        RoundRobinCloudletScheduler scheduler = new RoundRobinCloudletScheduler(quantum);
+        scheduler.updateVmProcessing(0.0, MIPS_SHARE);
+        for (CustomCloudlet cloudlet : cloudletList) {
+            scheduler.cloudletSubmit(cloudlet);
+        }
+        double next = scheduler.updateVmProcessing(0.0, MIPS_SHARE);
+        while (next > 0.0 && next < Double.MAX_VALUE) {
+            next = scheduler.updateVmProcessing(next, MIPS_SHARE);
+            while (scheduler.isFinishedCloudlets()) {
+                Cloudlet finished = scheduler.getNextFinishedCloudlet();
+                blackhole.consume(finished);
+            }
+        }
+        return scheduler.getPreemptionCount();
+    }
+}
@@ -0,0 +1,49 @@
+package org.cloudbus.cloudsim.examples;
+
+import org.cloudbus.cloudsim.Log;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Complete CloudSim.startSimulation runs of one synthetic scenario per policy, through
+ * PolicyRunner like a comparison run. At 10^5 cloudlets a single run takes seconds, so
+ * iterations are few and long. Each run is measured on CloudSim's default future queue and on
+ * the ladder queue.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+public class SimulationBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int cloudlets;
+
+    @Param({"FCFS", "SJF", "SRTF", "Priority", "Round Robin"})
+    public String policy;
+
+    // Future event queue, see LadderFutureQueue
+    @Param({"default", "ladder"})
+    public String eventQueue;
+
+    private Scenario scenario;
+    private SchedulingPolicy schedulingPolicy;
+    private TopologyBuilder topology;
+
+    @Setup
+    public void setUp() {
+        Log.disable();
+        System.setProperty("cloudsim.eventqueue", eventQueue);
+        scenario = Scenario.synthetic(8, new int[]{1000, 2000}, cloudlets, 42);
+        schedulingPolicy = SchedulingPolicies.defaults(0.1).get(policy);
+        topology = TopologyBuilder.parse("8x1x2000x16384x10000");
+    }
+
+    @Benchmark
+    public RunResult startSimulation() throws Exception {
+        return PolicyRunner.run(scenario, schedulingPolicy, topology);
+    }
+}